@@ -0,0 +1,131 @@
+import com.sun.management.ThreadMXBean;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/** Minimal benchmark harness measuring average time and allocation per operation, with results written as JSON.
+ * Each benchmark runs warmup iterations that are discarded, then measured iterations whose mean, standard
+ * deviation and minimum are reported. Unlike JMH, benchmarks are not forked into fresh JVMs and results are not
+ * consumed to defeat dead code elimination, so each benchmark runs on the JIT and heap state left by the ones before.
+ * @author Brian Lin
+ */
+public class benchmarkRunner {
+
+    /** Constructor for a runner using the given iteration counts
+     *
+     * @param warmupIterations iterations run and discarded before measuring
+     * @param measureIterations iterations measured for each benchmark
+     */
+    public benchmarkRunner(int warmupIterations, int measureIterations) {
+        this.warmupIterations = warmupIterations;
+        this.measureIterations = measureIterations;
+    }
+
+    /** A single benchmarked operation */
+    public interface operation {
+        void run() throws Exception;
+    }
+
+    /** Runs and records a benchmark, printing a one line summary
+     *
+     * @param name benchmark name
+     * @param params parameters of this benchmark run, such as the instance size
+     * @param bytesPerOp bytes processed by each operation for throughput reporting, or 0 if not applicable
+     * @param op operation to measure
+     * @throws Exception if the operation fails
+     */
+    public void run(String name, Map<String, Object> params, long bytesPerOp, operation op) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            op.run();
+        }
+        double[] millis = new double[measureIterations];
+        long allocated = 0;
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < measureIterations; i++) {
+            long allocStart = THREADS.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            op.run();
+            millis[i] = (System.nanoTime() - start) / 1e6;
+            allocated += THREADS.getThreadAllocatedBytes(threadId) - allocStart;
+        }
+        double mean = Arrays.stream(millis).average().orElse(0);
+        double variance = Arrays.stream(millis).map(t -> (t - mean) * (t - mean)).sum() / Math.max(1, millis.length - 1);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", name);
+        result.put("params", params);
+        result.put("mode", "avgt");
+        result.put("unit", "ms/op");
+        result.put("score", mean);
+        result.put("error", Math.sqrt(variance));
+        result.put("min", Arrays.stream(millis).min().orElse(0));
+        result.put("allocBytesPerOp", allocated / (double) measureIterations);
+        result.put("allocMBPerSec", mean == 0 ? 0 : allocated / (double) measureIterations / 1e6 / (mean / 1e3));
+        if (bytesPerOp > 0) {
+            result.put("throughputMBPerSec", mean == 0 ? 0 : bytesPerOp / 1e6 / (mean / 1e3));
+        }
+        result.put("samples", measureIterations);
+        results.add(result);
+        System.out.println(String.format("%-28s %-28s %12.4f ms/op  +- %.4f  %14.0f B/op", name, params, mean,
+                Math.sqrt(variance), allocated / (double) measureIterations));
+    }
+
+    /** Writes every recorded result to a JSON file along with the runtime it was measured on
+     *
+     * @param outputFile file to write results to
+     * @throws IOException if the file cannot be written
+     */
+    public void writeJson(File outputFile) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("vm", System.getProperty("java.vm.name"));
+        report.put("processors", Runtime.getRuntime().availableProcessors());
+        report.put("timestamp", new Date().toInstant().toString());
+        report.put("results", results);
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8)) {
+            out.write(toJson(report));
+            out.write(System.lineSeparator());
+        }
+    }
+
+    /** Converts maps, lists, strings and numbers to JSON text
+     *
+     * @param value value to convert
+     * @return JSON text
+     */
+    static String toJson(Object value) {
+        if (value instanceof Map) {
+            StringBuilder json = new StringBuilder("{");
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                json.append(json.length() > 1 ? "," : "").append(toJson(String.valueOf(entry.getKey())))
+                        .append(':').append(toJson(entry.getValue()));
+            }
+            return json.append('}').toString();
+        } else if (value instanceof Collection) {
+            StringBuilder json = new StringBuilder("[");
+            for (Object element : (Collection<?>) value) {
+                json.append(json.length() > 1 ? "," : "").append(toJson(element));
+            }
+            return json.append(']').toString();
+        } else if (value instanceof Number || value instanceof Boolean) {
+            double number = value instanceof Number ? ((Number) value).doubleValue() : 0;
+            return Double.isNaN(number) || Double.isInfinite(number) ? "null" : String.valueOf(value);
+        } else if (value == null) {
+            return "null";
+        }
+        return batchSolver.quote(String.valueOf(value));
+    }
+
+    /** Thread bean used to read per-thread allocation counters */
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** Iterations run and discarded before measuring */
+    private final int warmupIterations;
+
+    /** Iterations measured for each benchmark */
+    private final int measureIterations;
+
+    /** Results recorded so far, in run order */
+    private final List<Map<String, Object>> results = new ArrayList<>();
+}
@@ -0,0 +1,84 @@
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+
+/** Benchmarks for the solver, catalog loading and persistence, run from the directory holding the catalog csv files.
+ * Usage: catalogBenchmarks [output.json] [minSize] [maxSize]
+ * @author Brian Lin
+ */
+public class catalogBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        File output = new File(args.length > 0 ? args[0] : "bench-results.json");
+        int minSize = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int maxSize = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        benchmarkRunner runner = new benchmarkRunner(3, 5);
+        File graphDir = Files.createTempDirectory("graphsBench").toFile();
+        graphManager catalog = new graphManager(graphDir, "graphData");
+
+        long distanceBytes = new File(Main.csvPath).length();
+        long coordinateBytes = new File(Main.csvCoordinates).length();
+        runner.run("readDistances", params(), distanceBytes, () -> catalog.readDistances(Main.csvPath));
+        runner.run("readCoordinates", params(), coordinateBytes, () -> catalog.readCoordinates(Main.csvCoordinates));
+
+        for (pathSolver solver : buildingGraph.availableSolvers().values()) {
+            if (!solver.exact()) {
+                continue;
+            }
+            for (int size = minSize; size <= Math.min(maxSize, solver.maxSize()); size++) {
+                distanceView view = distanceView.of(catalogSubset(catalog, size, size), catalog.getDistanceRows(),
+                        catalog.getBuildingIndices());
+                runner.run("solve", params("solver", solver.name(), "n", size), 0, () -> solver.solve(view));
+            }
+        }
+
+        buildingGraph graph = new buildingGraph(catalogSubset(catalog, 12, 0), "bench", catalog.getDistanceRows(),
+                catalog.getBuildingIndices(), catalog.getCoordinates(), false);
+        runner.run("getGraphID", params("n", 12), 0,
+                () -> serializeUtils.getHash((Object) serializeUtils.serialize(graph)));
+
+        for (int sets : new int[]{10, 1000}) {
+            graphManager registry = new graphManager(graphDir, "graphData");
+            for (int i = 0; i < sets; i++) {
+                registry.addGraph("set" + i, serializeUtils.getHash("set" + i));
+            }
+            runner.run("graphManagerRoundTrip", params("sets", sets), 0, () -> {
+                registry.writeGraphManager();
+                graphManager.readGraphManager(graphDir, "graphData");
+            });
+        }
+
+        runner.writeJson(output);
+        System.out.println("Results written to " + output.getPath());
+        for (File file : Objects.requireNonNull(graphDir.listFiles())) {
+            file.delete();
+        }
+        graphDir.delete();
+    }
+
+    /** Picks a reproducible random subset of catalog buildings
+     *
+     * @param catalog graphManager with loaded tables
+     * @param size number of buildings to pick
+     * @param seed seed for the random choice
+     * @return building names
+     */
+    static List<String> catalogSubset(graphManager catalog, int size, long seed) {
+        List<String> names = new ArrayList<>(new TreeSet<>(catalog.getBuildingIndices().keySet()));
+        Collections.shuffle(names, new Random(seed));
+        return new ArrayList<>(names.subList(0, Math.min(size, names.size())));
+    }
+
+    /** Builds an ordered parameter map from alternating keys and values
+     *
+     * @param keyValues alternating parameter names and values
+     * @return parameter map
+     */
+    static Map<String, Object> params(Object... keyValues) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            params.put(String.valueOf(keyValues[i]), keyValues[i + 1]);
+        }
+        return params;
+    }
+}
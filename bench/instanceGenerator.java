@@ -0,0 +1,167 @@
+import java.util.*;
+
+/** Generator of reproducible solver test instances: uniform and clustered points measured with Euclidean
+ * or haversine distance, and random subsets of the real building catalog.
+ * @author Brian Lin
+ */
+public class instanceGenerator {
+
+    /** Constructor for a generator drawing from the given seed
+     *
+     * @param seed seed for every random choice
+     * @param catalog graphManager with loaded tables, or null to skip catalog instances
+     */
+    public instanceGenerator(long seed, graphManager catalog) {
+        this.random = new Random(seed);
+        this.catalog = catalog;
+    }
+
+    /** Returns the names of the instance families this generator can produce
+     *
+     * @return family names accepted by generate
+     */
+    public List<String> families() {
+        List<String> families = new ArrayList<>(Arrays.asList("uniform", "clustered", "haversine"));
+        if (catalog != null) {
+            families.add("catalog");
+        }
+        return families;
+    }
+
+    /** Generates an instance of the given family and size
+     *
+     * @param family instance family name
+     * @param size number of buildings
+     * @return distance view for the instance
+     */
+    public distanceView generate(String family, int size) {
+        switch (family) {
+            case "uniform":
+                return euclidean(uniformPoints(size, FIELD_METERS));
+            case "clustered":
+                return euclidean(clusteredPoints(size));
+            case "haversine":
+                return haversine(size);
+            case "catalog":
+                List<String> names = new ArrayList<>(new TreeSet<>(catalog.getBuildingIndices().keySet()));
+                Collections.shuffle(names, random);
+                return distanceView.of(names.subList(0, Math.min(size, names.size())), catalog.getDistanceRows(),
+                        catalog.getBuildingIndices(), catalog.getCoordinates());
+            default:
+                throw new IllegalArgumentException("unknown instance family " + family);
+        }
+    }
+
+    /** Draws points uniformly from a square field
+     *
+     * @param size number of points
+     * @param field side length of the field in meters
+     * @return x/y pairs in meters
+     */
+    private double[][] uniformPoints(int size, double field) {
+        double[][] points = new double[size][2];
+        for (double[] point : points) {
+            point[0] = random.nextDouble() * field;
+            point[1] = random.nextDouble() * field;
+        }
+        return points;
+    }
+
+    /** Draws points from gaussian clusters around uniformly placed centers
+     *
+     * @param size number of points
+     * @return x/y pairs in meters
+     */
+    private double[][] clusteredPoints(int size) {
+        double[][] centers = uniformPoints(Math.max(1, size / 8), FIELD_METERS);
+        double[][] points = new double[size][2];
+        for (double[] point : points) {
+            double[] center = centers[random.nextInt(centers.length)];
+            point[0] = center[0] + random.nextGaussian() * FIELD_METERS / 40;
+            point[1] = center[1] + random.nextGaussian() * FIELD_METERS / 40;
+        }
+        return points;
+    }
+
+    /** Builds an instance over points with Euclidean distances
+     *
+     * @param points x/y pairs in meters
+     * @return distance view for the points
+     */
+    private static distanceView euclidean(double[][] points) {
+        double[][] distances = new double[points.length][points.length];
+        for (int i = 0; i < points.length; i++) {
+            for (int j = 0; j < points.length; j++) {
+                distances[i][j] = Math.hypot(points[i][0] - points[j][0], points[i][1] - points[j][1]);
+            }
+        }
+        return new distanceView(names(points.length), distances, points);
+    }
+
+    /** Builds an instance over random longitude/latitude pairs around campus with haversine distances
+     *
+     * @param size number of points
+     * @return distance view for the points
+     */
+    private distanceView haversine(int size) {
+        double[][] lonLat = new double[size][2];
+        for (double[] point : lonLat) {
+            point[0] = CAMPUS_LON + (random.nextDouble() - 0.5) * 0.03;
+            point[1] = CAMPUS_LAT + (random.nextDouble() - 0.5) * 0.03;
+        }
+        double[][] distances = new double[size][size];
+        double[][] positions = new double[size][];
+        for (int i = 0; i < size; i++) {
+            positions[i] = distanceView.project(lonLat[i]);
+            for (int j = 0; j < size; j++) {
+                distances[i][j] = haversineMeters(lonLat[i], lonLat[j]);
+            }
+        }
+        return new distanceView(names(size), distances, positions);
+    }
+
+    /** Returns the great circle distance between two longitude/latitude pairs
+     *
+     * @param a first longitude/latitude pair in degrees
+     * @param b second longitude/latitude pair in degrees
+     * @return distance in meters
+     */
+    static double haversineMeters(double[] a, double[] b) {
+        double latDiff = Math.toRadians(b[1] - a[1]);
+        double lonDiff = Math.toRadians(b[0] - a[0]);
+        double h = Math.pow(Math.sin(latDiff / 2), 2)
+                + Math.cos(Math.toRadians(a[1])) * Math.cos(Math.toRadians(b[1])) * Math.pow(Math.sin(lonDiff / 2), 2);
+        return 2 * EARTH_RADIUS_METERS * Math.atan2(Math.sqrt(h), Math.sqrt(1 - h));
+    }
+
+    /** Returns placeholder building names for generated instances
+     *
+     * @param size number of names
+     * @return names p0, p1, ...
+     */
+    private static List<String> names(int size) {
+        List<String> names = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            names.add("p" + i);
+        }
+        return names;
+    }
+
+    /** Side length in meters of the field that Euclidean points are drawn from */
+    private static final double FIELD_METERS = 2000;
+
+    /** Longitude of the center of campus */
+    private static final double CAMPUS_LON = -122.2595;
+
+    /** Latitude of the center of campus */
+    private static final double CAMPUS_LAT = 37.8720;
+
+    /** Earth radius used by the haversine formula, matching geocodingBuildings.py */
+    private static final double EARTH_RADIUS_METERS = 6370120;
+
+    /** Source of every random choice */
+    private final Random random;
+
+    /** graphManager with loaded tables, or null to skip catalog instances */
+    private final graphManager catalog;
+}
@@ -0,0 +1,294 @@
+import java.io.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/** Quality and performance regression harness running every available solver on generated and catalog instances.
+ * Results are checked against the exact optimum wherever an exact solver can reach the instance size, otherwise
+ * against the best path any solver found, and summarized per family, size and solver.
+ * Usage: solverHarness [report.md] [sizes] [instancesPerSize] [seed], where sizes is a comma separated list.
+ * @author Brian Lin
+ */
+public class solverHarness {
+
+    public static void main(String[] args) throws IOException {
+        File report = new File(args.length > 0 ? args[0] : "solver-report.md");
+        int[] sizes = Arrays.stream((args.length > 1 ? args[1] : "6,10,14,18,22,40,80,150").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int instances = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+
+        graphManager catalog = null;
+        if (new File(Main.csvPath).exists()) {
+            catalog = new graphManager(new File("."), "graphData");
+            catalog.readDistances(Main.csvPath);
+            catalog.readCoordinates(Main.csvCoordinates);
+        }
+        instanceGenerator generator = new instanceGenerator(seed, catalog);
+        Map<String, summary> summaries = new LinkedHashMap<>();
+        for (String family : generator.families()) {
+            for (int size : sizes) {
+                for (int instance = 0; instance < instances; instance++) {
+                    runInstance(generator.generate(family, size), family, summaries);
+                }
+            }
+        }
+        writeReport(report, summaries, seed, instances);
+        System.out.println("Report written to " + report.getPath());
+    }
+
+    /** Runs every solver that can reach the instance size and records its results
+     *
+     * @param view instance to solve
+     * @param family instance family name
+     * @param summaries summaries keyed by family, size and solver
+     */
+    private static void runInstance(distanceView view, String family, Map<String, summary> summaries) {
+        Map<String, pathResult> paths = new LinkedHashMap<>();
+        Map<String, measurement> measurements = new LinkedHashMap<>();
+        for (pathSolver solver : buildingGraph.availableSolvers().values()) {
+            if (solver.maxSize() < view.size()) {
+                continue;
+            }
+            measurement measured = new measurement();
+            paths.put(solver.name(), measured.run(solver, view));
+            measurements.put(solver.name(), measured);
+        }
+        double optimum = Double.POSITIVE_INFINITY;
+        double best = Double.POSITIVE_INFINITY;
+        for (Map.Entry<String, pathResult> entry : paths.entrySet()) {
+            best = Math.min(best, entry.getValue().length());
+            if (buildingGraph.availableSolvers().get(entry.getKey()).exact()) {
+                optimum = Math.min(optimum, entry.getValue().length());
+            }
+        }
+        boolean proven = optimum != Double.POSITIVE_INFINITY;
+        double reference = proven ? optimum : best;
+        for (Map.Entry<String, pathResult> entry : paths.entrySet()) {
+            String key = family + "|" + view.size() + "|" + entry.getKey();
+            summary row = summaries.computeIfAbsent(key, k -> new summary(family, view.size(), entry.getKey()));
+            pathSolver solver = buildingGraph.availableSolvers().get(entry.getKey());
+            boolean withinBound = !proven || entry.getValue().length() <= reference * solver.bound(view) * (1 + 1e-9);
+            row.add(entry.getValue(), measurements.get(entry.getKey()), reference, proven, valid(entry.getValue(), view),
+                    withinBound);
+        }
+    }
+
+    /** Checks that a path starts at node 0 and visits every node exactly once
+     *
+     * @param path solver result
+     * @param view instance it was solved over
+     * @return whether the path is a valid open path
+     */
+    private static boolean valid(pathResult path, distanceView view) {
+        if (path.size() != view.size() || (path.size() > 0 && path.node(0) != 0)) {
+            return false;
+        }
+        boolean[] seen = new boolean[view.size()];
+        for (int node : path.nodes()) {
+            if (node < 0 || node >= seen.length || seen[node]) {
+                return false;
+            }
+            seen[node] = true;
+        }
+        return true;
+    }
+
+    /** Writes the summaries as a markdown table and as JSON alongside it
+     *
+     * @param report markdown file to write
+     * @param summaries summaries keyed by family, size and solver
+     * @param seed seed the instances were generated from
+     * @param instances number of instances per family and size
+     * @throws IOException if a file cannot be written
+     */
+    private static void writeReport(File report, Map<String, summary> summaries, long seed, int instances)
+            throws IOException {
+        StringBuilder markdown = new StringBuilder("# Solver comparison\n\n");
+        markdown.append(String.format("Seed %d, %d instances per family and size, Java %s, %d processors.%n%n",
+                seed, instances, System.getProperty("java.version"), Runtime.getRuntime().availableProcessors()));
+        markdown.append("Gap is relative to the exact optimum, or to the best path found (marked *) where no exact "
+                + "solver reaches the size.\n\n");
+        markdown.append("| family | n | solver | mean gap % | max gap % | mean ms | max ms | peak heap MB | GCs | GC ms "
+                + "| invalid | over bound |\n");
+        markdown.append("|---|---|---|---|---|---|---|---|---|---|---|---|\n");
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (summary row : summaries.values()) {
+            markdown.append(String.format("| %s | %d | %s | %.3f%s | %.3f | %.2f | %.2f | %.1f | %d | %d | %d | %d |%n",
+                    row.family, row.size, row.solver, row.meanGap(), row.proven ? "" : "*", row.maxGap,
+                    row.meanMillis(), row.maxMillis, row.peakHeapBytes / 1e6, row.gcCount, row.gcMillis, row.invalid,
+                    row.overBound));
+            rows.add(row.toMap());
+        }
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(report), StandardCharsets.UTF_8)) {
+            out.write(markdown.toString());
+        }
+        File json = new File(report.getPath().replaceFirst("\\.md$", "") + ".json");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(json), StandardCharsets.UTF_8)) {
+            out.write(benchmarkRunner.toJson(rows));
+            out.write(System.lineSeparator());
+        }
+        System.out.print(markdown);
+    }
+
+    /** Wall time, peak heap and garbage collection activity of a single solve */
+    private static class measurement {
+
+        /** Solves the instance, recording its cost
+         *
+         * @param solver solver to run
+         * @param view instance to solve
+         * @return solver result
+         */
+        pathResult run(pathSolver solver, distanceView view) {
+            System.gc();
+            long gcCountStart = gcCount();
+            long gcMillisStart = gcMillis();
+            List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    pool.resetPeakUsage();
+                    heapPools.add(pool);
+                }
+            }
+            long start = System.nanoTime();
+            pathResult path = solver.solve(view);
+            millis = (System.nanoTime() - start) / 1e6;
+            for (MemoryPoolMXBean pool : heapPools) {
+                peakHeapBytes += pool.getPeakUsage().getUsed();
+            }
+            gcCount = gcCount() - gcCountStart;
+            gcMillis = gcMillis() - gcMillisStart;
+            return path;
+        }
+
+        /** Returns the total number of collections across all collectors */
+        private static long gcCount() {
+            long count = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, collector.getCollectionCount());
+            }
+            return count;
+        }
+
+        /** Returns the total collection time across all collectors */
+        private static long gcMillis() {
+            long time = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                time += Math.max(0, collector.getCollectionTime());
+            }
+            return time;
+        }
+
+        /** Wall time of the solve */
+        double millis;
+
+        /** Sum of peak usage across heap pools during the solve */
+        long peakHeapBytes;
+
+        /** Collections during the solve */
+        long gcCount;
+
+        /** Collection time during the solve */
+        long gcMillis;
+    }
+
+    /** Aggregated results of one solver on every instance of one family and size */
+    private static class summary {
+        summary(String family, int size, String solver) {
+            this.family = family;
+            this.size = size;
+            this.solver = solver;
+        }
+
+        /** Adds the result of one instance
+         *
+         * @param path solver result
+         * @param measured cost of the solve
+         * @param reference optimum or best known length for the instance
+         * @param provenOptimum whether the reference is the exact optimum
+         * @param validPath whether the result is a valid open path
+         * @param withinBound whether the result is within the solver's proven bound of the optimum
+         */
+        void add(pathResult path, measurement measured, double reference, boolean provenOptimum, boolean validPath,
+                 boolean withinBound) {
+            double gap = reference > 0 ? (path.length() - reference) / reference * 100 : 0;
+            runs++;
+            totalGap += gap;
+            maxGap = Math.max(maxGap, gap);
+            totalMillis += measured.millis;
+            maxMillis = Math.max(maxMillis, measured.millis);
+            peakHeapBytes = Math.max(peakHeapBytes, measured.peakHeapBytes);
+            gcCount += measured.gcCount;
+            gcMillis += measured.gcMillis;
+            proven = provenOptimum;
+            invalid += validPath ? 0 : 1;
+            overBound += withinBound ? 0 : 1;
+        }
+
+        /** Returns the mean gap to the reference length, in percent */
+        double meanGap() {
+            return totalGap / runs;
+        }
+
+        /** Returns the mean wall time of a solve */
+        double meanMillis() {
+            return totalMillis / runs;
+        }
+
+        /** Returns this summary as a JSON-ready map */
+        Map<String, Object> toMap() {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("family", family);
+            row.put("n", size);
+            row.put("solver", solver);
+            row.put("runs", runs);
+            row.put("meanGapPercent", meanGap());
+            row.put("maxGapPercent", maxGap);
+            row.put("gapAgainstOptimum", proven);
+            row.put("meanMillis", meanMillis());
+            row.put("maxMillis", maxMillis);
+            row.put("peakHeapBytes", peakHeapBytes);
+            row.put("gcCount", gcCount);
+            row.put("gcMillis", gcMillis);
+            row.put("invalidPaths", invalid);
+            row.put("overBound", overBound);
+            return row;
+        }
+
+        /** Instance family, size and solver this summary covers */
+        final String family;
+        final int size;
+        final String solver;
+
+        /** Number of instances added */
+        int runs;
+
+        /** Sum and maximum of the gap to the reference length, in percent */
+        double totalGap;
+        double maxGap;
+
+        /** Sum and maximum of solve wall time */
+        double totalMillis;
+        double maxMillis;
+
+        /** Largest peak heap usage of any solve */
+        long peakHeapBytes;
+
+        /** Collections and collection time across all solves */
+        long gcCount;
+        long gcMillis;
+
+        /** Whether gaps are measured against the exact optimum rather than the best path found */
+        boolean proven;
+
+        /** Number of results that were not valid open paths */
+        int invalid;
+
+        /** Number of results longer than the solver's proven bound allows */
+        int overBound;
+    }
+}
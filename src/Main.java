@@ -1,6 +1,8 @@
 import java.io.*;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /** Main class for Berkeley optimal building paths program.
  * @author Brian Lin
@@ -8,11 +10,19 @@ import java.util.*;
 public class Main {
 
     public static void main(String[] args) {
+        boolean stats = Arrays.asList(args).contains(STATS_FLAG);
+        if (stats) {
+            args = Arrays.stream(args).filter(arg -> !arg.equals(STATS_FLAG)).toArray(String[]::new);
+        }
         if (args.length == 0) {
             System.out.println("Please enter a command.");
+        } else if (args[0].equals("client")) {
+            clientHandler(args);
+        } else if (args[0].equals("worker")) {
+            workerHandler(args);
         } else {
             try {
-                setupPersistence();
+                setupPersistence(args[0]);
                 switch (args[0]) {
                     case "add":
                         if (args.length == 2) {
@@ -24,15 +34,58 @@ public class Main {
                         break;
                     case "update":
                         if (args.length == 2) {
-                            updateHandler(args);
+                            synchronized (graphData.lockFor(args[1])) {
+                                updateHandler(args);
+                            }
                         } else {
                             System.out.println("Invalid command format.");
                         }
                         break;
                     case "remove":
                         if (args.length == 2) {
-                            removeHandler(args);
-                            graphData.writeGraphManager();
+                            synchronized (graphData.lockFor(args[1])) {
+                                removeHandler(args);
+                                graphData.writeGraphManager();
+                            }
+                        } else {
+                            System.out.println("Invalid command format.");
+                        }
+                        break;
+                    case "distributed":
+                        if (args.length == 3) {
+                            synchronized (graphData.lockFor(args[1])) {
+                                distributedHandler(args);
+                            }
+                        } else {
+                            System.out.println("Invalid command format.");
+                        }
+                        break;
+                    case "solve":
+                        if (args.length == 3) {
+                            synchronized (graphData.lockFor(args[1])) {
+                                solveHandler(args);
+                            }
+                        } else {
+                            System.out.println("Invalid command format.");
+                        }
+                        break;
+                    case "walkers":
+                        if (args.length == 3) {
+                            walkersHandler(args);
+                        } else {
+                            System.out.println("Invalid command format.");
+                        }
+                        break;
+                    case "starts":
+                        if (args.length == 2) {
+                            startsHandler(args);
+                        } else {
+                            System.out.println("Invalid command format.");
+                        }
+                        break;
+                    case "preview":
+                        if (args.length == 2 || args.length == 3) {
+                            previewHandler(args);
                         } else {
                             System.out.println("Invalid command format.");
                         }
@@ -44,6 +97,13 @@ public class Main {
                             System.out.println("Invalid command format.");
                         }
                         break;
+                    case "find":
+                        if (args.length >= 2) {
+                            findHandler(args);
+                        } else {
+                            System.out.println("Invalid command format.");
+                        }
+                        break;
                     case "help":
                         if (args.length == 1) {
                             helpHandler();
@@ -59,6 +119,50 @@ public class Main {
                             System.out.println("Invalid command format.");
                         }
                         break;
+                    case "collapse":
+                        if (args.length == 2) {
+                            collapseHandler(args);
+                            graphData.writeGraphManager();
+                        } else {
+                            System.out.println("Invalid command format.");
+                        }
+                        break;
+                    case "batch":
+                        if (args.length == 2 || args.length == 3) {
+                            batchHandler(args);
+                        } else {
+                            System.out.println("Invalid command format.");
+                        }
+                        break;
+                    case "render":
+                        if (args.length >= 3) {
+                            renderHandler(args);
+                        } else {
+                            System.out.println("Invalid command format.");
+                        }
+                        break;
+                    case "export":
+                        if (args.length == 2) {
+                            exportHandler(args);
+                        } else {
+                            System.out.println("Invalid command format.");
+                        }
+                        break;
+                    case "import":
+                        if (args.length == 2) {
+                            importHandler(args);
+                            graphData.writeGraphManager();
+                        } else {
+                            System.out.println("Invalid command format.");
+                        }
+                        break;
+                    case "daemon":
+                        if (args.length == 1) {
+                            daemonHandler();
+                        } else {
+                            System.out.println("Invalid command format.");
+                        }
+                        break;
                     case "quit":
                         break;
                     default:
@@ -68,20 +172,96 @@ public class Main {
             } catch (IOException excp) {
                 excp.printStackTrace();
             }
+            if (!args[0].equals("daemon")) {
+                finishResolving();
+            }
+        }
+        if (stats) {
+            System.out.println();
+            System.out.print(solveMetrics.snapshot());
         }
     }
 
-    /** Sets up persistence with directory to save graphs to on disk */
-    public static void setupPersistence() throws IOException {
+    /** Sets up persistence with directory to save graphs to on disk.
+     * Only the registry of building sets is read up front; the name, distance and coordinate tables
+     * are read by graphManager when first used, so commands that never solve never load the matrix.
+     *
+     * @param command command given to the program, used to decide which tables to load ahead of use
+     */
+    public static void setupPersistence(String command) throws IOException {
         if (!GRAPHDIR.exists()) {
             GRAPHDIR.mkdir();
-            graphData = new graphManager(graphDataPath);
-            graphData.readDistances(csvPath);
-            graphData.readCoordinates(csvCoordinates);
+            graphData = new graphManager(GRAPHDIR, graphDataPath);
+            graphData.rebuildCatalog(csvPath, csvCoordinates);
+            getCatalogReloader().recordVersion();
             graphData.writeGraphManager();
         } else {
-            graphData = graphManager.readGraphManager(graphDataPath);
+            graphData = graphManager.readGraphManager(GRAPHDIR, graphDataPath);
+            if (!graphData.hasCatalog()) {
+                graphData.rebuildCatalog(csvPath, csvCoordinates);
+                getCatalogReloader().recordVersion();
+                graphData.writeGraphManager();
+            }
+            List<String> affected = getCatalogReloader().reloadIfChanged();
+            List<String> stale = graphData.staleGraphs();
+            if (!stale.isEmpty() && !command.equals("daemon")) {
+                System.out.println(String.format(affected.isEmpty()
+                        ? "Re-solving %d building sets left from an earlier building catalog change in the background."
+                        : "Building catalog changed: re-solving %d affected building sets in the background.", stale.size()));
+                resolving = getCatalogReloader().resolveInBackground(stale);
+            }
+            switch (command) {
+                case "add":
+                case "update":
+                    Thread preload = new Thread(() -> {
+                        graphData.getDistanceRows();
+                        graphData.getCoordinates();
+                    });
+                    preload.setDaemon(true);
+                    preload.start();
+                    break;
+                case "batch":
+                case "render":
+                case "import":
+                case "daemon":
+                    graphData.getBuildingIndices();
+                    graphData.getDistanceRows();
+                    graphData.getCoordinates();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /** Waits a bounded time for building sets being re-solved after a catalog change, so that a short command
+     * neither exits before they finish nor hangs on a long re-solve. Sets left unfinished stay recorded as stale
+     * and are re-solved by a later command.
+     */
+    public static void finishResolving() {
+        if (resolving == null) {
+            return;
+        }
+        try {
+            if (!resolving.awaitTermination(RESOLVE_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                System.out.println(String.format(
+                        "%d building sets are still being re-solved and will be finished by a later command.",
+                        graphData.staleGraphs().size()));
+            }
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Returns the reloader keeping graphData consistent with the catalog csv files
+     *
+     * @return catalog reloader for graphData
+     */
+    public static catalogReloader getCatalogReloader() {
+        if (reloader == null) {
+            reloader = new catalogReloader(graphData, csvPath, csvCoordinates);
         }
+        return reloader;
     }
 
     /** Handler for add command in main
@@ -95,22 +275,31 @@ public class Main {
             System.out.println(graphData.graphic);
             Scanner scan = new Scanner(System.in);
             List<String> buildingList = new ArrayList<>();
-            System.out.println("Enter building names to add to path or STOP to finishing inputting:");
+            Set<String> chosen = new HashSet<>();
+            System.out.println("Enter building names to add to path, one per line or several separated by commas, or STOP to finishing inputting:");
             while(true) {
                 String input = scan.nextLine();
                 if (input.equals("STOP")) {
                     break;
                 }
-                if (graphData.checkBuilding(input) && !buildingList.contains(input)) {
-                    buildingList.add(input);
-                } else {
-                    System.out.println("Invalid building name.");
+                for (String building : resolveBuildings(input)) {
+                    if (chosen.add(building)) {
+                        buildingList.add(building);
+                    } else {
+                        System.out.println(String.format("Building %s already added.", building));
+                    }
                 }
             }
+            boolean anyStart = false;
             while(true) {
-                System.out.println("Enter the building name to start at:");
+                System.out.println(String.format("Enter the building name to start at, or %s to start wherever the path is shortest:", ANY_START));
                 String input = scan.nextLine();
-                if (buildingList.contains(input)) {
+                if (input.equals(ANY_START)) {
+                    anyStart = true;
+                    break;
+                }
+                input = resolveBuilding(input);
+                if (chosen.contains(input)) {
                     if (!buildingList.get(0).equals(input)) {
                         buildingList.set(buildingList.indexOf(input), buildingList.get(0));
                         buildingList.set(0, input);
@@ -120,9 +309,15 @@ public class Main {
                     System.out.println("Invalid building name.");
                 }
             }
-            buildingGraph newGraph = new buildingGraph(buildingList, graphName,
-                    graphData.csvRows, graphData.csvBuildingIndices, graphData.csvCoordinates, graphData.graphic);
-            newGraph.calcMinPath();
+            buildingGraph newGraph = new buildingGraph(buildingList, graphName, graphData.getDistanceRows(),
+                    graphData.getBuildingIndices(), graphData.getCoordinates(), graphData.graphic);
+            newGraph.setCollapseTolerance(graphData.getCollapseTolerance());
+            if (anyStart) {
+                newGraph.calcBestStartPath();
+            } else {
+                newGraph.calcMinPath();
+            }
+            newGraph.writeGraph(GRAPHDIR);
             graphData.addGraph(graphName, newGraph.getGraphID());
         } else {
             System.out.println("A graph with this name already exists.");
@@ -138,7 +333,7 @@ public class Main {
         String graphName = args[1];
         if (graphData.checkGraph(graphName)) {
             Scanner scan = new Scanner(System.in);
-            buildingGraph updateGraph = buildingGraph.readGraph(graphData.getGraph(graphName));
+            buildingGraph updateGraph = buildingGraph.readGraph(GRAPHDIR, graphData.getGraph(graphName));
             boolean updateInputExit = true;
             System.out.println(String.format("Now updating %s", graphName));
             System.out.println("Current information for this building set:\n" + updateGraph.toString());
@@ -148,30 +343,34 @@ public class Main {
                 String updateInput = scan.nextLine();
                 switch (updateInput) {
                     case "1":
-                        System.out.println("Enter building names to add to path or STOP to finishing inputting:");
+                        System.out.println("Enter building names to add to path, one per line or several separated by commas, or STOP to finishing inputting:");
                         while (true) {
                             String input = scan.nextLine();
                             if (input.equals("STOP")) {
                                 break;
                             }
-                            if (graphData.checkBuilding(input) && !updateGraph.checkBuilding(input)) {
-                                updateGraph.addBuilding(input);
-                            } else {
-                                System.out.println("Invalid building name.");
+                            for (String building : resolveBuildings(input)) {
+                                if (!updateGraph.checkBuilding(building)) {
+                                    updateGraph.addBuilding(building);
+                                } else {
+                                    System.out.println(String.format("Building %s already added.", building));
+                                }
                             }
                         }
                         break;
                     case "2":
-                        System.out.println("Enter building names to remove from path or STOP to finishing inputting:");
+                        System.out.println("Enter building names to remove from path, one per line or several separated by commas, or STOP to finishing inputting:");
                         while (updateGraph.numBuildings() > 0) {
                             String input = scan.nextLine();
                             if (input.equals("STOP")) {
                                 break;
                             }
-                            if (graphData.checkBuilding(input) && updateGraph.checkBuilding(input)) {
-                                updateGraph.removeBuilding(input);
-                            } else {
-                                System.out.println("Invalid building name.");
+                            for (String building : resolveBuildings(input)) {
+                                if (updateGraph.numBuildings() > 0 && updateGraph.checkBuilding(building)) {
+                                    updateGraph.removeBuilding(building);
+                                } else {
+                                    System.out.println(String.format("Building %s is not in this set.", building));
+                                }
                             }
                         }
                         break;
@@ -183,10 +382,16 @@ public class Main {
                         break;
                 }
             }
+            boolean anyStart = false;
             while(true) {
                 System.out.println("Updated information for this building set:\n" + updateGraph.toString());
-                System.out.println("Enter the building name to start at:");
+                System.out.println(String.format("Enter the building name to start at, or %s to start wherever the path is shortest:", ANY_START));
                 String input = scan.nextLine();
+                if (input.equals(ANY_START)) {
+                    anyStart = true;
+                    break;
+                }
+                input = resolveBuilding(input);
                 if (updateGraph.checkBuilding(input)) {
                     if (!updateGraph.getBuilding(0).equals(input)) {
                         updateGraph.setBuilding(updateGraph.getBuilding(0),
@@ -198,14 +403,99 @@ public class Main {
                     System.out.println("Invalid building name.");
                 }
             }
-            updateGraph.updateBuildingGraph(graphData.csvRows, graphData.csvBuildingIndices,
-                    graphData.csvCoordinates, graphData.graphic);
-            updateGraph.calcMinPath();
+            updateGraph.updateBuildingGraph(graphData.getDistanceRows(), graphData.getBuildingIndices(),
+                    graphData.getCoordinates(), graphData.graphic);
+            updateGraph.setCollapseTolerance(graphData.getCollapseTolerance());
+            if (anyStart) {
+                updateGraph.calcBestStartPath();
+            } else {
+                updateGraph.calcMinPath();
+            }
+            updateGraph.writeGraph(GRAPHDIR);
         } else {
             System.out.println("No graph with this name found.");
         }
     }
 
+    /** Resolves a line typed at a building prompt, which may hold several names separated by commas, into
+     * catalog names. Names matched from a prefix or with typos are reported, and names that match nothing or
+     * more than one building are reported with suggestions and left out.
+     *
+     * @param input line typed by the user
+     * @return resolved building names in the order given
+     */
+    private static List<String> resolveBuildings(String input) {
+        List<String> resolved = new ArrayList<>();
+        for (String entry : nameIndex.splitNames(input)) {
+            String building = resolveReported(entry);
+            if (building != null) {
+                resolved.add(building);
+            }
+        }
+        return resolved;
+    }
+
+    /** Resolves a single typed building name, saying which building was used for an inexact name and
+     * suggesting buildings when none matches
+     *
+     * @param input name typed by the user
+     * @return catalog name matching the input, or null if no single building matches
+     */
+    private static String resolveReported(String input) {
+        String building = resolveBuilding(input);
+        if (building == null) {
+            System.out.println("Invalid building name.");
+            List<String> suggestions = buildingSuggestions(input);
+            if (!suggestions.isEmpty()) {
+                System.out.println(String.format("Did you mean: %s?", String.join(", ", suggestions)));
+            }
+        } else if (!building.equals(input)) {
+            System.out.println(String.format("Using %s for %s.", building, input));
+        }
+        return building;
+    }
+
+    /** Resolves a single typed building name
+     *
+     * @param input name typed by the user
+     * @return catalog name matching the input, or null if no single building matches
+     */
+    private static String resolveBuilding(String input) {
+        return graphData.getNameIndex().resolve(input.trim());
+    }
+
+    /** Collects the buildings a typed name may refer to, those with a word starting with it first
+     *
+     * @param input name typed by the user
+     * @return up to SUGGESTIONS building names
+     */
+    private static List<String> buildingSuggestions(String input) {
+        nameIndex index = graphData.getNameIndex();
+        Set<String> suggestions = new LinkedHashSet<>(index.complete(input, SUGGESTIONS));
+        for (String close : index.suggest(input, SUGGESTIONS)) {
+            if (suggestions.size() < SUGGESTIONS) {
+                suggestions.add(close);
+            }
+        }
+        return new ArrayList<>(suggestions);
+    }
+
+    /** Handler for find command in main that lists the buildings matching typed text
+     *
+     * @param args arguments given to program from main method
+     */
+    public static void findHandler(String[] args) {
+        String text = String.join(" ", Arrays.asList(args).subList(1, args.length));
+        List<String> matches = buildingSuggestions(text);
+        if (matches.isEmpty()) {
+            System.out.println("No matching buildings found.");
+            return;
+        }
+        for (String building : matches) {
+            System.out.println(building);
+        }
+    }
+
     /** Handler for remove command in main.
      *
      * @param args arguments given to program from main method
@@ -220,6 +510,212 @@ public class Main {
         }
     }
 
+    /** Handler for starts command in main that compares the optimal path from every building in a set,
+     * solved together in a single pass.
+     *
+     * @param args arguments given to program from main method
+     */
+    public static void startsHandler(String[] args) {
+        String graphName = args[1];
+        if (graphData.checkGraph(graphName)) {
+            buildingGraph graph = buildingGraph.readGraph(GRAPHDIR, graphData.getGraph(graphName));
+            pathResult[] paths = graph.allStartPaths();
+            int best = allStartsSolver.bestStart(paths);
+            StringBuilder startsText = new StringBuilder(allStartsSolver.exact(paths.length)
+                    ? String.format("Optimal path length from each building in set %s:%n", graphName)
+                    : String.format("Approximate path length from each building in set %s, found with the %s solver:%n",
+                            graphName, buildingGraph.heuristicFor(paths.length).name()));
+            for (int start = 0; start < paths.length; start++) {
+                startsText.append(String.format("%-55.55s  %10.2f meters%s%n", graph.getBuilding(start), paths[start].length(),
+                        start == best ? "  (shortest)" : ""));
+            }
+            if (best >= 0) {
+                startsText.append(String.format("%nShortest path, starting from %s:%n", graph.getBuilding(best)));
+                startsText.append(String.join(" -> ", paths[best].names(graph.getDistanceView())));
+            }
+            System.out.println(startsText);
+        } else {
+            System.out.println("No graph with this name found.");
+        }
+    }
+
+    /** Handler for preview command in main that estimates, from a set's saved path, the distance added by a building
+     * not in the set or saved by dropping one in it, or ranks every other building by the distance it would add.
+     *
+     * @param args arguments given to program from main method
+     */
+    public static void previewHandler(String[] args) {
+        String graphName = args[1];
+        if (!graphData.checkGraph(graphName)) {
+            System.out.println("No graph with this name found.");
+            return;
+        }
+        buildingGraph graph = buildingGraph.readGraph(GRAPHDIR, graphData.getGraph(graphName));
+        if (graph.getOptimalPath() == null) {
+            System.out.println("This set has no saved path yet.");
+            return;
+        }
+        for (String building : graph.getPathBuildings()) {
+            if (!graphData.checkBuilding(building)) {
+                System.out.println(String.format("Building set %s refers to %s, which is no longer in the catalog.",
+                        graphName, building));
+                return;
+            }
+        }
+        tourPreview preview = new tourPreview(graph.getPathBuildings(), graphData.getDistanceRows(), graphData.getBuildingIndices());
+        if (args.length == 2) {
+            StringBuilder previewText = new StringBuilder(String.format("Distance added to set %s's %.2f meter path by each building:%n",
+                    graphName, preview.length()));
+            for (Map.Entry<String, tourPreview.change> entry : preview.rankInsertions()) {
+                previewText.append(String.format("%-55.55s  %10.2f meters  after %s%n", entry.getKey(),
+                        entry.getValue().distance(), preview.stop(entry.getValue().position())));
+            }
+            System.out.println(previewText);
+            return;
+        }
+        String building = resolveReported(args[2]);
+        if (building == null) {
+            return;
+        }
+        if (graph.getPathBuildings().contains(building)) {
+            tourPreview.change removal = preview.removal(building);
+            System.out.println(String.format("Dropping %s saves at least %.2f meters, for a path of at most %.2f meters.",
+                    building, -removal.distance(), preview.length() + removal.distance()));
+        } else {
+            tourPreview.change insertion = preview.insertion(building);
+            System.out.println(String.format("Adding %s after %s adds at most %.2f meters, for a path of at most %.2f meters.",
+                    building, preview.stop(insertion.position()), insertion.distance(), preview.length() + insertion.distance()));
+        }
+    }
+
+    /** Handler for solve command in main that re-solves an existing set with a solver chosen by name,
+     * saving the result as the set's optimal path.
+     *
+     * @param args arguments given to program from main method
+     * @throws IOException if graph saving encounters error
+     */
+    public static void solveHandler(String[] args) throws IOException {
+        String graphName = args[1];
+        if (!graphData.checkGraph(graphName)) {
+            System.out.println("No graph with this name found.");
+            return;
+        }
+        pathSolver solver = buildingGraph.availableSolvers().get(args[2]);
+        if (solver == null) {
+            System.out.println("Invalid solver name. Solvers: " + String.join(", ", buildingGraph.availableSolvers().keySet()));
+            return;
+        }
+        buildingGraph graph = buildingGraph.readGraph(GRAPHDIR, graphData.getGraph(graphName));
+        if (graph.numBuildings() > solver.maxSize()) {
+            System.out.println(String.format("The %s solver handles at most %d buildings.", solver.name(), solver.maxSize()));
+            return;
+        }
+        graph.updateBuildingGraph(graphData.getDistanceRows(), graphData.getBuildingIndices(),
+                graphData.getCoordinates(), graphData.graphic);
+        graph.setCollapseTolerance(graphData.getCollapseTolerance());
+        graph.calcMinPath(solver);
+        graph.writeGraph(GRAPHDIR);
+    }
+
+    /** Handler for walkers command in main that splits an existing set among several walkers leaving from its
+     * start building, showing each walker's path.
+     *
+     * @param args arguments given to program from main method
+     */
+    public static void walkersHandler(String[] args) {
+        String graphName = args[1];
+        if (!graphData.checkGraph(graphName)) {
+            System.out.println("No graph with this name found.");
+            return;
+        }
+        int walkers;
+        try {
+            walkers = Integer.parseInt(args[2]);
+        } catch (NumberFormatException excp) {
+            walkers = 0;
+        }
+        if (walkers < 1) {
+            System.out.println("Invalid number of walkers.");
+            return;
+        }
+        buildingGraph graph = buildingGraph.readGraph(GRAPHDIR, graphData.getGraph(graphName));
+        graph.updateBuildingGraph(graphData.getDistanceRows(), graphData.getBuildingIndices(),
+                graphData.getCoordinates(), graphData.graphic);
+        distanceView view = graph.getDistanceView();
+        List<pathResult> paths;
+        try {
+            paths = walkerPlanner.plan(view, walkers);
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            System.out.println("Planning was interrupted.");
+            return;
+        }
+        StringBuilder walkersText = new StringBuilder(String.format("Paths for %d walkers covering building set %s, starting from %s:%n",
+                walkers, graphName, graph.getBuilding(0)));
+        double longest = 0;
+        double total = 0;
+        for (int walker = 0; walker < paths.size(); walker++) {
+            pathResult path = paths.get(walker);
+            walkersText.append(String.format("%nWalker %d: %d buildings, %.2f meters%n", walker + 1, path.size() - 1, path.length()));
+            walkersText.append(String.join(" -> ", path.names(view))).append(System.lineSeparator());
+            longest = Math.max(longest, path.length());
+            total += path.length();
+        }
+        walkersText.append(String.format("%nLongest walk: %.2f meters | Total distance walked: %.2f meters", longest, total));
+        System.out.println(walkersText);
+    }
+
+    /** Handler for distributed command in main that re-solves an existing set exactly across running workers,
+     * saving the result as the set's optimal path.
+     *
+     * @param args arguments given to program from main method
+     * @throws IOException if graph saving encounters error
+     */
+    public static void distributedHandler(String[] args) throws IOException {
+        String graphName = args[1];
+        if (!graphData.checkGraph(graphName)) {
+            System.out.println("No graph with this name found.");
+            return;
+        }
+        distributedSolver solver;
+        try {
+            solver = new distributedSolver(distributedSolver.parseWorkers(args[2]));
+        } catch (IllegalArgumentException excp) {
+            System.out.println("Invalid worker list: " + excp.getMessage());
+            return;
+        }
+        buildingGraph graph = buildingGraph.readGraph(GRAPHDIR, graphData.getGraph(graphName));
+        graph.updateBuildingGraph(graphData.getDistanceRows(), graphData.getBuildingIndices(),
+                graphData.getCoordinates(), graphData.graphic);
+        graph.setCollapseTolerance(graphData.getCollapseTolerance());
+        try {
+            graph.calcMinPath(solver);
+        } catch (UncheckedIOException excp) {
+            System.out.println(excp.getMessage());
+            return;
+        }
+        graph.writeGraph(GRAPHDIR);
+    }
+
+    /** Handler for worker command in main that serves layers of distributed solves until stopped,
+     * without loading any graph data.
+     *
+     * @param args arguments given to program from main method
+     */
+    public static void workerHandler(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Invalid command format.");
+            return;
+        }
+        try {
+            new graphWorker(Integer.parseInt(args[1])).serve();
+        } catch (NumberFormatException excp) {
+            System.out.println("Invalid port.");
+        } catch (IOException excp) {
+            System.out.println("Could not start worker: " + excp.getMessage());
+        }
+    }
+
     /** Handler for help command in main.
      *
      */
@@ -228,12 +724,27 @@ public class Main {
         helpText.append("add [name]: adds a new set of buildings to calculate optimal path for.\n");
         helpText.append("update [name]: changes contents of an existing set of buildings to calculate optimal path for.\n");
         helpText.append("remove [name]: removes an existing set of buildings.\n");
+        helpText.append("starts [name]: shows the optimal path length from every building in an existing set and the shortest path overall.\n");
+        helpText.append("preview [name] [building]: shows what adding or dropping a building would change in an existing set's saved path without re-solving, or ranks every building to add when none is given.\n");
+        helpText.append("walkers [name] [count]: splits an existing set among several walkers leaving from its start building, keeping the longest walk short.\n");
+        helpText.append("find [text]: lists buildings with a word starting with the text, then buildings whose names are within a few typos of it.\n");
         helpText.append("list: displays all existing sets of buildings to calculate optimal path for.\n");
         helpText.append("graphic [on/off]: toggles from graphical to text representation of paths with \"on\" for graphics and \"off\" for text.\n");
+        helpText.append("collapse [meters/off]: merges buildings whose distances all agree within the given meters into one stop while solving, or none with \"off\".\n");
+        helpText.append("batch [file] [output]: solves every building set in a jsonl or csv file, writing results as json lines to output or the terminal.\n");
+        helpText.append("render [png/svg] [directory] [names...]: writes the optimal path of the named sets, or of every set, to image files without opening windows.\n");
+        helpText.append("export [file]: writes every saved building set with its start and cached path to a single archive file.\n");
+        helpText.append("import [file]: saves every building set in an archive file written by export, replacing sets with the same name.\n");
+        helpText.append("daemon: keeps building data loaded and serves commands from the client until stopped.\n");
+        helpText.append("client [add/update/remove/list/solve/stats] [name]: sends a command to a running daemon, reading building names from input.\n");
+        helpText.append("solve [name] [solver]: re-solves an existing set with the named solver, such as genetic for 50 to 200 buildings.\n");
+        helpText.append("worker [port]: serves part of each distributed solve on the given port until stopped.\n");
+        helpText.append("distributed [name] [host:port,...]: re-solves an existing set exactly, splitting the work across running workers.\n");
+        helpText.append("--stats: added to any command, prints timings and counters for solving and file access when it finishes.\n");
         helpText.append("\nIncluded buildings: \n");
         int displayIndex = 1;
         String firstBuilding = "";
-        for (String building : graphData.csvBuildingIndices.keySet()) {
+        for (String building : graphData.getBuildingIndices().keySet()) {
             if (displayIndex % 2 == 0) {
                 helpText.append(String.format("%-55.55s  %-55.55s%n", building, firstBuilding));
             } else {
@@ -268,6 +779,144 @@ public class Main {
         }
     }
 
+    /** Handler for the collapse command in main, setting how far apart buildings may be and still be merged
+     * into one node before solving.
+     *
+     * @param args arguments given to program from main method
+     */
+    public static void collapseHandler(String[] args) {
+        if (args[1].equals("off")) {
+            graphData.setCollapseTolerance(-1);
+            return;
+        }
+        try {
+            double tolerance = Double.parseDouble(args[1]);
+            if (tolerance < 0 || Double.isNaN(tolerance) || Double.isInfinite(tolerance)) {
+                System.out.println("Invalid collapse tolerance.");
+            } else {
+                graphData.setCollapseTolerance(tolerance);
+            }
+        } catch (NumberFormatException excp) {
+            System.out.println("Invalid collapse tolerance.");
+        }
+    }
+
+    /** Handler for batch command in main that solves every building set in a jsonl or csv file,
+     * writing results to standard output or to the given output file.
+     *
+     * @param args arguments given to program from main method
+     * @throws IOException if the input or output file cannot be opened
+     */
+    public static void batchHandler(String[] args) throws IOException {
+        if (!new File(args[1]).exists()) {
+            System.out.println("No file with this name found.");
+            return;
+        }
+        PrintStream output = args.length == 3 ? new PrintStream(new FileOutputStream(args[2]), false, "UTF-8") : System.out;
+        try {
+            new batchSolver(graphData, Runtime.getRuntime().availableProcessors(), output).solveFile(args[1]);
+        } finally {
+            if (output != System.out) {
+                output.close();
+            }
+        }
+    }
+
+    /** Handler for render command in main that writes the optimal path of saved sets to image files without
+     * needing a display, rendering several sets at once
+     *
+     * @param args arguments given to program from main method
+     */
+    public static void renderHandler(String[] args) {
+        String format = args[1].toLowerCase();
+        if (!pathRenderer.FORMATS.contains(format)) {
+            System.out.println("Invalid image format.");
+            return;
+        }
+        File outputDir = new File(args[2]);
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            System.out.println("Could not create output directory.");
+            return;
+        }
+        List<String> graphNames = args.length > 3 ? Arrays.asList(args).subList(3, args.length) : graphData.graphNames();
+        for (String graphName : graphNames) {
+            if (!graphData.checkGraph(graphName)) {
+                System.out.println(String.format("No graph with name %s found.", graphName));
+                return;
+            }
+        }
+        System.setProperty("java.awt.headless", "true");
+        int rendered = new pathRenderer(graphData, Runtime.getRuntime().availableProcessors(), outputDir, format, System.out)
+                .renderSets(graphNames);
+        System.out.println(String.format("Rendered %d of %d building sets.", rendered, graphNames.size()));
+    }
+
+    /** Handler for export command in main that writes every saved set to a single archive file
+     *
+     * @param args arguments given to program from main method
+     * @throws IOException if the archive cannot be written
+     */
+    public static void exportHandler(String[] args) throws IOException {
+        int exported = new storeArchive(graphData, Runtime.getRuntime().availableProcessors(), System.out)
+                .exportStore(new File(args[1]));
+        System.out.println(String.format("Exported %d of %d building sets to %s.", exported, graphData.numGraphs(), args[1]));
+    }
+
+    /** Handler for import command in main that saves every set in an archive file written by export
+     *
+     * @param args arguments given to program from main method
+     */
+    public static void importHandler(String[] args) {
+        File archiveFile = new File(args[1]);
+        if (!archiveFile.exists()) {
+            System.out.println("No file with this name found.");
+            return;
+        }
+        try {
+            int imported = new storeArchive(graphData, Runtime.getRuntime().availableProcessors(), System.out)
+                    .importStore(archiveFile);
+            System.out.println(String.format("Imported %d building sets from %s.", imported, args[1]));
+        } catch (IOException excp) {
+            System.out.println("Could not import archive: " + excp.getMessage());
+        }
+    }
+
+    /** Handler for daemon command in main that serves requests until the process is stopped. Building sets left
+     * stale by a catalog change, and those affected by changes while it runs, are re-solved on the daemon's scheduler.
+     *
+     * @throws IOException if the daemon cannot start listening
+     */
+    public static void daemonHandler() throws IOException {
+        graphServer server = new graphServer(graphData, daemonPort);
+        catalogReloader daemonReloader = getCatalogReloader();
+        daemonReloader.setScheduler(server.getScheduler());
+        List<String> stale = graphData.staleGraphs();
+        if (!stale.isEmpty()) {
+            System.out.println(String.format("Re-solving %d building sets affected by a building catalog change "
+                    + "on the daemon's scheduler.", stale.size()));
+            daemonReloader.resolveInBackground(stale);
+        }
+        daemonReloader.watch();
+        server.start();
+    }
+
+    /** Handler for client command in main that forwards a command to a running daemon
+     * without loading any graph data.
+     *
+     * @param args arguments given to program from main method
+     */
+    public static void clientHandler(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println("Invalid command format.");
+            return;
+        }
+        try {
+            graphClient.send(daemonPort, args[1], args.length == 3 ? args[2] : null);
+        } catch (IOException excp) {
+            System.out.println("Could not reach daemon: " + excp.getMessage());
+        }
+    }
+
     /** Path to csv file with raw distance values */
     public static String csvPath = "buildingDistances.csv";
 
@@ -283,6 +932,27 @@ public class Main {
     /** Default name to save graphManager instance under */
     public static final String graphDataPath = "graphData";
 
+    /** Flag accepted alongside any command that prints timings and counters once the command finishes */
+    public static final String STATS_FLAG = "--stats";
+
+    /** Input accepted in place of a start building to start wherever the path is shortest */
+    public static final String ANY_START = "ANY";
+
+    /** Largest number of buildings suggested for a name that matches no single building */
+    private static final int SUGGESTIONS = 8;
+
+    /** Loopback port used by the daemon and client commands */
+    public static int daemonPort = graphServer.DEFAULT_PORT;
+
+    /** Reloader keeping graphData consistent with the catalog csv files */
+    private static catalogReloader reloader;
+
+    /** Pool re-solving building sets affected by a catalog change, or null if none are being re-solved */
+    private static ExecutorService resolving;
+
+    /** Longest time a command waits at exit for building sets being re-solved after a catalog change */
+    private static final long RESOLVE_WAIT_SECONDS = 30;
+
     /** graphManager instance containing overall graph data */
     public static graphManager graphData;
 }
@@ -0,0 +1,196 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/** Exact solver finding the optimal path from every possible start building in a single dynamic program.
+ * The table is filled backwards with a free end: entry (mask * n + j) holds the cost of the best path that
+ * starts at node j and visits exactly the nodes in mask, so the full-set row already holds the optimum for
+ * every start and each path is recovered by walking forward from its start. Sets too large for the table are
+ * solved from each start in turn with the heuristic solver for their size.
+ * @author Brian Lin
+ */
+public class allStartsSolver {
+
+    /** Solves for the optimal path from each node of the view, or an approximate one for views larger than MAX_SIZE
+     *
+     * @param view distances between the buildings to visit
+     * @return path starting from each node, indexed by start node
+     */
+    public pathResult[] solveAll(distanceView view) {
+        int n = view.size();
+        if (!exact(n)) {
+            return solveEach(view, buildingGraph.heuristicFor(n));
+        }
+        pathResult[] paths = new pathResult[n];
+        if (n == 0) {
+            return paths;
+        }
+        double[][] dist = view.matrix();
+        double[] costs;
+        try (solveMetrics.timer timer = solveMetrics.start("solve.allStarts.fill").size(n)) {
+            costs = fillTable(dist, n);
+            timer.work((long) n << (n - 1));
+        }
+        solveMetrics.count("solve.states", (long) n << (n - 1));
+        solveMetrics.timer timer = solveMetrics.start("solve.allStarts.reconstruct").size(n);
+        try {
+            for (int start = 0; start < n; start++) {
+                paths[start] = new pathResult(view, reconstruct(dist, costs, n, start));
+            }
+        } finally {
+            timer.close();
+        }
+        return paths;
+    }
+
+    /** Returns whether solveAll finds optimal paths for sets of the given size rather than approximate ones
+     *
+     * @param size number of buildings in the set
+     * @return if the set fits in the exact table
+     */
+    public static boolean exact(int size) {
+        return size <= MAX_SIZE;
+    }
+
+    /** Solves from each node in parallel with the given solver, moving the node to the start of the view first
+     *
+     * @param view distances between the buildings to visit
+     * @param solver solver to use from each start
+     * @return path found from each node, indexed by start node
+     */
+    private static pathResult[] solveEach(distanceView view, pathSolver solver) {
+        int n = view.size();
+        pathResult[] paths = new pathResult[n];
+        try (solveMetrics.timer timer = solveMetrics.start("solve.allStarts.each").size(n)) {
+            IntStream.range(0, n).parallel().forEach(start -> {
+                int[] nodes = solver.solve(swapStart(view, start)).nodes();
+                for (int i = 0; i < nodes.length; i++) {
+                    nodes[i] = nodes[i] == start ? 0 : nodes[i] == 0 ? start : nodes[i];
+                }
+                paths[start] = new pathResult(view, nodes);
+            });
+            timer.work(n);
+        }
+        return paths;
+    }
+
+    /** Builds the view with the given node and node 0 swapped
+     *
+     * @param view distances between the buildings to visit
+     * @param start node to move to the start
+     * @return view starting from the given node
+     */
+    private static distanceView swapStart(distanceView view, int start) {
+        int n = view.size();
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i == start ? 0 : i == 0 ? start : i;
+        }
+        double[][] dist = view.matrix();
+        List<String> names = new ArrayList<>();
+        double[][] distances = new double[n][n];
+        double[][] positions = view.hasPositions() ? new double[n][] : null;
+        for (int i = 0; i < n; i++) {
+            names.add(view.name(order[i]));
+            for (int j = 0; j < n; j++) {
+                distances[i][j] = dist[order[i]][order[j]];
+            }
+            if (positions != null) {
+                positions[i] = view.position(order[i]);
+            }
+        }
+        return new distanceView(names, distances, positions);
+    }
+
+    /** Returns the start whose optimal path is shortest, preferring the lowest index on ties
+     *
+     * @param paths optimal path from each start, as returned by solveAll
+     * @return index of the best start, or -1 if there are no paths
+     */
+    public static int bestStart(pathResult[] paths) {
+        int best = -1;
+        for (int start = 0; start < paths.length; start++) {
+            if (best < 0 || paths[start].length() < paths[best].length()) {
+                best = start;
+            }
+        }
+        return best;
+    }
+
+    /** Fills the free-end table from smaller to larger subsets. The successors of a state and the legs
+     * leaving its node are both contiguous rows, and entries for nodes outside a subset stay infinite.
+     *
+     * @param dist distance matrix
+     * @param n number of nodes
+     * @return filled DP table
+     */
+    static double[] fillTable(double[][] dist, int n) {
+        if (!exact(n)) {
+            throw new IllegalArgumentException(String.format(
+                    "Solving from every start exactly supports at most %d buildings.", MAX_SIZE));
+        }
+        int subsets = 1 << n;
+        double[] costs = new double[subsets * n];
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+        for (int j = 0; j < n; j++) {
+            costs[(1 << j) * n + j] = 0;
+        }
+        for (int mask = 1; mask < subsets; mask++) {
+            if ((mask & (mask - 1)) == 0) {
+                continue;
+            }
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                int first = Integer.numberOfTrailingZeros(rest);
+                int nextRow = (mask ^ (1 << first)) * n;
+                double[] fromFirst = dist[first];
+                double best = Double.POSITIVE_INFINITY;
+                for (int nexts = mask ^ (1 << first); nexts != 0; nexts &= nexts - 1) {
+                    int next = Integer.numberOfTrailingZeros(nexts);
+                    double candidate = fromFirst[next] + costs[nextRow + next];
+                    if (candidate < best) {
+                        best = candidate;
+                    }
+                }
+                costs[mask * n + first] = best;
+            }
+        }
+        return costs;
+    }
+
+    /** Recovers the optimal path from one start by finding, at each step, the successor whose
+     * connecting leg plus remaining cost reproduces the current entry
+     *
+     * @param dist distance matrix
+     * @param costs filled DP table
+     * @param n number of nodes
+     * @param start node to start from
+     * @return node indices in traversal order, starting with the start node
+     */
+    static int[] reconstruct(double[][] dist, double[] costs, int n, int start) {
+        int[] nodes = new int[n];
+        int mask = (1 << n) - 1;
+        int curr = start;
+        for (int position = 0; position < n - 1; position++) {
+            nodes[position] = curr;
+            double target = costs[mask * n + curr];
+            mask ^= 1 << curr;
+            int nextRow = mask * n;
+            int successor = -1;
+            for (int nexts = mask; nexts != 0; nexts &= nexts - 1) {
+                int next = Integer.numberOfTrailingZeros(nexts);
+                if (dist[curr][next] + costs[nextRow + next] == target) {
+                    successor = next;
+                    break;
+                }
+            }
+            curr = successor;
+        }
+        nodes[n - 1] = curr;
+        return nodes;
+    }
+
+    /** Largest set solved with the exact table, whose n * 2^n entries take as much memory as the default
+     * solver's table for one building more */
+    public static final int MAX_SIZE = 21;
+}
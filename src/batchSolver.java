@@ -0,0 +1,330 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/** Non-interactive solver for files of building sets, solving sets concurrently on a bounded worker pool
+ * and streaming each result as a JSON line as soon as it is ready.
+ * Input is either JSON lines of the form {"name": ..., "start": ..., "buildings": [...]} or csv rows of the
+ * form name,start,building,building,... chosen by the file extension.
+ * @author Brian Lin
+ */
+public class batchSolver {
+
+    /** Constructor for a batch solver using the building data of the given graphManager
+     *
+     * @param graphData graphManager instance containing distance and coordinate data
+     * @param workers number of sets solved at once
+     * @param output stream that results are written to
+     */
+    public batchSolver(graphManager graphData, int workers, PrintStream output) {
+        this.graphData = graphData;
+        this.workers = workers;
+        this.output = output;
+        this.inFlight = new Semaphore(workers * 2);
+    }
+
+    /** Solves every building set in the given file, blocking the reader whenever the pool
+     * already holds as many sets as it can so that inputs are never all held in memory
+     *
+     * @param fileName path to the jsonl or csv file of building sets
+     * @return number of building sets solved or reported as errors, not counting blank lines
+     * @throws IOException if the file cannot be read
+     */
+    public int solveFile(String fileName) throws IOException {
+        boolean csv = fileName.toLowerCase().endsWith(".csv");
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        int lineNumber = 0;
+        int processed = 0;
+        try (BufferedReader br = Files.newBufferedReader(Paths.get(fileName), StandardCharsets.UTF_8)) {
+            String row;
+            while ((row = br.readLine()) != null) {
+                lineNumber++;
+                if (row.trim().isEmpty()) {
+                    continue;
+                }
+                String setLine = row;
+                int setNumber = lineNumber;
+                processed++;
+                inFlight.acquireUninterruptibly();
+                pool.execute(() -> {
+                    try {
+                        writeResult(solveLine(setLine, csv, setNumber));
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return processed;
+    }
+
+    /** Parses and solves a single building set from the input file
+     *
+     * @param row line of the input file
+     * @param csv whether the line is a csv row rather than a JSON object
+     * @param lineNumber line number used to name sets without a name
+     * @return JSON line describing the optimal path or the error encountered
+     */
+    private String solveLine(String row, boolean csv, int lineNumber) {
+        String name = "line " + lineNumber;
+        try {
+            List<String> buildingList = new ArrayList<>();
+            String start;
+            if (csv) {
+                String[] columns = row.split(",");
+                if (columns.length < 2) {
+                    throw new IllegalArgumentException("expected name,start,buildings...");
+                }
+                name = columns[0].trim();
+                start = columns[1].trim();
+                for (int i = 2; i < columns.length; i++) {
+                    buildingList.add(columns[i].trim());
+                }
+            } else {
+                Map<String, Object> fields = parseObject(row);
+                if (fields.get("name") instanceof String) {
+                    name = (String) fields.get("name");
+                }
+                if (!(fields.get("start") instanceof String) || !(fields.get("buildings") instanceof List)) {
+                    throw new IllegalArgumentException("expected start and buildings fields");
+                }
+                start = (String) fields.get("start");
+                for (Object building : (List<?>) fields.get("buildings")) {
+                    buildingList.add(String.valueOf(building));
+                }
+            }
+            buildingList.remove(start);
+            buildingList.add(0, start);
+            for (String building : buildingList) {
+                if (!graphData.checkBuilding(building)) {
+                    throw new IllegalArgumentException("invalid building name " + building);
+                }
+            }
+            if (new HashSet<>(buildingList).size() != buildingList.size()) {
+                throw new IllegalArgumentException("duplicate building name");
+            }
+            distanceView view = distanceView.of(buildingList, graphData.getDistanceRows(), graphData.getBuildingIndices(),
+                    graphData.getCoordinates());
+            pathSolver solver = buildingGraph.solverFor(view, graphData.getCollapseTolerance());
+            pathResult path = solver.solve(view);
+            StringBuilder result = new StringBuilder("{\"name\":").append(quote(name));
+            result.append(",\"start\":").append(quote(start));
+            result.append(",\"solver\":").append(quote(solver.name()));
+            result.append(String.format(",\"distance\":%.2f,\"path\":[", path.length()));
+            List<String> pathBuildings = path.names(view);
+            for (int i = 0; i < pathBuildings.size(); i++) {
+                result.append(i == 0 ? "" : ",").append(quote(pathBuildings.get(i)));
+            }
+            return result.append("]}").toString();
+        } catch (RuntimeException excp) {
+            return "{\"name\":" + quote(name) + ",\"error\":" + quote(String.valueOf(excp.getMessage())) + "}";
+        }
+    }
+
+    /** Writes a single result line and flushes it so results stream out as they complete
+     *
+     * @param result JSON line to write
+     */
+    private void writeResult(String result) {
+        synchronized (output) {
+            output.println(result);
+            output.flush();
+        }
+    }
+
+    /** Parses a flat JSON object whose values are strings, numbers or arrays of strings
+     *
+     * @param json text of the object
+     * @return mapping of keys to String values or Lists of Strings
+     */
+    static Map<String, Object> parseObject(String json) {
+        int[] pos = {skipSpace(json, 0)};
+        expect(json, pos, '{');
+        Map<String, Object> fields = new HashMap<>();
+        if (peek(json, pos) != '}') {
+            while (true) {
+                String key = parseString(json, pos);
+                expect(json, pos, ':');
+                if (peek(json, pos) == '[') {
+                    expect(json, pos, '[');
+                    List<String> values = new ArrayList<>();
+                    if (peek(json, pos) != ']') {
+                        do {
+                            values.add(parseString(json, pos));
+                        } while (tryConsume(json, pos, ','));
+                    }
+                    expect(json, pos, ']');
+                    fields.put(key, values);
+                } else if (peek(json, pos) == '"') {
+                    fields.put(key, parseString(json, pos));
+                } else {
+                    int end = pos[0];
+                    while (end < json.length() && ",} \t".indexOf(json.charAt(end)) < 0) {
+                        end++;
+                    }
+                    fields.put(key, json.substring(pos[0], end));
+                    pos[0] = skipSpace(json, end);
+                }
+                if (!tryConsume(json, pos, ',')) {
+                    break;
+                }
+            }
+        }
+        expect(json, pos, '}');
+        if (pos[0] != json.length()) {
+            throw new IllegalArgumentException("unexpected text after object at " + pos[0]);
+        }
+        return fields;
+    }
+
+    /** Parses a JSON string starting at the current position
+     *
+     * @param json text being parsed
+     * @param pos single element array holding the current position
+     * @return unescaped string value
+     */
+    private static String parseString(String json, int[] pos) {
+        if (peek(json, pos) != '"') {
+            throw new IllegalArgumentException("expected string at " + pos[0]);
+        }
+        StringBuilder value = new StringBuilder();
+        int i = pos[0] + 1;
+        while (i < json.length() && json.charAt(i) != '"') {
+            char c = json.charAt(i);
+            if (c == '\\' && i + 1 < json.length()) {
+                char escaped = json.charAt(++i);
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        value.append(escaped);
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'u':
+                        value.append(parseHex(json, i + 1));
+                        i += 4;
+                        break;
+                    default:
+                        throw new IllegalArgumentException(String.format("invalid escape '\\%c' at %d", escaped, i - 1));
+                }
+            } else {
+                value.append(c);
+            }
+            i++;
+        }
+        if (i >= json.length()) {
+            throw new IllegalArgumentException("unterminated string");
+        }
+        pos[0] = skipSpace(json, i + 1);
+        return value.toString();
+    }
+
+    /** Decodes the four hex digits of a unicode escape, which may be half of a surrogate pair that the
+     * following escape completes
+     *
+     * @param json text being parsed
+     * @param start position of the first hex digit
+     * @return UTF-16 code unit written by the escape
+     */
+    private static char parseHex(String json, int start) {
+        if (start + 4 > json.length()) {
+            throw new IllegalArgumentException("unterminated unicode escape at " + (start - 2));
+        }
+        int code = 0;
+        for (int i = start; i < start + 4; i++) {
+            int digit = Character.digit(json.charAt(i), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("invalid unicode escape at " + (start - 2));
+            }
+            code = code * 16 + digit;
+        }
+        return (char) code;
+    }
+
+    /** Returns the character at the current position, or 0 at the end of input */
+    private static char peek(String json, int[] pos) {
+        return pos[0] < json.length() ? json.charAt(pos[0]) : 0;
+    }
+
+    /** Consumes the given character if it is at the current position */
+    private static boolean tryConsume(String json, int[] pos, char c) {
+        if (peek(json, pos) == c) {
+            pos[0] = skipSpace(json, pos[0] + 1);
+            return true;
+        }
+        return false;
+    }
+
+    /** Consumes the given character, throwing IllegalArgumentException if it is not at the current position */
+    private static void expect(String json, int[] pos, char c) {
+        if (!tryConsume(json, pos, c)) {
+            throw new IllegalArgumentException(String.format("expected '%c' at %d", c, pos[0]));
+        }
+    }
+
+    /** Returns the first position at or after start that is not whitespace */
+    private static int skipSpace(String json, int start) {
+        while (start < json.length() && Character.isWhitespace(json.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    /** Quotes and escapes a string as a JSON string literal
+     *
+     * @param value string to quote
+     * @return JSON string literal
+     */
+    static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /** graphManager instance containing distance and coordinate data */
+    private final graphManager graphData;
+
+    /** Number of worker threads solving sets */
+    private final int workers;
+
+    /** Stream that results are written to */
+    private final PrintStream output;
+
+    /** Permits bounding the number of sets read but not yet solved */
+    private final Semaphore inFlight;
+}
@@ -0,0 +1,264 @@
+/** Exact solver meeting in the middle: a forward dynamic program from the start over subsets of up to half the
+ * buildings and a backward one from every possible end over the rest, joined on complementary subsets.
+ * Each direction keeps only its current and previous layer of fixed-size subsets, stored densely by combinadic
+ * rank with one entry per member, so the peak table is the two middle layers rather than every subset.
+ * The two halves of the winning join are small enough to recover with the full Held-Karp table.
+ * @author Brian Lin
+ */
+public class bidirectionalSolver implements pathSolver {
+
+    @Override
+    public pathResult solve(distanceView view) {
+        int n = view.size();
+        if (n <= 3) {
+            return heldKarpDelegate.solve(view);
+        }
+        int m = n - 1;
+        heldKarpSolver.checkSize(m);
+        double[][] dist = view.matrix();
+        int half = m / 2;
+        int rest = m - half;
+        subsetRanking ranking = new subsetRanking(m);
+
+        double[][] intoNode = new double[m][m];
+        double[][] outOfNode = new double[m][m];
+        double[] fromStart = new double[m];
+        for (int j = 0; j < m; j++) {
+            fromStart[j] = dist[0][j + 1];
+            for (int i = 0; i < m; i++) {
+                intoNode[j][i] = dist[i + 1][j + 1];
+                outOfNode[j][i] = dist[j + 1][i + 1];
+            }
+        }
+        double[] forward;
+        try (solveMetrics.timer timer = solveMetrics.start("solve.forward").size(n)) {
+            forward = fillLayers(ranking, m, half, fromStart, intoNode);
+            timer.work(forward.length);
+        }
+        double[] backward;
+        try (solveMetrics.timer timer = solveMetrics.start("solve.backward").size(n)) {
+            backward = fillLayers(ranking, m, rest, new double[m], outOfNode);
+            timer.work(backward.length);
+        }
+        solveMetrics.count("solve.states", statesEvaluated(ranking, half) + statesEvaluated(ranking, rest));
+
+        solveMetrics.timer timer = solveMetrics.start("solve.join").size(n);
+        try {
+            int full = (1 << m) - 1;
+            double best = Double.POSITIVE_INFINITY;
+            int bestHead = 0;
+            int bestEnd = 0;
+            int bestNext = 0;
+            int headRank = 0;
+            for (int head = subsetRanking.first(half); head <= full; head = subsetRanking.next(head), headRank++) {
+                int tail = full ^ head;
+                int tailRow = ranking.rank(tail) * rest;
+                int headPosition = 0;
+                for (int ends = head; ends != 0; ends &= ends - 1, headPosition++) {
+                    int end = Integer.numberOfTrailingZeros(ends);
+                    double headCost = forward[headRank * half + headPosition];
+                    double[] fromEnd = outOfNode[end];
+                    int tailPosition = 0;
+                    for (int nexts = tail; nexts != 0; nexts &= nexts - 1, tailPosition++) {
+                        int next = Integer.numberOfTrailingZeros(nexts);
+                        double candidate = headCost + fromEnd[next] + backward[tailRow + tailPosition];
+                        if (candidate < best) {
+                            best = candidate;
+                            bestHead = head;
+                            bestEnd = end;
+                            bestNext = next;
+                        }
+                    }
+                }
+            }
+            int[] nodes = new int[n];
+            int[] headNodes = headPath(dist, bestHead, bestEnd);
+            int[] tailNodes = tailPath(dist, full ^ bestHead, bestNext);
+            System.arraycopy(headNodes, 0, nodes, 0, headNodes.length);
+            System.arraycopy(tailNodes, 0, nodes, headNodes.length, tailNodes.length);
+            return new pathResult(view, nodes);
+        } finally {
+            timer.close();
+        }
+    }
+
+    /** Fills the DP layer by layer up to subsets of the given size, keeping only the previous layer.
+     * Entry (rank * size + position) of a layer holds the cost of the best path covering exactly the subset
+     * of that rank with its member at that position as the free end, built one leg at a time from layer size - 1.
+     *
+     * @param ranking ranking of subsets of the non-start nodes
+     * @param m number of non-start nodes
+     * @param size subset size of the last layer
+     * @param single cost of the one-node path at each node
+     * @param legs legs[j][i] is the distance of the leg joining node i to the free end j
+     * @return last layer
+     */
+    static double[] fillLayers(subsetRanking ranking, int m, int size, double[] single, double[][] legs) {
+        double[] layer = single.clone();
+        for (int width = 2; width <= size; width++) {
+            layer = fillLayer(ranking, width, layer, legs, 0, ranking.count(width));
+        }
+        return layer;
+    }
+
+    /** Fills the entries of one layer for a range of subset ranks from the whole previous layer, so that
+     * a layer can be split by rank across threads or worker processes
+     *
+     * @param ranking ranking of subsets of the non-start nodes
+     * @param width subset size of the layer to fill
+     * @param previous whole layer of subsets of size width - 1
+     * @param legs legs[j][i] is the distance of the leg joining node i to the free end j
+     * @param fromRank first rank to fill
+     * @param toRank rank after the last to fill
+     * @return entries for the given ranks, width per subset
+     */
+    static double[] fillLayer(subsetRanking ranking, int width, double[] previous, double[][] legs,
+                              int fromRank, int toRank) {
+        double[] slice = new double[(toRank - fromRank) * width];
+        int mask = fromRank < toRank ? ranking.unrank(fromRank, width) : 0;
+        for (int rank = fromRank; rank < toRank; rank++, mask = subsetRanking.next(mask)) {
+            int row = (rank - fromRank) * width;
+            int position = 0;
+            for (int ends = mask; ends != 0; ends &= ends - 1, position++) {
+                int end = Integer.numberOfTrailingZeros(ends);
+                int prevs = mask ^ (1 << end);
+                int prevRow = ranking.rank(prevs) * (width - 1);
+                double[] toEnd = legs[end];
+                double best = Double.POSITIVE_INFINITY;
+                int prevPosition = 0;
+                for (; prevs != 0; prevs &= prevs - 1, prevPosition++) {
+                    double candidate = previous[prevRow + prevPosition] + toEnd[Integer.numberOfTrailingZeros(prevs)];
+                    if (candidate < best) {
+                        best = candidate;
+                    }
+                }
+                slice[row + position] = best;
+            }
+        }
+        return slice;
+    }
+
+    /** Recovers the best path from the start through the given subset, ending at the given node
+     *
+     * @param dist distance matrix including the start node
+     * @param head subset of non-start nodes the path covers
+     * @param end non-start node the path ends at
+     * @return node indices in traversal order, starting with node 0
+     */
+    private static int[] headPath(double[][] dist, int head, int end) {
+        int[] members = members(head);
+        int[] subNodes = new int[members.length + 1];
+        for (int i = 0; i < members.length; i++) {
+            subNodes[i + 1] = members[i] + 1;
+        }
+        double[][] subDist = submatrix(dist, subNodes);
+        double[] costs = heldKarpSolver.fillTable(subDist, members.length);
+        int[] path = heldKarpSolver.reconstruct(subDist, costs, members.length, subsetRanking.position(head, end));
+        for (int i = 0; i < path.length; i++) {
+            path[i] = subNodes[path[i]];
+        }
+        return path;
+    }
+
+    /** Recovers the best path from the given node through the rest of the given subset, ending anywhere
+     *
+     * @param dist distance matrix including the start node
+     * @param tail subset of non-start nodes the path covers
+     * @param first non-start node the path starts at
+     * @return node indices in traversal order
+     */
+    private static int[] tailPath(double[][] dist, int tail, int first) {
+        int[] members = members(tail ^ (1 << first));
+        int[] subNodes = new int[members.length + 1];
+        subNodes[0] = first + 1;
+        for (int i = 0; i < members.length; i++) {
+            subNodes[i + 1] = members[i] + 1;
+        }
+        if (members.length == 0) {
+            return subNodes;
+        }
+        double[][] subDist = submatrix(dist, subNodes);
+        int[] path = heldKarpSolver.reconstruct(subDist, heldKarpSolver.fillTable(subDist, members.length), members.length);
+        for (int i = 0; i < path.length; i++) {
+            path[i] = subNodes[path[i]];
+        }
+        return path;
+    }
+
+    /** Lists the members of a subset in increasing order
+     *
+     * @param mask subset as a bitmask
+     * @return member nodes
+     */
+    private static int[] members(int mask) {
+        int[] members = new int[Integer.bitCount(mask)];
+        int i = 0;
+        for (int rest = mask; rest != 0; rest &= rest - 1) {
+            members[i++] = Integer.numberOfTrailingZeros(rest);
+        }
+        return members;
+    }
+
+    /** Extracts the distances between the given nodes
+     *
+     * @param dist distance matrix
+     * @param nodes nodes to keep, in their new order
+     * @return distance matrix over the given nodes
+     */
+    private static double[][] submatrix(double[][] dist, int[] nodes) {
+        double[][] sub = new double[nodes.length][nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            for (int j = 0; j < nodes.length; j++) {
+                sub[i][j] = dist[nodes[i]][nodes[j]];
+            }
+        }
+        return sub;
+    }
+
+    /** Returns the number of (subset, end node) states evaluated filling every layer up to the given size
+     *
+     * @param ranking ranking of subsets of the non-start nodes
+     * @param size subset size of the last layer
+     * @return number of states
+     */
+    private static long statesEvaluated(subsetRanking ranking, int size) {
+        long states = 0;
+        for (int width = 1; width <= size; width++) {
+            states += (long) ranking.count(width) * width;
+        }
+        return states;
+    }
+
+    /** Returns the number of table entries held at the peak of a solve over the given number of buildings,
+     * for comparison with the m * 2^m entries of the full Held-Karp table
+     *
+     * @param n number of buildings including the start
+     * @return entries in the largest forward and backward layers and the layer before the larger one
+     */
+    public static long peakEntries(int n) {
+        int m = n - 1;
+        subsetRanking ranking = new subsetRanking(m);
+        int half = m / 2;
+        int rest = m - half;
+        return (long) ranking.count(half) * half + (long) ranking.count(rest) * rest
+                + (long) ranking.count(rest - 1) * (rest - 1);
+    }
+
+    @Override
+    public String name() {
+        return "bidirectional";
+    }
+
+    @Override
+    public int maxSize() {
+        return 24;
+    }
+
+    @Override
+    public boolean exact() {
+        return true;
+    }
+
+    /** Solver used for instances too small to split */
+    private static final pathSolver heldKarpDelegate = new heldKarpSolver();
+}
@@ -1,8 +1,7 @@
+import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
-import java.io.File;
-import java.io.IOException;
-import java.io.Serializable;
+import java.io.*;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.List;
@@ -33,46 +32,54 @@ public class buildingGraph implements Serializable {
         }
         constructGraph();
         getGraphID();
-        writeGraph();
     }
 
-    /** Updates a deserialized building graph by reconstructing the graph and optimal path
+    /** Updates a deserialized building graph by reconstructing the graph and clearing the previous optimal path
      *
      * @param fileDistances mapping of building names to rows to use from distance file
      * @param fileIndices mapping of building names to indices from distance file
      * @param graphic boolean indicating whether to display graphical or text representation of optimal path
-     * @throws IOException if writing the graph to disk encounters an error
      */
     public void updateBuildingGraph(HashMap<String, double[]> fileDistances, HashMap<String, Integer> fileIndices,
-                                    HashMap<String, double[]> fileCoords, boolean graphic) throws IOException {
+                                    HashMap<String, double[]> fileCoords, boolean graphic) {
         this.distances = fileDistances;
         this.indices = fileIndices;
         this.coordinates = fileCoords;
         this.graphic = graphic;
         constructGraph();
-        writeGraph();
+        this.optimalPath = null;
     }
 
     /** Reads a building graph from disk under the given id
      *
+     * @param graphDir directory containing saved building graphs
      * @param graphID hashcode id for the building graph to be read into memory
      * @return deserialized building graph
      */
-    public static buildingGraph readGraph(String graphID) {
-        File graphFile = Paths.get(Main.GRAPHDIR.getPath(), graphID).toFile();
+    public static buildingGraph readGraph(File graphDir, String graphID) {
+        File graphFile = Paths.get(graphDir.getPath(), graphID).toFile();
         if (graphFile.exists()) {
-            return serializeUtils.readObject(graphFile, buildingGraph.class);
+            solveMetrics.timer timer = solveMetrics.start("graph.read").work(graphFile.length());
+            try {
+                return serializeUtils.readObject(graphFile, buildingGraph.class);
+            } finally {
+                timer.close();
+            }
         }
         return null;
     }
 
     /** Writes this building graph to disk under filename given by the unique hash code
      * for this building graph
+     * @param graphDir directory containing saved building graphs
      * @throws IOException if file writing or hashing encounters an error
      */
-    public void writeGraph() throws IOException {
-        File graphFile = Paths.get(Main.GRAPHDIR.getPath(), getGraphID()).toFile();
-        serializeUtils.writeObject(graphFile, this);
+    public void writeGraph(File graphDir) throws IOException {
+        File graphFile = Paths.get(graphDir.getPath(), getGraphID()).toFile();
+        try (solveMetrics.timer timer = solveMetrics.start("graph.write").size(buildings.size())) {
+            serializeUtils.writeObject(graphFile, this);
+            timer.work(graphFile.length());
+        }
     }
 
     /** Getter method for hashcode of this building graph that generates the hashcode from
@@ -157,19 +164,121 @@ public class buildingGraph implements Serializable {
 
     /** Wrapper method for calculating and displaying minimum path */
     public void calcMinPath() {
-        minPath();
+        solveAndDisplay(chosenSolver());
+    }
+
+    /** Wrapper method for calculating the minimum path with the given solver and displaying it
+     *
+     * @param solver solver to use in place of the one chosen for this graph's size, applied once co-located
+     *               buildings are merged
+     */
+    public void calcMinPath(pathSolver solver) {
+        solveAndDisplay(new collapsingSolver(solver, collapseTolerance));
+    }
+
+    /** Calculates the minimum path with the given solver and displays it.
+     * With graphics on, the window opens at once and shows shorter paths and progress as a background solve
+     * finds them, and this method returns once the solve is done so that the path can be saved.
+     *
+     * @param solver solver to use, which the printed path is described by
+     */
+    private void solveAndDisplay(collapsingSolver solver) {
+        solvedWith = solver;
+        if (this.graphic && !GraphicsEnvironment.isHeadless()) {
+            buildingGraphic panel = new buildingGraphic(20, coordinates, buildingIndices, new double[0], new int[0]);
+            String title = String.format("Optimal path for building set %s, starting from %s", this.graphName, buildingIndices.get(0));
+            JFrame frame = showFrame(panel, title);
+            pathSolveWorker worker = new pathSolveWorker(getDistanceView(), solver, panel, frame, title);
+            worker.start();
+            optimalPath = worker.result();
+            return;
+        }
+        solveMetrics.timer timer = solveMetrics.start("solve").size(buildings.size());
+        try {
+            optimalPath = solver.solve(getDistanceView());
+        } finally {
+            timer.close();
+        }
         displayPath();
     }
 
+    /** Wrapper method for calculating the minimum path from whichever building gives the shortest path.
+     * The start is picked from the paths from every building, then moved to the start of this graph and
+     * the path from it is solved and displayed as for any other start, merging co-located buildings and
+     * showing progress in the path window.
+     */
+    public void calcBestStartPath() {
+        int best = allStartsSolver.bestStart(allStartPaths());
+        if (best > 0) {
+            String start = buildingIndices.get(best);
+            setBuilding(buildingIndices.get(0), best);
+            setBuilding(start, 0);
+            constructGraph();
+        }
+        calcMinPath();
+    }
+
+    /** Calculates the path from every building of this graph, optimal and in a single solve for sets of up to
+     * allStartsSolver.MAX_SIZE buildings and with the heuristic solver for the set's size from each start otherwise
+     *
+     * @return path starting from each building, indexed by building node index
+     */
+    public pathResult[] allStartPaths() {
+        solveMetrics.timer timer = solveMetrics.start("solve").size(buildings.size());
+        try {
+            return ALL_STARTS.solveAll(getDistanceView());
+        } finally {
+            timer.close();
+        }
+    }
+
+    /** Calculates the minimum path without displaying it, for callers that
+     * report the result themselves (such as the daemon started by Main)
+     *
+     * @return text representation of the optimal path
+     */
+    public String solvePath() {
+        minPath();
+        return pathString();
+    }
+
+    /** Calculates the minimum path through a scheduler shared with other solves, which may run the heuristic
+     * solver for this graph's size in place of the chosen one when memory or queue time runs short
+     *
+     * @param scheduler scheduler to queue the solve on
+     * @return text representation of the path found
+     * @throws InterruptedException if interrupted while waiting for the solve
+     */
+    public String solvePath(solveScheduler scheduler) throws InterruptedException {
+        distanceView view = getDistanceView();
+        int size = collapsingSolver.reducedSize(view, collapseTolerance);
+        collapsingSolver chosen = new collapsingSolver(solverFor(size), collapseTolerance);
+        collapsingSolver fallback = new collapsingSolver(heuristicFor(size), collapseTolerance);
+        solveScheduler.job job = new solveScheduler.job(view, size, chosen, fallback);
+        solveMetrics.timer timer = solveMetrics.start("solve").size(buildings.size());
+        try {
+            optimalPath = scheduler.solve(job);
+        } finally {
+            timer.close();
+        }
+        solvedWith = job.downgraded() ? fallback : chosen;
+        return pathString();
+    }
+
     /** Constructs graph based on building names given in constructor */
     public void constructGraph() {
-        this.buildingDistances = new double[buildings.size()][buildings.size()];
-        for (String buildingRow : buildings.keySet()) {
-            double[] currRow = distances.get(buildingRow);
-            for (String buildingCol : buildings.keySet()) {
-                buildingDistances[buildings.get(buildingRow)][buildings.get(buildingCol)] =
-                        currRow[indices.get(buildingCol)];
+        solveMetrics.timer timer = solveMetrics.start("graph.construct").size(buildings.size());
+        try {
+            this.buildingDistances = new double[buildings.size()][buildings.size()];
+            for (String buildingRow : buildings.keySet()) {
+                double[] currRow = distances.get(buildingRow);
+                for (String buildingCol : buildings.keySet()) {
+                    buildingDistances[buildings.get(buildingRow)][buildings.get(buildingCol)] =
+                            currRow[indices.get(buildingCol)];
+                }
             }
+        } finally {
+            timer.close();
         }
     }
 
@@ -187,180 +296,291 @@ public class buildingGraph implements Serializable {
         }
     }
 
-    /** Method to calculate minimum path with all enumerated combinations and lookup of
-     * previously calculated smaller results using DP approach
+    /** Calculates the minimum path over the distances between this graph's buildings using the solver API,
+     * keeping the result as this graph's cached tour
      */
     private void minPath() {
-        int[] vertices = new int[buildings.size()-1];
-        for (int i = 0; i < vertices.length; i++) {
-            vertices[i] = i + 1;
+        solveMetrics.timer timer = solveMetrics.start("solve").size(buildings.size());
+        try {
+            optimalPath = chosenSolver().solve(getDistanceView());
+        } finally {
+            timer.close();
         }
-        getCombinations(vertices);
-        combinations.sort(comboLenComparator);
-
-        resultsDP = new HashMap<>();
-        currNodeParents = new HashMap<>();
-
-        for (HashSet<Integer> path : combinations) {
-            for (int currNode = 1; currNode < buildings.size(); currNode++) {
-                if (path.contains(currNode)) {
-                    continue;
-                }
-
-                Path currPath = new Path(currNode, path);
-                double minWeight = Double.MAX_VALUE;
-                int parentNode = 0;
+        solvedWith = null;
+    }
 
-                if (path.size() == 0 ) {
-                    minWeight = buildingDistances[0][currNode];
-                }
+    /** Returns the solver for this graph, which merges co-located buildings within this graph's tolerance and
+     * solves the rest with the solver chosen for the reduced size
+     *
+     * @return solver to use
+     */
+    private collapsingSolver chosenSolver() {
+        return solverFor(getDistanceView(), collapseTolerance);
+    }
 
-                HashSet<Integer> copyPath = new HashSet<Integer>(path);
-                for (int prevNode : path) {
-                    double dist = buildingDistances[currNode][prevNode] + getCalcDistanceDP(prevNode, copyPath);
-                    if (dist < minWeight) {
-                        minWeight = dist;
-                        parentNode = prevNode;
-                    }
-                }
-                resultsDP.put(currPath, minWeight);
-                currNodeParents.put(currPath, parentNode);
+    /** Returns a solver that merges buildings within the tolerance before solving with the most preferred
+     * solver for the reduced size, so that sets with duplicates can stay exact
+     *
+     * @param view distances between the buildings to visit
+     * @param tolerance largest difference in meters between the distances of merged buildings, negative to merge none
+     * @return solver to use
+     */
+    public static collapsingSolver solverFor(distanceView view, double tolerance) {
+        return new collapsingSolver(solverFor(collapsingSolver.reducedSize(view, tolerance)), tolerance);
+    }
 
+    /** Returns the most preferred solver that handles sets of the given size, so that sets too large for the
+     * exact solvers fall back to an approximation
+     *
+     * @param size number of buildings in the set
+     * @return solver to use
+     */
+    public static pathSolver solverFor(int size) {
+        for (pathSolver solver : SOLVERS.values()) {
+            if (solver.maxSize() >= size) {
+                return solver;
             }
         }
-
-        getPath();
+        return defaultSolver;
     }
 
-    /** Generates optimal path based on parents mapping and intermediate results created during
-     * DP calculation
+    /** Returns the most preferred heuristic solver that handles sets of the given size, for solves that cannot
+     * wait for or afford an exact one
+     *
+     * @param size number of buildings in the set
+     * @return solver to use
      */
-    private void getPath() {
-        pathNodes = new int[buildingDistances.length];
-        pathDistances = new double[buildingDistances.length];
-        Path minPath = null;
-        double minDist = Double.MAX_VALUE;
-        for (Path longPath : resultsDP.keySet()) {
-            if (longPath.traversed.size() == buildings.size()-2 && resultsDP.get(longPath) < minDist) {
-                minPath = longPath;
-                minDist = resultsDP.get(longPath);
+    public static pathSolver heuristicFor(int size) {
+        for (pathSolver solver : SOLVERS.values()) {
+            if (!solver.exact() && solver.maxSize() >= size) {
+                return solver;
             }
         }
-        this.pathLen = minDist;
-        int pathNode = minPath.headNode;
-        HashSet<Integer> pathTraversed = new HashSet<Integer>(minPath.traversed);
-        int nodeIndex = buildingDistances.length - 1;
-        while (true) {
-            Integer prevNode = currNodeParents.get(new Path(pathNode, pathTraversed));
-            pathTraversed.remove(prevNode);
-            if (prevNode == null) {
-                break;
+        return solverFor(size);
+    }
+
+    /** Returns every solver available to building graphs, keyed by the name used to select it
+     *
+     * @return unmodifiable mapping of solver names to solvers, in order of preference
+     */
+    public static Map<String, pathSolver> availableSolvers() {
+        return SOLVERS;
+    }
+
+    /** Creates an immutable view of the distances between this graph's buildings, in node index order,
+     * with each building's position when the coordinate file has been loaded for this graph
+     *
+     * @return distance view with the start building as node 0
+     */
+    public distanceView getDistanceView() {
+        List<String> names = getBuildingNames();
+        double[][] positions = null;
+        if (coordinates != null && coordinates.keySet().containsAll(names)) {
+            positions = new double[names.size()][];
+            for (int i = 0; i < names.size(); i++) {
+                positions[i] = distanceView.project(coordinates.get(names.get(i)));
             }
-            pathNodes[nodeIndex] = pathNode;
-            pathDistances[nodeIndex] = buildingDistances[pathNode][prevNode];
-            nodeIndex -= 1;
-            pathNode = prevNode;
         }
-        pathNodes[0] = 0;
-        pathDistances[0] = 0.0;
+        return new distanceView(names, buildingDistances, positions);
     }
 
     /** Displays optimal path with building names and distance between.
      * Displays a graphical representation of the path using buildingGraphic if set in Main, otherwise outputs a text representation */
     public void displayPath() {
-        if (this.graphic) {
-            buildingGraphic panel = new buildingGraphic(20, coordinates, buildingIndices, pathDistances, pathNodes);
+        if (this.graphic && !GraphicsEnvironment.isHeadless()) {
+            buildingGraphic panel = new buildingGraphic(20, coordinates, buildingIndices, pathDistances(optimalPath), optimalPath.nodes());
             panel.convertCoords();
-            panel.setBackground(Color.LIGHT_GRAY);
-            JFrame frame = new JFrame(String.format("Optimal path for building set %s, starting from %s | Total path distance: %.2f meters",
-                    this.graphName, buildingIndices.get(0), this.pathLen));
-            frame.setSize(buildingGraphic.windowWidth, buildingGraphic.windowHeight);
-            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-            frame.getContentPane().add(panel, BorderLayout.CENTER);
-            frame.setVisible(true);
+            showFrame(panel, String.format("Optimal path for building set %s, starting from %s | Total path distance: %.2f meters",
+                    this.graphName, buildingIndices.get(0), optimalPath.length()));
         } else {
-            System.out.println();
-            System.out.println(String.format("Optimal path for building set %s, starting from %s:",
-                    this.graphName, buildingIndices.get(0)));
-            if (pathDistances != null) {
-                for (int nodeIndex = 0; nodeIndex < buildingDistances.length; nodeIndex++) {
-                    if (pathDistances[nodeIndex] > 0) {
-                        System.out.println("   |");
-                        System.out.println(String.format("%.2f", pathDistances[nodeIndex]));
-                        System.out.println("   |");
+            System.out.println(pathString());
+        }
+    }
+
+    /** Renders the optimal path to an image file without opening a window, as SVG when the file name ends in
+     * .svg and as PNG otherwise. Assumes the path has been calculated.
+     *
+     * @param imageFile file to write the image to
+     * @throws IOException if the image cannot be written
+     */
+    public void renderPath(File imageFile) throws IOException {
+        buildingGraphic panel = new buildingGraphic(20, coordinates, buildingIndices, pathDistances(optimalPath), optimalPath.nodes());
+        panel.convertCoords();
+        solveMetrics.timer timer = solveMetrics.start("render").size(buildings.size());
+        try {
+            if (imageFile.getName().toLowerCase().endsWith(".svg")) {
+                try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(imageFile), "UTF-8"))) {
+                    panel.writeSvg(out);
+                }
+            } else {
+                try (OutputStream out = new BufferedOutputStream(new FileOutputStream(imageFile))) {
+                    if (!ImageIO.write(panel.renderImage(), "png", out)) {
+                        throw new IOException("No PNG writer available.");
                     }
-                    System.out.println(buildingIndices.get(pathNodes[nodeIndex]));
                 }
             }
-            System.out.println(String.format("Total path distance: %.2f meters", this.pathLen));
+        } finally {
+            timer.close();
         }
     }
 
-    /** Retrieves previous DP calculation by accessing appropriate entry in hashmap
-     * using overridden equals and hashing
-     * @param node head node of calculated result
-     * @param path path containing previous head node - will remove head node to find
-     *             previous result connecting head node to rest of path
-     * @return previously calculated result of optimal distance between head node and rest of path
+    /** Opens a window holding a path graphic
+     *
+     * @param panel graphic to show
+     * @param title window title
+     * @return window shown
      */
-    private double getCalcDistanceDP(int node, HashSet<Integer> path) {
-        path.remove(node);
-        Path lookupPath = new Path(node, path);
-        double prevDistance = resultsDP.get(lookupPath);
-        path.add(node);
-        return prevDistance;
+    private static JFrame showFrame(buildingGraphic panel, String title) {
+        panel.setBackground(Color.LIGHT_GRAY);
+        JFrame frame = new JFrame(title);
+        frame.setSize(buildingGraphic.windowWidth, buildingGraphic.windowHeight);
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.getContentPane().add(panel, BorderLayout.CENTER);
+        frame.setVisible(true);
+        return frame;
     }
 
-    /** Wrapper method to enumerate all possible paths excluding start node
+    /** Sets how far apart buildings may be and still be merged into one node before solving
      *
-     * @param input array of node indices to enumerate combinations
+     * @param tolerance largest difference in meters between the distances of merged buildings, negative to merge none
      */
-    public void getCombinations(int[] input) {
-        int[] data = new int[input.length];
-        combinations = new ArrayList<>();
-        genCombinations(input, 0, 0, data);
+    public void setCollapseTolerance(double tolerance) {
+        this.collapseTolerance = tolerance;
     }
 
-    /** Generates combinations recursively up to length of input to enumerate all possible paths
+    /** Getter method for the buildings along the optimal path in traversal order, assuming the path has been calculated
      *
-     * @param input input array containing node indices
-     * @param start starting index to add values from input onto current combination
-     * @param index current index to add values to combination
-     * @param combos stores intermediate combinations
+     * @return building names ordered from the start building along the optimal path
      */
-    private void genCombinations(int[] input, int start, int index, int[] combos) {
-        if (index == input.length) {
-            return;
+    public List<String> getPathBuildings() {
+        List<String> pathBuildings = new ArrayList<>();
+        for (int pathNode : optimalPath.nodes()) {
+            pathBuildings.add(buildingIndices.get(pathNode));
+        }
+        return pathBuildings;
+    }
+
+    /** Getter method for the total distance of the optimal path, assuming the path has been calculated
+     *
+     * @return length of the optimal path in meters
+     */
+    public double getPathLength() {
+        return optimalPath == null ? 0.0 : optimalPath.length();
+    }
+
+    /** Getter method for the buildings of this graph in node index order
+     *
+     * @return building names starting with the start building
+     */
+    public List<String> getBuildingNames() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < buildings.size(); i++) {
+            names.add(buildingIndices.get(i));
+        }
+        return names;
+    }
+
+    /** Restores a cached optimal path saved elsewhere, such as in an archive, without re-solving
+     *
+     * @param nodes node indices in traversal order, starting with the start building
+     * @return whether the nodes visit every building once from the start and were restored
+     */
+    public boolean restorePath(int[] nodes) {
+        if (!isTour(nodes, buildings.size())) {
+            return false;
+        }
+        this.optimalPath = new pathResult(getDistanceView(), nodes);
+        return true;
+    }
+
+    /** Checks whether nodes visit every building of a graph once, starting from the start building
+     *
+     * @param nodes node indices in traversal order
+     * @param size number of buildings in the graph
+     * @return if the nodes form a path over the whole graph from node 0
+     */
+    private static boolean isTour(int[] nodes, int size) {
+        if (nodes.length != size || nodes.length == 0 || nodes[0] != 0) {
+            return false;
         }
-        addCombo(combos, index);
-        for (int i = start; i < input.length; i++) {
-            combos[index] = input[i];
-            genCombinations(input, i+1, index+1, combos);
+        boolean[] seen = new boolean[nodes.length];
+        for (int node : nodes) {
+            if (node < 0 || node >= nodes.length || seen[node]) {
+                return false;
+            }
+            seen[node] = true;
+        }
+        return true;
+    }
+
+    /** Reads this graph's saved fields. Sets saved before cached tours were kept have no tour and load as
+     * unsolved, and a cached tour that no longer matches the saved buildings is dropped so the set is re-solved.
+     *
+     * @param in stream to read from
+     * @throws IOException if the stream cannot be read
+     * @throws ClassNotFoundException if a saved field's class cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (optimalPath != null && !isTour(optimalPath.nodes(), buildings.size())) {
+            optimalPath = null;
         }
     }
 
-    /** Adds a new combination to overall enumeration of combinations
+    /** Getter method for the cached optimal path of this graph
+     *
+     * @return optimal path from the last solve, or null if this graph has not been solved since it last changed
+     */
+    public pathResult getOptimalPath() {
+        return optimalPath;
+    }
+
+    /** Collects the distance of each leg along a path, 0 for the start
      *
-     * @param combos array of intermediate combinations containing combination to be added
-     * @param index position to stop adding values ensuring new combination is added
+     * @param path path to collect legs of
+     * @return leg distances in traversal order
      */
-    private void addCombo(int[] combos, int index) {
-        HashSet<Integer> newCombo = new HashSet<>();
-        for(int i = 0; i < index; i++) {
-            newCombo.add(combos[i]);
+    static double[] pathDistances(pathResult path) {
+        double[] legs = new double[path.size()];
+        for (int i = 0; i < legs.length; i++) {
+            legs[i] = path.leg(i);
         }
-        combinations.add(newCombo);
+        return legs;
     }
 
-    /** Comparator used on combinations set to order from smallest to largest length so that
-     * bottom to top DP approach can be used
+    /** Builds the text representation of the optimal path with building names and distance between
+     *
+     * @return formatted string containing the optimal path and its total distance
      */
-    public static Comparator<HashSet<Integer>> comboLenComparator = new Comparator<HashSet<Integer>>() {
-        @Override
-        public int compare(HashSet<Integer> set1, HashSet<Integer> set2) {
-            return set1.size() - set2.size();
+    public String pathString() {
+        StringBuilder pathText = new StringBuilder(String.format("%nOptimal path for building set %s, starting from %s:%n",
+                this.graphName, buildingIndices.get(0)));
+        if (optimalPath != null) {
+            for (int nodeIndex = 0; nodeIndex < optimalPath.size(); nodeIndex++) {
+                if (optimalPath.leg(nodeIndex) > 0) {
+                    pathText.append(String.format("   |%n%.2f%n   |%n", optimalPath.leg(nodeIndex)));
+                }
+                pathText.append(buildingIndices.get(optimalPath.node(nodeIndex))).append(System.lineSeparator());
+            }
         }
-    };
+        pathText.append(String.format("Total path distance: %.2f meters", getPathLength()));
+        collapsingSolver solver = solvedWith != null ? solvedWith : chosenSolver();
+        if (optimalPath != null && !solver.exact()) {
+            distanceView view = getDistanceView();
+            double bound = solver.bound(view);
+            double slack = solver.slack(view);
+            if (slack > 0 && !Double.isInfinite(slack)) {
+                pathText.append(String.format("%nCo-located buildings were merged for solving, so the path is at most %.2f meters longer than the shortest path",
+                        slack));
+            } else if (Double.isInfinite(bound)) {
+                pathText.append(String.format("%nApproximate path from the %s solver, with no proven bound for these distances", solver.name()));
+            } else {
+                pathText.append(String.format("%nApproximate path from the %s solver, proven within %.2f times the shortest path",
+                        solver.name(), bound));
+            }
+        }
+        return pathText.toString();
+    }
 
     /** toString method displaying building set name and included buildings
      *
@@ -380,29 +600,34 @@ public class buildingGraph implements Serializable {
         return buildingGraphString.toString();
     }
 
-    /** Ordered collection of nodes traversed from start on optimal path
-     */
-    private transient int[] pathNodes;
+    /** Serialization version of the first saved buildingGraph, kept so that sets saved by earlier versions still load */
+    private static final long serialVersionUID = 644116810395348812L;
 
-    /** Ordered collection of distance between each node along optimal path
-     */
-    private transient double[] pathDistances;
+    /** Optimal path from the last solve, saved with this graph as its cached tour */
+    private pathResult optimalPath;
 
-    /** Length of minimum path */
-    private transient double pathLen;
+    /** Solver shared by every building graph, which is safe to use from many threads at once */
+    private static final pathSolver defaultSolver = new heldKarpSolver();
 
-    /** Mapping of path objects (head node and collection of nodes along path from start)
-     * to distance for intermediate computations */
-    private transient HashMap<Path, Double> resultsDP;
+    /** Solver for the optimal path from every start at once */
+    private static final allStartsSolver ALL_STARTS = new allStartsSolver();
 
-    /** Mapping of path objects (head node and collection of nodes along path from start)
-     * to the node traversed before reaching head node
-     */
-    private transient HashMap<Path, Integer> currNodeParents;
+    /** Solvers available to building graphs, keyed by name */
+    private static final Map<String, pathSolver> SOLVERS = registerSolvers(defaultSolver, new vectorHeldKarpSolver(),
+            new bidirectionalSolver(), new clusterSolver(), new christofidesSolver(), new geneticSolver());
 
-    /** Collection of possible combinations of traversal from empty path to last node
+    /** Builds the unmodifiable solver registry from the given solvers
+     *
+     * @param solvers solvers in order of preference
+     * @return mapping of solver names to solvers
      */
-    private transient List<HashSet<Integer>> combinations;
+    private static Map<String, pathSolver> registerSolvers(pathSolver... solvers) {
+        Map<String, pathSolver> registry = new LinkedHashMap<>();
+        for (pathSolver solver : solvers) {
+            registry.put(solver.name(), solver);
+        }
+        return Collections.unmodifiableMap(registry);
+    }
 
     /** Adjacency matrix used to represent complete weighted graph */
     public double[][] buildingDistances;
@@ -432,4 +657,12 @@ public class buildingGraph implements Serializable {
      * True: graphical output, False: text output
      */
     public transient boolean graphic;
+
+    /** Largest difference in meters between the distances of buildings merged before solving, negative to merge none;
+     * 0 after reading from disk, which merges buildings with identical distances only */
+    private transient double collapseTolerance;
+
+    /** Solver that found the cached tour when a scheduler chose it, or null if it was the one chosen for this
+     * graph's size */
+    private transient collapsingSolver solvedWith;
 }
@@ -1,6 +1,15 @@
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import javax.swing.JPanel;
 
 /** Class outputting a graphical representation of the optimal path for a given building set.
@@ -49,68 +58,511 @@ public class buildingGraphic extends JPanel{
         lonEnd = maxLon + lonOffset;
         latStart = minLat - latOffset;
         latEnd = maxLat + latOffset;
+        navigation mouse = new navigation();
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
     }
 
     /** Paints the graphical representation for a optimal path with labels for buildings and distance between nodes
-     * with nodes positioned in the window relative to their coordinate positions.
+     * with nodes positioned in the window relative to their coordinate positions. The path is drawn from a cached
+     * layer, which is redrawn only when the path, zoom or window size changes; while dragging, the layer drawn at
+     * the drag's start is shifted instead and redrawn when the drag ends.
      * @param g Graphics object that draws the path representation
      */
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
-        Graphics2D g1 = (Graphics2D) g.create();
-        g1.setStroke(new BasicStroke(2));
-        g1.setColor(Color.decode("#003262"));
-        for (int pathIndex = 0; pathIndex < distances.length-1; pathIndex++) {
-            g1.setColor(Color.decode("#003262"));
-            int[] center = centerPixels[pathIndex];
-            int[] nextCenter = centerPixels[pathIndex + 1];
-            g1.drawLine(center[0], center[1], nextCenter[0], nextCenter[1]);
-            Graphics2D g2 = (Graphics2D) g.create();
-            String distanceString = String.format("%.2f meters", distances[pathIndex + 1]);
-            drawArrowHead(g2, center[0], nextCenter[0], center[1], nextCenter[1], distanceString);
-        }
-        for (int pointIndex = 0; pointIndex < distances.length; pointIndex++) {
-            int[] center = centerPixels[pointIndex];
-            g1.setColor(Color.decode("#FDB515"));
-            g1.fillOval(center[0] - outer / 2, center[1] - outer / 2, outer, outer);
-            g1.setColor(Color.BLACK);
-            g1.drawString(buildingIndices.get(pathIndices[pointIndex]),
-                    (int)(center[0] - (1.75 * outer)), center[1] - (int) (outer / 1.25));
-        }
-    }
-
-    /** Draws an arrowhead along a given path between nodes for stylistic representation of a directed path
-     *
-     * @param g2 Graphics object from paint method
+        int width = getWidth();
+        int height = getHeight();
+        if (layer == null || layerStale || layer.getWidth() != width || layer.getHeight() != height || layerZoom != zoom
+                || (!dragging && (layerPanX != panX || layerPanY != panY))) {
+            layer = paintLayer(width, height);
+        }
+        g.drawImage(layer, (int) Math.round(panX - layerPanX), (int) Math.round(panY - layerPanY), null);
+        drawStatus(g);
+    }
+
+    /** Draws the path at the current zoom and pan into a transparent off-screen layer the size of the window,
+     * reusing the previous layer's image when the window size is unchanged
+     *
+     * @param width layer width in pixels
+     * @param height layer height in pixels
+     * @return layer holding the path
+     */
+    private BufferedImage paintLayer(int width, int height) {
+        BufferedImage image = layer;
+        if (image == null || image.getWidth() != Math.max(1, width) || image.getHeight() != Math.max(1, height)) {
+            image = new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_ARGB);
+        }
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, width, height);
+            g.setComposite(AlphaComposite.SrcOver);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(getFont());
+            drawPath(g, width, height, zoom, panX, panY);
+        } finally {
+            g.dispose();
+        }
+        layerStale = false;
+        layerZoom = zoom;
+        layerPanX = panX;
+        layerPanY = panY;
+        return image;
+    }
+
+    /** Draws the progress text in the corner of the window
+     *
+     * @param g Graphics object to draw with
+     */
+    private void drawStatus(Graphics g) {
+        if (status != null) {
+            g.setColor(Color.BLACK);
+            g.drawString(status, 10, 20);
+        }
+    }
+
+    /** Draws the path with labels for buildings and distance between nodes at the layout found by layout,
+     * which is shared with SVG output
+     *
+     * @param g Graphics object that draws the path representation
+     * @param width visible width in pixels
+     * @param height visible height in pixels
+     * @param zoom scale applied to node positions
+     * @param offsetX horizontal shift applied after scaling, in pixels
+     * @param offsetY vertical shift applied after scaling, in pixels
+     */
+    private void drawPath(Graphics2D g, int width, int height, double zoom, double offsetX, double offsetY) {
+        Font font = g.getFont();
+        Font distanceFont = font.deriveFont(font.getSize() * 0.8F);
+        pathLayout layout = layout(g.getFontMetrics(), g.getFontMetrics(distanceFont), width, height, zoom,
+                offsetX, offsetY);
+        if (layout == null) {
+            return;
+        }
+        int[] x = layout.x;
+        int[] y = layout.y;
+        g.setStroke(PATH_STROKE);
+        g.setColor(PATH_COLOR);
+        Path2D.Float arrowHeads = new Path2D.Float();
+        for (int pathIndex = 0; pathIndex < x.length - 1; pathIndex++) {
+            if (layout.legs[pathIndex]) {
+                g.drawLine(x[pathIndex], y[pathIndex], x[pathIndex + 1], y[pathIndex + 1]);
+            }
+            if (layout.arrows[pathIndex]) {
+                arrowHeads.append(arrowTransform(x[pathIndex], x[pathIndex + 1], y[pathIndex], y[pathIndex + 1])
+                        .createTransformedShape(ARROW_HEAD), false);
+            }
+        }
+        g.setColor(Color.BLACK);
+        g.fill(arrowHeads);
+        BufferedImage marker = markerSprite();
+        for (int pointIndex = 0; pointIndex < x.length; pointIndex++) {
+            if (layout.markers[pointIndex]) {
+                g.drawImage(marker, x[pointIndex] - marker.getWidth() / 2, y[pointIndex] - marker.getHeight() / 2, null);
+            }
+        }
+        g.setColor(Color.BLACK);
+        for (int pointIndex = 0; pointIndex < x.length; pointIndex++) {
+            if (layout.names[pointIndex]) {
+                g.drawString(buildingIndices.get(pathIndices[pointIndex]), nameX(x[pointIndex]), nameY(y[pointIndex]));
+            }
+        }
+        g.setFont(distanceFont);
+        AffineTransform saved = g.getTransform();
+        for (int pathIndex = 0; pathIndex < x.length - 1; pathIndex++) {
+            if (layout.distances[pathIndex]) {
+                g.transform(distanceTransform(x[pathIndex], x[pathIndex + 1], y[pathIndex], y[pathIndex + 1]));
+                g.drawString(distanceLabels[pathIndex + 1], DISTANCE_X, DISTANCE_Y);
+                g.setTransform(saved);
+            }
+        }
+        g.setFont(font);
+    }
+
+    /** Lays out the path for drawing, shared by the window, images and SVG output. Legs and buildings outside
+     * the visible area are skipped, arrowheads and distances are left off legs too short on screen to hold them,
+     * and a label is left off when it would overlap a label already placed, with building labels placed in path
+     * order from the start building before distances.
+     *
+     * @param nameMetrics metrics of the font building names are drawn in
+     * @param distanceMetrics metrics of the font distances are drawn in
+     * @param width visible width in pixels
+     * @param height visible height in pixels
+     * @param zoom scale applied to node positions
+     * @param offsetX horizontal shift applied after scaling, in pixels
+     * @param offsetY vertical shift applied after scaling, in pixels
+     * @return positions and the elements to draw, or null if there is no path to draw
+     */
+    private pathLayout layout(FontMetrics nameMetrics, FontMetrics distanceMetrics, int width, int height,
+                              double zoom, double offsetX, double offsetY) {
+        if (centerPixels == null || distances.length == 0) {
+            return null;
+        }
+        int count = distances.length;
+        pathLayout layout = new pathLayout(count);
+        int[] x = layout.x;
+        int[] y = layout.y;
+        for (int index = 0; index < count; index++) {
+            x[index] = (int) Math.round(centerPixels[index][0] * zoom + offsetX);
+            y[index] = (int) Math.round(centerPixels[index][1] * zoom + offsetY);
+        }
+        Rectangle viewport = new Rectangle(-outer, -outer, width + 2 * outer, height + 2 * outer);
+        for (int pathIndex = 0; pathIndex < count - 1; pathIndex++) {
+            layout.legs[pathIndex] = viewport.intersectsLine(x[pathIndex], y[pathIndex], x[pathIndex + 1], y[pathIndex + 1]);
+            double length = Math.hypot(x[pathIndex + 1] - x[pathIndex], y[pathIndex + 1] - y[pathIndex]);
+            layout.arrows[pathIndex] = layout.legs[pathIndex] && length >= MIN_ARROW_PIXELS
+                    && viewport.contains((x[pathIndex] + x[pathIndex + 1]) / 2, (y[pathIndex] + y[pathIndex + 1]) / 2);
+        }
+        List<Rectangle> labels = new ArrayList<>();
+        for (int pointIndex = 0; pointIndex < count; pointIndex++) {
+            layout.markers[pointIndex] = viewport.contains(x[pointIndex], y[pointIndex]);
+            if (layout.markers[pointIndex]) {
+                String name = buildingIndices.get(pathIndices[pointIndex]);
+                Rectangle bounds = new Rectangle(nameX(x[pointIndex]), nameY(y[pointIndex]) - nameMetrics.getAscent(),
+                        nameMetrics.stringWidth(name), nameMetrics.getHeight());
+                layout.names[pointIndex] = place(labels, bounds);
+            }
+        }
+        for (int pathIndex = 0; pathIndex < count - 1; pathIndex++) {
+            double length = Math.hypot(x[pathIndex + 1] - x[pathIndex], y[pathIndex + 1] - y[pathIndex]);
+            int labelWidth = distanceMetrics.stringWidth(distanceLabels[pathIndex + 1]);
+            if (length < labelWidth + 2 * outer || !viewport.contains((x[pathIndex] + x[pathIndex + 1]) / 2,
+                    (y[pathIndex] + y[pathIndex + 1]) / 2)) {
+                continue;
+            }
+            AffineTransform label = distanceTransform(x[pathIndex], x[pathIndex + 1], y[pathIndex], y[pathIndex + 1]);
+            Rectangle bounds = label.createTransformedShape(new Rectangle(DISTANCE_X, DISTANCE_Y - distanceMetrics.getAscent(),
+                    labelWidth, distanceMetrics.getHeight())).getBounds();
+            layout.distances[pathIndex] = place(labels, bounds);
+        }
+        return layout;
+    }
+
+    /** Returns where a building's name starts, to the left of its marker
+     *
+     * @param x horizontal position of the building in pixels
+     * @return horizontal position of the name's baseline start
+     */
+    private int nameX(int x) {
+        return (int) (x - (1.75 * outer));
+    }
+
+    /** Returns the baseline of a building's name, above its marker
+     *
+     * @param y vertical position of the building in pixels
+     * @return vertical position of the name's baseline
+     */
+    private int nameY(int y) {
+        return y - (int) (outer / 1.25);
+    }
+
+    /** Positions of the nodes along the path and which of its elements to draw, as found by layout */
+    private static final class pathLayout {
+
+        /** Constructor for a layout of a path with the given number of nodes, drawing nothing until set
+         *
+         * @param count number of nodes along the path
+         */
+        private pathLayout(int count) {
+            x = new int[count];
+            y = new int[count];
+            legs = new boolean[Math.max(0, count - 1)];
+            arrows = new boolean[legs.length];
+            distances = new boolean[legs.length];
+            markers = new boolean[count];
+            names = new boolean[count];
+        }
+
+        /** Horizontal position of each node in pixels */
+        private final int[] x;
+
+        /** Vertical position of each node in pixels */
+        private final int[] y;
+
+        /** Whether each leg, from a node to the next, is drawn */
+        private final boolean[] legs;
+
+        /** Whether each leg gets an arrowhead */
+        private final boolean[] arrows;
+
+        /** Whether each leg gets its distance label */
+        private final boolean[] distances;
+
+        /** Whether each node's marker is drawn */
+        private final boolean[] markers;
+
+        /** Whether each node's name is drawn */
+        private final boolean[] names;
+    }
+
+    /** Reserves room for a label unless it would overlap a label already placed
+     *
+     * @param labels bounds of the labels placed so far, added to when the label fits
+     * @param bounds bounds of the label to place
+     * @return whether the label fits and should be drawn
+     */
+    private static boolean place(List<Rectangle> labels, Rectangle bounds) {
+        for (Rectangle placed : labels) {
+            if (placed.intersects(bounds)) {
+                return false;
+            }
+        }
+        labels.add(bounds);
+        return true;
+    }
+
+    /** Renders the path into an off-screen image the size of the window, which needs no display
+     *
+     * @return image of the path on the window background
+     */
+    public BufferedImage renderImage() {
+        BufferedImage image = new BufferedImage(windowWidth, windowHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(Color.LIGHT_GRAY);
+            g.fillRect(0, 0, windowWidth, windowHeight);
+            g.setFont(new Font(Font.DIALOG, Font.PLAIN, FONT_SIZE));
+            drawPath(g, windowWidth, windowHeight, 1, 0, 0);
+            drawStatus(g);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /** Writes the path as an SVG document with the same layout as the window and images, including which labels
+     * are left off to avoid overlaps, streaming each element out as it is written
+     *
+     * @param out writer to send the document to
+     * @throws IOException if writing fails
+     */
+    public void writeSvg(Writer out) throws IOException {
+        Font font = new Font(Font.DIALOG, Font.PLAIN, FONT_SIZE);
+        Font distanceFont = font.deriveFont(FONT_SIZE * 0.8F);
+        pathLayout layout;
+        Graphics2D measure = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics();
+        try {
+            layout = layout(measure.getFontMetrics(font), measure.getFontMetrics(distanceFont), windowWidth,
+                    windowHeight, 1, 0, 0);
+        } finally {
+            measure.dispose();
+        }
+        out.write(String.format("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" "
+                + "font-family=\"Dialog, sans-serif\" font-size=\"%d\">%n", windowWidth, windowHeight, FONT_SIZE));
+        out.write(String.format("<rect width=\"100%%\" height=\"100%%\" fill=\"#C0C0C0\"/>%n"));
+        if (layout != null) {
+            int[] x = layout.x;
+            int[] y = layout.y;
+            for (int pathIndex = 0; pathIndex < x.length - 1; pathIndex++) {
+                if (layout.legs[pathIndex]) {
+                    out.write(String.format("<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"#003262\" stroke-width=\"2\"/>%n",
+                            x[pathIndex], y[pathIndex], x[pathIndex + 1], y[pathIndex + 1]));
+                }
+            }
+            for (int pathIndex = 0; pathIndex < x.length - 1; pathIndex++) {
+                if (layout.arrows[pathIndex]) {
+                    out.write(String.format("<polygon transform=\"%s\" points=\"0,5 -5,-5 5,-5\"/>%n", svgTransform(
+                            arrowTransform(x[pathIndex], x[pathIndex + 1], y[pathIndex], y[pathIndex + 1]))));
+                }
+            }
+            for (int pointIndex = 0; pointIndex < x.length; pointIndex++) {
+                if (layout.markers[pointIndex]) {
+                    out.write(String.format("<circle cx=\"%d\" cy=\"%d\" r=\"%.1f\" fill=\"#FDB515\"/>%n",
+                            x[pointIndex], y[pointIndex], outer / 2.0));
+                }
+            }
+            for (int pointIndex = 0; pointIndex < x.length; pointIndex++) {
+                if (layout.names[pointIndex]) {
+                    out.write(String.format("<text x=\"%d\" y=\"%d\">%s</text>%n", nameX(x[pointIndex]),
+                            nameY(y[pointIndex]), escapeXml(buildingIndices.get(pathIndices[pointIndex]))));
+                }
+            }
+            for (int pathIndex = 0; pathIndex < x.length - 1; pathIndex++) {
+                if (layout.distances[pathIndex]) {
+                    out.write(String.format("<text transform=\"%s\" x=\"%d\" y=\"%d\" font-size=\"%.1f\">%s</text>%n",
+                            svgTransform(distanceTransform(x[pathIndex], x[pathIndex + 1], y[pathIndex], y[pathIndex + 1])),
+                            DISTANCE_X, DISTANCE_Y, FONT_SIZE * 0.8, distanceLabels[pathIndex + 1]));
+                }
+            }
+        }
+        if (status != null) {
+            out.write(String.format("<text x=\"10\" y=\"20\">%s</text>%n", escapeXml(status)));
+        }
+        out.write(String.format("</svg>%n"));
+    }
+
+    /** Formats a transform as an SVG matrix transform
+     *
+     * @param tx transform to format
+     * @return value for an SVG transform attribute
+     */
+    private static String svgTransform(AffineTransform tx) {
+        return String.format("matrix(%.4f %.4f %.4f %.4f %.2f %.2f)", tx.getScaleX(), tx.getShearY(), tx.getShearX(),
+                tx.getScaleY(), tx.getTranslateX(), tx.getTranslateY());
+    }
+
+    /** Escapes the characters that cannot appear as is in SVG text
+     *
+     * @param text text to escape
+     * @return text safe to place between tags
+     */
+    private static String escapeXml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    /** Replaces the path shown with a newly found one and repaints, called on the event dispatch thread
+     * as a background solve finds shorter paths
+     *
+     * @param distances ordered collection of distances between each node on the path
+     * @param indices ordered collection of each building traversed on the path by index
+     */
+    public void showPath(double[] distances, int[] indices) {
+        this.distances = distances;
+        this.pathIndices = indices;
+        convertCoords();
+        layerStale = true;
+        repaint();
+    }
+
+    /** Sets the line of progress text drawn in the corner of the window and repaints
+     *
+     * @param status progress text, or null for none
+     */
+    public void setStatus(String status) {
+        this.status = status;
+        repaint();
+    }
+
+    /** Returns the transform that places an arrowhead along a given path between nodes for stylistic
+     * representation of a directed path, centered on the line's midpoint
+     *
+     * @param x1 starting x value of line
+     * @param x2 ending x value of line
+     * @param y1 starting y value of line
+     * @param y2 ending y value of line
+     * @return transform from arrowhead coordinates to window coordinates
+     */
+    private static AffineTransform arrowTransform(int x1, int x2, int y1, int y2) {
+        AffineTransform tx = AffineTransform.getTranslateInstance((x2+x1)/2, (y2+y1)/2);
+        tx.rotate(Math.atan2(y2-y1, x2-x1) - Math.PI / 2d);
+        return tx;
+    }
+
+    /** Returns the image of a building marker, drawn once per graphic so that markers are copied rather than
+     * filled on every paint
+     *
+     * @return marker image centered on its middle pixel
+     */
+    private BufferedImage markerSprite() {
+        if (marker == null) {
+            int size = outer + 2;
+            BufferedImage sprite = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = sprite.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.setColor(MARKER_COLOR);
+                g.fillOval(size / 2 - outer / 2, size / 2 - outer / 2, outer, outer);
+            } finally {
+                g.dispose();
+            }
+            marker = sprite;
+        }
+        return marker;
+    }
+
+    /** Returns the transform that places the distance along a line beside its arrowhead, turned to read along
+     * the line from whichever side keeps the text upright
+     *
      * @param x1 starting x value of line
      * @param x2 ending x value of line
      * @param y1 starting y value of line
      * @param y2 ending y value of line
-     * @param distance String value representing the distance along this line
+     * @return transform from label coordinates to window coordinates
      */
-    private void drawArrowHead(Graphics2D g2, int x1, int x2, int y1, int y2, String distance) {
+    private static AffineTransform distanceTransform(int x1, int x2, int y1, int y2) {
         double angle = Math.atan2(y2-y1, x2-x1);
-        AffineTransform tx = g2.getTransform();
-        tx.translate((int)((x2+x1)/2), (int)((y2+y1)/2));
+        AffineTransform tx = AffineTransform.getTranslateInstance((x2+x1)/2, (y2+y1)/2);
         tx.rotate(angle - Math.PI / 2d);
-        g2.setTransform(tx);
-
-        Polygon arrowHead = new Polygon();
-        arrowHead.addPoint(0, 5);
-        arrowHead.addPoint(-5, -5);
-        arrowHead.addPoint(5, -5);
-        g2.fill(arrowHead);
-        AffineTransform tr = g2.getTransform();
         if ((angle > Math.PI / 2 && angle < Math.PI) || (angle < -Math.PI / 2 && angle > -Math.PI)) {
-            tr.rotate(Math.toRadians(-90));
+            tx.rotate(Math.toRadians(-90));
         } else {
-            tr.rotate(Math.toRadians(90));
+            tx.rotate(Math.toRadians(90));
         }
-        g2.setTransform(tr);
-        Font currFont = g2.getFont();
-        Font newFont = currFont.deriveFont(currFont.getSize() * 0.8F);
-        g2.setFont(newFont);
-        g2.drawString(distance, -25, -5);
+        return tx;
+    }
+
+    /** Zooms by the given factor around a point in the window, keeping that point fixed on screen
+     *
+     * @param factor zoom multiplier, above 1 to zoom in
+     * @param x horizontal position of the fixed point in pixels
+     * @param y vertical position of the fixed point in pixels
+     */
+    public void zoomAt(double factor, int x, int y) {
+        double newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+        panX = x - (x - panX) * newZoom / zoom;
+        panY = y - (y - panY) * newZoom / zoom;
+        zoom = newZoom;
+        repaint();
+    }
+
+    /** Restores the zoom and pan the window opened with */
+    public void resetView() {
+        zoom = 1;
+        panX = 0;
+        panY = 0;
+        repaint();
+    }
+
+    /** Mouse handling for the window: the wheel zooms around the pointer, dragging pans and a double click
+     * restores the original view */
+    private class navigation extends MouseAdapter {
+
+        @Override
+        public void mousePressed(MouseEvent event) {
+            dragX = event.getX();
+            dragY = event.getY();
+        }
+
+        @Override
+        public void mouseDragged(MouseEvent event) {
+            dragging = true;
+            panX += event.getX() - dragX;
+            panY += event.getY() - dragY;
+            dragX = event.getX();
+            dragY = event.getY();
+            repaint();
+        }
+
+        @Override
+        public void mouseReleased(MouseEvent event) {
+            if (dragging) {
+                dragging = false;
+                repaint();
+            }
+        }
+
+        @Override
+        public void mouseWheelMoved(MouseWheelEvent event) {
+            zoomAt(Math.pow(ZOOM_STEP, -event.getPreciseWheelRotation()), event.getX(), event.getY());
+        }
+
+        @Override
+        public void mouseClicked(MouseEvent event) {
+            if (event.getClickCount() == 2) {
+                resetView();
+            }
+        }
+
+        /** Pointer position at the last drag event */
+        private int dragX;
+
+        /** Pointer position at the last drag event */
+        private int dragY;
     }
 
     /** Converts latitude/longitude coordinates for buildings to proportional pixel values for display in the graphics window
@@ -124,9 +576,74 @@ public class buildingGraphic extends JPanel{
                     (((centers.get(buildingIndices.get(pathIndices[index]))[1] - latStart) / (latEnd-latStart)) * windowHeight);
         }
         this.centerPixels = centersPixel;
+        String[] labels = new String[distances.length];
+        for (int index = 0; index < labels.length; index++) {
+            labels[index] = String.format("%.2f meters", distances[index]);
+        }
+        this.distanceLabels = labels;
     }
 
 
+    /** Serialization version required of Swing components, which are never saved by this program
+     *
+     */
+    private static final long serialVersionUID = 1L;
+
+    /** Color of path legs
+     *
+     */
+    private static final Color PATH_COLOR = Color.decode("#003262");
+
+    /** Color of building markers
+     *
+     */
+    private static final Color MARKER_COLOR = Color.decode("#FDB515");
+
+    /** Stroke of path legs
+     *
+     */
+    private static final BasicStroke PATH_STROKE = new BasicStroke(2);
+
+    /** Arrowhead pointing along a leg, drawn centered on the leg's midpoint
+     *
+     */
+    private static final Polygon ARROW_HEAD = new Polygon(new int[]{0, -5, 5}, new int[]{5, -5, -5}, 3);
+
+    /** Shortest leg on screen, in pixels, that is drawn with an arrowhead
+     *
+     */
+    private static final int MIN_ARROW_PIXELS = 24;
+
+    /** Position of a distance label relative to its arrowhead, along the turned line
+     *
+     */
+    private static final int DISTANCE_X = -25;
+
+    /** Position of a distance label relative to its arrowhead, across the turned line
+     *
+     */
+    private static final int DISTANCE_Y = -5;
+
+    /** Zoom multiplier for each notch of the mouse wheel
+     *
+     */
+    private static final double ZOOM_STEP = 1.25;
+
+    /** Smallest zoom allowed
+     *
+     */
+    private static final double MIN_ZOOM = 0.25;
+
+    /** Largest zoom allowed
+     *
+     */
+    private static final double MAX_ZOOM = 64;
+
+    /** Size in points of the label font used when rendering off screen, that of the default Swing font
+     *
+     */
+    private static final int FONT_SIZE = 12;
+
     /** Radius for each node marker in pixels
      *
      */
@@ -152,6 +669,16 @@ public class buildingGraphic extends JPanel{
      */
     private int[] pathIndices;
 
+    /** Progress text for a solve still running or just finished, drawn in the corner of the window
+     *
+     */
+    private String status;
+
+    /** Distance along each leg of the path as drawn beside its arrowhead, formatted once per path
+     *
+     */
+    private String[] distanceLabels;
+
     /** Collection of x/y pixel values for nodes used in graphics drawing, ordered by traversal along optimal path
      *
      */
@@ -196,4 +723,54 @@ public class buildingGraphic extends JPanel{
      *
      */
     private double latOffset;
+
+    /** Scale applied to node positions in the window
+     *
+     */
+    private double zoom = 1;
+
+    /** Horizontal shift in pixels applied to node positions in the window after scaling
+     *
+     */
+    private double panX;
+
+    /** Vertical shift in pixels applied to node positions in the window after scaling
+     *
+     */
+    private double panY;
+
+    /** Whether the view is being dragged, during which the cached layer is shifted rather than redrawn
+     *
+     */
+    private boolean dragging;
+
+    /** Cached drawing of the path at the zoom and pan it was drawn with, or null before the first paint
+     *
+     */
+    private BufferedImage layer;
+
+    /** Image of a building marker, drawn on first use
+     *
+     */
+    private BufferedImage marker;
+
+    /** Whether the path changed since the cached layer was drawn
+     *
+     */
+    private boolean layerStale;
+
+    /** Zoom the cached layer was drawn with
+     *
+     */
+    private double layerZoom;
+
+    /** Horizontal shift the cached layer was drawn with
+     *
+     */
+    private double layerPanX;
+
+    /** Vertical shift the cached layer was drawn with
+     *
+     */
+    private double layerPanY;
 }
@@ -0,0 +1,288 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** Detects changes to the building catalog csv files, reloads the saved building tables and re-solves
+ * only the building sets whose distances changed.
+ * The catalog is versioned by the content hash of both csv files, which is only recomputed when
+ * their size or modification time differs from the recorded stamp.
+ * @author Brian Lin
+ */
+public class catalogReloader {
+
+    /** Constructor for a reloader of the catalog used by the given graphManager
+     *
+     * @param graphData graphManager whose tables and building sets are kept up to date
+     * @param distancesPath path to csv file with raw distance values
+     * @param coordinatesPath path to csv file with raw coordinate values
+     */
+    public catalogReloader(graphManager graphData, String distancesPath, String coordinatesPath) {
+        this.graphData = graphData;
+        this.distancesFile = new File(distancesPath);
+        this.coordinatesFile = new File(coordinatesPath);
+    }
+
+    /** Records the current catalog files as the version of the saved tables
+     * without comparing them to the previous version
+     */
+    public void recordVersion() {
+        graphData.setCatalogVersion(serializeUtils.getFileHash(distancesFile, coordinatesFile), stamp());
+    }
+
+    /** Queues re-solves on the given scheduler from now on, so that inside the daemon they reserve memory and wait
+     * their turn alongside requested solves instead of running beside them
+     *
+     * @param scheduler scheduler to queue re-solves on, or null to solve directly on the re-solve threads
+     */
+    public void setScheduler(solveScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /** Checks the catalog files against the recorded version and, if their contents changed,
+     * reloads the tables, saves them and finds the building sets affected by the change, which are recorded
+     * as stale until re-solved
+     *
+     * @return names of building sets that must be re-solved, empty if the catalog is unchanged
+     * @throws IOException if the updated tables or registry cannot be saved
+     */
+    public synchronized List<String> reloadIfChanged() throws IOException {
+        if (!distancesFile.exists() || !coordinatesFile.exists()) {
+            return Collections.emptyList();
+        }
+        String stamp = stamp();
+        if (stamp.equals(graphData.getCatalogStamp())) {
+            return Collections.emptyList();
+        }
+        String hash = serializeUtils.getFileHash(distancesFile, coordinatesFile);
+        if (hash.equals(graphData.getCatalogHash())) {
+            synchronized (graphData) {
+                graphData.setCatalogVersion(hash, stamp);
+                graphData.writeGraphManager();
+            }
+            return Collections.emptyList();
+        }
+        Map<String, double[]> oldRows = graphData.getDistanceRows();
+        Map<String, Integer> oldIndices = graphData.getBuildingIndices();
+        graphData.readDistances(distancesFile.getPath());
+        graphData.readCoordinates(coordinatesFile.getPath());
+        Set<String> changed = changedBuildings(oldRows, oldIndices);
+        graphData.writeCatalog();
+        List<String> affected = new ArrayList<>();
+        synchronized (graphData) {
+            for (String graphName : graphData.graphNames()) {
+                buildingGraph saved = buildingGraph.readGraph(graphData.getGraphDir(), graphData.getGraph(graphName));
+                if (saved != null && isAffected(saved, changed)) {
+                    affected.add(graphName);
+                }
+            }
+            graphData.setCatalogVersion(hash, stamp);
+            graphData.markStale(affected);
+            graphData.writeGraphManager();
+        }
+        return affected;
+    }
+
+    /** Re-solves the given building sets in parallel on a pool of daemon threads, or on the scheduler when one is
+     * set, saving each as it finishes and clearing it from the stale sets. Sets that refer to buildings no longer in the catalog are left unchanged.
+     * The threads do not keep the program running, so sets left when it exits stay stale for the next command.
+     *
+     * @param graphNames names of building sets to re-solve
+     * @return pool running the re-solves, already shut down so that it finishes once they complete
+     */
+    public ExecutorService resolveInBackground(List<String> graphNames) {
+        ExecutorService pool = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(graphNames.size(), Runtime.getRuntime().availableProcessors())), task -> {
+                    Thread worker = new Thread(task, "catalog-resolve");
+                    worker.setDaemon(true);
+                    return worker;
+                });
+        for (String graphName : graphNames) {
+            pool.execute(() -> resolve(graphName));
+        }
+        pool.shutdown();
+        return pool;
+    }
+
+    /** Watches the catalog files on a background thread, reloading and re-solving affected sets whenever
+     * either file is modified
+     *
+     * @throws IOException if the directory containing the catalog cannot be watched
+     */
+    public void watch() throws IOException {
+        Path catalogDir = distancesFile.getAbsoluteFile().getParentFile().toPath();
+        WatchService watcher = catalogDir.getFileSystem().newWatchService();
+        catalogDir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread watchThread = new Thread(() -> {
+            while (true) {
+                try {
+                    WatchKey key = watcher.take();
+                    boolean catalogEvent = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        String changedName = String.valueOf(event.context());
+                        catalogEvent |= changedName.equals(distancesFile.getName())
+                                || changedName.equals(coordinatesFile.getName());
+                    }
+                    key.reset();
+                    if (catalogEvent) {
+                        Thread.sleep(WATCH_SETTLE_MILLIS);
+                        List<String> affected = reloadIfChanged();
+                        if (!affected.isEmpty()) {
+                            System.out.println(String.format(
+                                    "Catalog changed: re-solving %d affected building sets.", affected.size()));
+                            resolveInBackground(affected);
+                        }
+                    }
+                } catch (InterruptedException excp) {
+                    return;
+                } catch (IOException | RuntimeException excp) {
+                    excp.printStackTrace();
+                }
+            }
+        });
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    /** Re-solves a single building set against the current tables while holding its lock
+     *
+     * @param graphName name of building set to re-solve
+     */
+    private void resolve(String graphName) {
+        synchronized (graphData.lockFor(graphName)) {
+            String graphID;
+            synchronized (graphData) {
+                graphID = graphData.checkGraph(graphName) ? graphData.getGraph(graphName) : null;
+            }
+            try {
+                if (graphID != null) {
+                    resolveSaved(graphName, graphID);
+                }
+                graphData.clearStale(graphName);
+                graphData.writeGraphManager();
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException excp) {
+                excp.printStackTrace();
+            }
+        }
+    }
+
+    /** Re-solves and saves a registered building set, unless it refers to buildings no longer in the catalog
+     *
+     * @param graphName name of building set to re-solve
+     * @param graphID id the set is saved under
+     * @throws IOException if the set cannot be saved
+     * @throws InterruptedException if interrupted while waiting for the scheduler to solve the set
+     */
+    private void resolveSaved(String graphName, String graphID) throws IOException, InterruptedException {
+        buildingGraph saved = buildingGraph.readGraph(graphData.getGraphDir(), graphID);
+        for (int i = 0; i < saved.numBuildings(); i++) {
+            if (!graphData.checkBuilding(saved.getBuilding(i))) {
+                System.out.println(String.format("Building set %s refers to %s, which is no longer in the catalog.",
+                        graphName, saved.getBuilding(i)));
+                return;
+            }
+        }
+        saved.updateBuildingGraph(graphData.getDistanceRows(), graphData.getBuildingIndices(),
+                graphData.getCoordinates(), false);
+        saved.setCollapseTolerance(graphData.getCollapseTolerance());
+        solveScheduler shared = scheduler;
+        if (shared != null) {
+            saved.solvePath(shared);
+        } else {
+            saved.solvePath();
+        }
+        saved.writeGraph(graphData.getGraphDir());
+    }
+
+    /** Finds the buildings whose distance row differs between the previous and current tables,
+     * including buildings added to or removed from the catalog
+     *
+     * @param oldRows previous mapping of building names to distance rows
+     * @param oldIndices previous mapping of building names to indices in distance rows
+     * @return names of changed buildings
+     */
+    private Set<String> changedBuildings(Map<String, double[]> oldRows, Map<String, Integer> oldIndices) {
+        Map<String, double[]> newRows = graphData.getDistanceRows();
+        Map<String, Integer> newIndices = graphData.getBuildingIndices();
+        Set<String> changed = new HashSet<>();
+        Set<String> allNames = new HashSet<>(oldIndices.keySet());
+        allNames.addAll(newIndices.keySet());
+        for (String building : allNames) {
+            if (!oldIndices.containsKey(building) || !newIndices.containsKey(building)) {
+                changed.add(building);
+                continue;
+            }
+            double[] oldRow = oldRows.get(building);
+            double[] newRow = newRows.get(building);
+            for (String other : allNames) {
+                Integer oldIndex = oldIndices.get(other);
+                Integer newIndex = newIndices.get(other);
+                if (oldIndex == null || newIndex == null || oldRow[oldIndex] != newRow[newIndex]) {
+                    changed.add(building);
+                    break;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /** Checks whether a saved building set is affected by a catalog change: it must contain a changed
+     * building and either refer to a removed building or have a different distance between two of its buildings
+     *
+     * @param saved saved building set
+     * @param changed names of changed buildings
+     * @return whether the set must be re-solved
+     */
+    private boolean isAffected(buildingGraph saved, Set<String> changed) {
+        List<String> names = new ArrayList<>();
+        boolean containsChanged = false;
+        for (int i = 0; i < saved.numBuildings(); i++) {
+            String building = saved.getBuilding(i);
+            if (!graphData.checkBuilding(building)) {
+                return true;
+            }
+            containsChanged |= changed.contains(building);
+            names.add(building);
+        }
+        if (!containsChanged) {
+            return false;
+        }
+        distanceView current = distanceView.of(names, graphData.getDistanceRows(), graphData.getBuildingIndices());
+        for (int i = 0; i < names.size(); i++) {
+            for (int j = 0; j < names.size(); j++) {
+                if (current.distance(i, j) != saved.buildingDistances[i][j]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Returns the size and modification time of both catalog files
+     *
+     * @return stamp identifying the current state of the files
+     */
+    private String stamp() {
+        return String.format("%d:%d|%d:%d", distancesFile.length(), distancesFile.lastModified(),
+                coordinatesFile.length(), coordinatesFile.lastModified());
+    }
+
+    /** Time to wait after a file change event so that a file being rewritten is complete before hashing */
+    private static final long WATCH_SETTLE_MILLIS = 250;
+
+    /** graphManager whose tables and building sets are kept up to date */
+    private final graphManager graphData;
+
+    /** csv file with raw distance values */
+    private final File distancesFile;
+
+    /** csv file with raw coordinate values */
+    private final File coordinatesFile;
+
+    /** Scheduler that re-solves are queued on, null to solve directly on the re-solve threads */
+    private volatile solveScheduler scheduler;
+}
@@ -0,0 +1,317 @@
+import java.util.*;
+
+/** Polynomial time approximation solver for the open path from a fixed start, after Christofides and Hoogeveen.
+ * It builds a minimum spanning tree, matches the tree's odd-degree nodes (with the start's parity flipped) leaving
+ * one node unmatched as the free end, and shortcuts an Euler walk from the start. The shorter of that path and the
+ * preorder walk of the tree is returned. On metric distances the result is within 5/3 of the optimum when the
+ * matching is solved exactly, and within 2 of the optimum when the matching falls back to greedy.
+ * @author Brian Lin
+ */
+public class christofidesSolver implements pathSolver {
+
+    @Override
+    public pathResult solve(distanceView view) {
+        int n = view.size();
+        if (n <= 2) {
+            return heldKarpDelegate.solve(view);
+        }
+        double[][] dist = view.matrix();
+        solveMetrics.timer timer = solveMetrics.start("solve.christofides").size(n);
+        try {
+            int[] parent = spanningTree(dist);
+            List<List<Integer>> adjacency = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                adjacency.add(new ArrayList<>());
+            }
+            for (int i = 1; i < n; i++) {
+                adjacency.get(i).add(parent[i]);
+                adjacency.get(parent[i]).add(i);
+            }
+            int[] treeWalk = preorder(adjacency, n);
+            int[] odd = oddNodes(parent, n);
+            int[] matching = odd.length <= EXACT_MATCHING_LIMIT ? exactMatching(dist, odd) : greedyMatching(dist, odd);
+            for (int i = 0; i + 1 < matching.length; i += 2) {
+                adjacency.get(matching[i]).add(matching[i + 1]);
+                adjacency.get(matching[i + 1]).add(matching[i]);
+            }
+            int[] eulerPath = shortcut(eulerWalk(adjacency, n), n);
+            pathResult matched = new pathResult(view, eulerPath);
+            pathResult doubled = new pathResult(view, treeWalk);
+            return matched.length() <= doubled.length() ? matched : doubled;
+        } finally {
+            timer.close();
+        }
+    }
+
+    /** Returns the proven worst-case ratio of this solver's path length to the optimum on the given view:
+     * 5/3 when the odd-degree nodes are few enough to match exactly, 2 otherwise, and no bound at all
+     * unless the distances are symmetric and satisfy the triangle inequality
+     *
+     * @param view distances between the buildings to visit
+     * @return approximation bound
+     */
+    @Override
+    public double bound(distanceView view) {
+        if (view.size() <= 2) {
+            return 1;
+        }
+        double[][] dist = view.matrix();
+        if (!metric(dist)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return oddNodes(spanningTree(dist), dist.length).length <= EXACT_MATCHING_LIMIT ? 5.0 / 3 : 2;
+    }
+
+    /** Builds a minimum spanning tree rooted at node 0 with Prim's algorithm over the dense matrix
+     *
+     * @param dist distance matrix
+     * @return parent of each node in the tree, -1 for node 0
+     */
+    static int[] spanningTree(double[][] dist) {
+        int n = dist.length;
+        int[] parent = new int[n];
+        double[] reach = new double[n];
+        boolean[] inTree = new boolean[n];
+        Arrays.fill(reach, Double.POSITIVE_INFINITY);
+        parent[0] = -1;
+        reach[0] = 0;
+        for (int added = 0; added < n; added++) {
+            int next = -1;
+            for (int i = 0; i < n; i++) {
+                if (!inTree[i] && (next < 0 || reach[i] < reach[next])) {
+                    next = i;
+                }
+            }
+            inTree[next] = true;
+            for (int i = 0; i < n; i++) {
+                double edge = Math.min(dist[next][i], dist[i][next]);
+                if (!inTree[i] && edge < reach[i]) {
+                    reach[i] = edge;
+                    parent[i] = next;
+                }
+            }
+        }
+        return parent;
+    }
+
+    /** Finds the nodes that need a matching edge: odd-degree nodes of the tree, with the start's parity flipped
+     * so that the start ends up as an end of the Euler walk
+     *
+     * @param parent parent of each node in the tree
+     * @param n number of nodes
+     * @return nodes to match, of which one is left unmatched
+     */
+    private static int[] oddNodes(int[] parent, int n) {
+        int[] degree = new int[n];
+        for (int i = 1; i < n; i++) {
+            degree[i]++;
+            degree[parent[i]]++;
+        }
+        degree[0]++;
+        int[] odd = new int[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (degree[i] % 2 == 1) {
+                odd[count++] = i;
+            }
+        }
+        return Arrays.copyOf(odd, count);
+    }
+
+    /** Finds a minimum weight matching of all but one of an odd number of nodes, by a dynamic program over
+     * subsets that always pairs the lowest remaining node
+     *
+     * @param dist distance matrix
+     * @param nodes nodes to match
+     * @return matched pairs as consecutive entries, followed by the unmatched node
+     */
+    private static int[] exactMatching(double[][] dist, int[] nodes) {
+        int t = nodes.length;
+        int subsets = 1 << t;
+        double[] costs = new double[subsets];
+        int[] partner = new int[subsets];
+        for (int mask = 1; mask < subsets; mask++) {
+            costs[mask] = Double.POSITIVE_INFINITY;
+            if (Integer.bitCount(mask) % 2 == 1) {
+                continue;
+            }
+            int low = Integer.numberOfTrailingZeros(mask);
+            for (int rest = mask ^ (1 << low); rest != 0; rest &= rest - 1) {
+                int other = Integer.numberOfTrailingZeros(rest);
+                double candidate = costs[mask ^ (1 << low) ^ (1 << other)] + dist[nodes[low]][nodes[other]];
+                if (candidate < costs[mask]) {
+                    costs[mask] = candidate;
+                    partner[mask] = other;
+                }
+            }
+        }
+        int full = subsets - 1;
+        int unmatched = 0;
+        for (int i = 1; i < t; i++) {
+            if (costs[full ^ (1 << i)] < costs[full ^ (1 << unmatched)]) {
+                unmatched = i;
+            }
+        }
+        int[] pairs = new int[t];
+        int size = 0;
+        for (int mask = full ^ (1 << unmatched); mask != 0; ) {
+            int low = Integer.numberOfTrailingZeros(mask);
+            int other = partner[mask];
+            pairs[size++] = nodes[low];
+            pairs[size++] = nodes[other];
+            mask ^= (1 << low) | (1 << other);
+        }
+        pairs[size] = nodes[unmatched];
+        return pairs;
+    }
+
+    /** Matches nodes greedily by increasing distance, leaving one node unmatched
+     *
+     * @param dist distance matrix
+     * @param nodes nodes to match
+     * @return matched pairs as consecutive entries, followed by the unmatched node
+     */
+    private static int[] greedyMatching(double[][] dist, int[] nodes) {
+        int t = nodes.length;
+        List<int[]> edges = new ArrayList<>();
+        for (int i = 0; i < t; i++) {
+            for (int j = i + 1; j < t; j++) {
+                edges.add(new int[]{i, j});
+            }
+        }
+        edges.sort(Comparator.comparingDouble(edge -> dist[nodes[edge[0]]][nodes[edge[1]]]));
+        boolean[] matched = new boolean[t];
+        int[] pairs = new int[t];
+        int size = 0;
+        for (int[] edge : edges) {
+            if (size + 1 >= t) {
+                break;
+            }
+            if (!matched[edge[0]] && !matched[edge[1]]) {
+                matched[edge[0]] = true;
+                matched[edge[1]] = true;
+                pairs[size++] = nodes[edge[0]];
+                pairs[size++] = nodes[edge[1]];
+            }
+        }
+        for (int i = 0; i < t; i++) {
+            if (!matched[i]) {
+                pairs[size++] = nodes[i];
+            }
+        }
+        return pairs;
+    }
+
+    /** Walks every edge of the multigraph once with Hierholzer's algorithm, starting from node 0
+     *
+     * @param adjacency multigraph adjacency lists, consumed by the walk
+     * @param n number of nodes
+     * @return nodes in walk order
+     */
+    private static int[] eulerWalk(List<List<Integer>> adjacency, int n) {
+        List<Deque<Integer>> remaining = new ArrayList<>();
+        for (List<Integer> neighbours : adjacency) {
+            remaining.add(new ArrayDeque<>(neighbours));
+        }
+        Deque<Integer> stack = new ArrayDeque<>();
+        List<Integer> walk = new ArrayList<>();
+        stack.push(0);
+        while (!stack.isEmpty()) {
+            int node = stack.peek();
+            Deque<Integer> edges = remaining.get(node);
+            if (edges.isEmpty()) {
+                walk.add(stack.pop());
+            } else {
+                int next = edges.poll();
+                remaining.get(next).removeFirstOccurrence(node);
+                stack.push(next);
+            }
+        }
+        Collections.reverse(walk);
+        return walk.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /** Keeps the first visit to each node of a walk
+     *
+     * @param walk nodes in walk order
+     * @param n number of nodes
+     * @return path visiting each node once
+     */
+    private static int[] shortcut(int[] walk, int n) {
+        boolean[] seen = new boolean[n];
+        int[] path = new int[n];
+        int size = 0;
+        for (int node : walk) {
+            if (!seen[node]) {
+                seen[node] = true;
+                path[size++] = node;
+            }
+        }
+        return path;
+    }
+
+    /** Lists the nodes of the tree in depth-first preorder from node 0
+     *
+     * @param adjacency tree adjacency lists
+     * @param n number of nodes
+     * @return nodes in preorder
+     */
+    private static int[] preorder(List<List<Integer>> adjacency, int n) {
+        boolean[] seen = new boolean[n];
+        int[] order = new int[n];
+        int size = 0;
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(0);
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            if (seen[node]) {
+                continue;
+            }
+            seen[node] = true;
+            order[size++] = node;
+            for (int neighbour : adjacency.get(node)) {
+                if (!seen[neighbour]) {
+                    stack.push(neighbour);
+                }
+            }
+        }
+        return order;
+    }
+
+    /** Checks that distances are symmetric and satisfy the triangle inequality, up to rounding in the distance file
+     *
+     * @param dist distance matrix
+     * @return whether the distances are metric
+     */
+    static boolean metric(double[][] dist) {
+        int n = dist.length;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (Math.abs(dist[i][j] - dist[j][i]) > METRIC_SLACK) {
+                    return false;
+                }
+                for (int k = 0; k < n; k++) {
+                    if (dist[i][k] > dist[i][j] + dist[j][k] + METRIC_SLACK) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String name() {
+        return "christofides";
+    }
+
+    /** Largest number of nodes to match for which the matching is solved exactly rather than greedily */
+    static final int EXACT_MATCHING_LIMIT = 21;
+
+    /** Slack in meters allowed when checking the triangle inequality, as the catalog's haversine distances
+     * break it by a few millimeters through rounding */
+    private static final double METRIC_SLACK = 0.01;
+
+    /** Solver used for instances too small to need a tree */
+    private static final pathSolver heldKarpDelegate = new heldKarpSolver();
+}
@@ -0,0 +1,413 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+/** Heuristic solver for very large sets that decomposes them into geographic clusters small enough to solve
+ * exactly. Buildings are grouped by k-means over their positions (or around far-apart centers when the view has no
+ * positions), clusters are ordered by a coarse path over their representatives, each cluster is solved exactly in
+ * parallel between the buildings closest to its neighbours, and a local search pass repairs the boundaries.
+ * The stitched path is never returned when the Christofides path is shorter, so its bound carries over.
+ * @author Brian Lin
+ */
+public class clusterSolver implements pathSolver {
+
+    @Override
+    public pathResult solve(distanceView view) {
+        int n = view.size();
+        if (n <= MAX_CLUSTER) {
+            return heldKarpDelegate.solve(view);
+        }
+        double[][] dist = view.matrix();
+        pathResult stitched;
+        solveMetrics.timer timer = solveMetrics.start("solve.cluster").size(n);
+        try {
+            List<int[]> clusters = view.hasPositions() ? kMeans(view, n) : aroundCenters(dist, n);
+            solveMetrics.count("solve.clusters", clusters.size());
+            List<int[]> ordered = orderClusters(dist, clusters);
+            int[] entries = new int[ordered.size()];
+            int[] exits = new int[ordered.size()];
+            chooseBoundaries(dist, ordered, entries, exits);
+            int[][] segments = new int[ordered.size()][];
+            IntStream.range(0, ordered.size()).parallel().forEach(i ->
+                    segments[i] = clusterPath(dist, ordered.get(i), entries[i], exits[i]));
+            int[] path = new int[n];
+            int size = 0;
+            for (int[] segment : segments) {
+                System.arraycopy(segment, 0, path, size, segment.length);
+                size += segment.length;
+            }
+            stitched = new pathResult(view, localSearch.improve(dist, path));
+        } finally {
+            timer.close();
+        }
+        pathResult approximation = christofides.solve(view);
+        return stitched.length() <= approximation.length() ? stitched : approximation;
+    }
+
+    /** Returns the Christofides bound, which holds because the shorter of the two paths is returned
+     *
+     * @param view distances between the buildings to visit
+     * @return approximation bound
+     */
+    @Override
+    public double bound(distanceView view) {
+        return view.size() <= MAX_CLUSTER ? 1 : christofides.bound(view);
+    }
+
+    /** Groups nodes by Lloyd's k-means over their positions, seeded with far-apart nodes, then splits any
+     * cluster still too large to solve exactly
+     *
+     * @param view view with node positions
+     * @param n number of nodes
+     * @return clusters of node indices
+     */
+    private static List<int[]> kMeans(distanceView view, int n) {
+        double[][] points = new double[n][];
+        for (int i = 0; i < n; i++) {
+            points[i] = view.position(i);
+        }
+        List<int[]> clusters = new ArrayList<>();
+        splitByMeans(points, allNodes(n), (n + TARGET_CLUSTER - 1) / TARGET_CLUSTER, clusters);
+        return clusters;
+    }
+
+    /** Splits the given nodes into k clusters by k-means, recursing into any cluster over the size limit
+     *
+     * @param points position of every node
+     * @param nodes nodes to split
+     * @param k number of clusters to aim for
+     * @param clusters list the resulting clusters are added to
+     */
+    private static void splitByMeans(double[][] points, int[] nodes, int k, List<int[]> clusters) {
+        double[][] centers = new double[k][];
+        int[] seeds = farthestPoints(nodes, k, (a, b) -> Math.hypot(points[a][0] - points[b][0], points[a][1] - points[b][1]));
+        for (int c = 0; c < k; c++) {
+            centers[c] = points[seeds[c]].clone();
+        }
+        int[] assignment = new int[nodes.length];
+        for (int iteration = 0; iteration < KMEANS_ITERATIONS; iteration++) {
+            boolean moved = false;
+            for (int i = 0; i < nodes.length; i++) {
+                double[] point = points[nodes[i]];
+                int nearest = 0;
+                for (int c = 1; c < k; c++) {
+                    if (Math.hypot(point[0] - centers[c][0], point[1] - centers[c][1])
+                            < Math.hypot(point[0] - centers[nearest][0], point[1] - centers[nearest][1])) {
+                        nearest = c;
+                    }
+                }
+                moved |= assignment[i] != nearest;
+                assignment[i] = nearest;
+            }
+            if (!moved && iteration > 0) {
+                break;
+            }
+            double[][] sums = new double[k][3];
+            for (int i = 0; i < nodes.length; i++) {
+                sums[assignment[i]][0] += points[nodes[i]][0];
+                sums[assignment[i]][1] += points[nodes[i]][1];
+                sums[assignment[i]][2]++;
+            }
+            for (int c = 0; c < k; c++) {
+                if (sums[c][2] > 0) {
+                    centers[c] = new double[]{sums[c][0] / sums[c][2], sums[c][1] / sums[c][2]};
+                }
+            }
+        }
+        for (int[] cluster : group(nodes, assignment, k)) {
+            if (cluster.length > MAX_CLUSTER) {
+                splitByMeans(points, cluster, 2, clusters);
+            } else {
+                clusters.add(cluster);
+            }
+        }
+    }
+
+    /** Groups nodes around far-apart centers by distance when the view has no positions, splitting any
+     * cluster still too large to solve exactly
+     *
+     * @param dist distance matrix
+     * @param n number of nodes
+     * @return clusters of node indices
+     */
+    private static List<int[]> aroundCenters(double[][] dist, int n) {
+        List<int[]> clusters = new ArrayList<>();
+        splitAroundCenters(dist, allNodes(n), (n + TARGET_CLUSTER - 1) / TARGET_CLUSTER, clusters);
+        return clusters;
+    }
+
+    /** Splits the given nodes into k clusters around far-apart centers, recursing into any cluster over the size limit
+     *
+     * @param dist distance matrix
+     * @param nodes nodes to split
+     * @param k number of clusters
+     * @param clusters list the resulting clusters are added to
+     */
+    private static void splitAroundCenters(double[][] dist, int[] nodes, int k, List<int[]> clusters) {
+        int[] centers = farthestPoints(nodes, k, (a, b) -> dist[a][b]);
+        int[] assignment = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            for (int c = 1; c < k; c++) {
+                if (dist[nodes[i]][centers[c]] < dist[nodes[i]][centers[assignment[i]]]) {
+                    assignment[i] = c;
+                }
+            }
+        }
+        for (int[] cluster : group(nodes, assignment, k)) {
+            if (cluster.length > MAX_CLUSTER) {
+                splitAroundCenters(dist, cluster, 2, clusters);
+            } else {
+                clusters.add(cluster);
+            }
+        }
+    }
+
+    /** Picks k nodes spread far apart, starting from the first node and repeatedly taking the node farthest
+     * from every node picked so far
+     *
+     * @param nodes nodes to pick from
+     * @param k number of nodes to pick
+     * @param distance distance between two nodes
+     * @return picked nodes
+     */
+    private static int[] farthestPoints(int[] nodes, int k, nodeDistance distance) {
+        int[] picked = new int[k];
+        double[] nearest = new double[nodes.length];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        picked[0] = nodes[0];
+        for (int c = 1; c < k; c++) {
+            int farthest = 0;
+            for (int i = 0; i < nodes.length; i++) {
+                nearest[i] = Math.min(nearest[i], distance.between(nodes[i], picked[c - 1]));
+                if (nearest[i] > nearest[farthest]) {
+                    farthest = i;
+                }
+            }
+            picked[c] = nodes[farthest];
+        }
+        return picked;
+    }
+
+    /** Collects nodes by assigned cluster, dropping empty clusters
+     *
+     * @param nodes clustered nodes
+     * @param assignment cluster of each node
+     * @param k number of clusters
+     * @return non-empty clusters of node indices
+     */
+    private static List<int[]> group(int[] nodes, int[] assignment, int k) {
+        int[] sizes = new int[k];
+        for (int c : assignment) {
+            sizes[c]++;
+        }
+        int[][] grouped = new int[k][];
+        for (int c = 0; c < k; c++) {
+            grouped[c] = new int[sizes[c]];
+            sizes[c] = 0;
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            grouped[assignment[i]][sizes[assignment[i]]++] = nodes[i];
+        }
+        List<int[]> clusters = new ArrayList<>();
+        for (int[] cluster : grouped) {
+            if (cluster.length > 0) {
+                clusters.add(cluster);
+            }
+        }
+        if (clusters.size() == 1 && clusters.get(0).length > MAX_CLUSTER) {
+            int[] cluster = clusters.remove(0);
+            int half = cluster.length / 2;
+            clusters.add(Arrays.copyOfRange(cluster, 0, half));
+            clusters.add(Arrays.copyOfRange(cluster, half, cluster.length));
+        }
+        return clusters;
+    }
+
+    /** Orders clusters by the shortest open path over their medoids, starting from the cluster holding node 0
+     *
+     * @param dist distance matrix
+     * @param clusters clusters of node indices
+     * @return clusters in visiting order
+     */
+    private static List<int[]> orderClusters(double[][] dist, List<int[]> clusters) {
+        int k = clusters.size();
+        List<int[]> byStart = new ArrayList<>(clusters);
+        for (int c = 0; c < k; c++) {
+            if (contains(byStart.get(c), 0)) {
+                Collections.swap(byStart, 0, c);
+                break;
+            }
+        }
+        int[] medoids = new int[k];
+        medoids[0] = 0;
+        for (int c = 1; c < k; c++) {
+            medoids[c] = medoid(dist, byStart.get(c));
+        }
+        double[][] coarse = new double[k][k];
+        List<String> names = new ArrayList<>();
+        for (int a = 0; a < k; a++) {
+            names.add(String.valueOf(a));
+            for (int b = 0; b < k; b++) {
+                coarse[a][b] = dist[medoids[a]][medoids[b]];
+            }
+        }
+        distanceView coarseView = new distanceView(names, coarse);
+        pathResult coarsePath = k <= MAX_CLUSTER ? heldKarpDelegate.solve(coarseView)
+                : new pathResult(coarseView, localSearch.improve(coarse, christofides.solve(coarseView).nodes()));
+        List<int[]> ordered = new ArrayList<>();
+        for (int node : coarsePath.nodes()) {
+            ordered.add(byStart.get(node));
+        }
+        return ordered;
+    }
+
+    /** Chooses where the path enters and leaves each cluster: it enters the first cluster at node 0 and leaves each
+     * cluster by the closest pair of nodes joining it to the next, never leaving by the node it entered at unless
+     * that is the cluster's only node. The last cluster is left open.
+     *
+     * @param dist distance matrix
+     * @param ordered clusters in visiting order
+     * @param entries filled with the node each cluster is entered at
+     * @param exits filled with the node each cluster is left from, -1 for the last cluster
+     */
+    private static void chooseBoundaries(double[][] dist, List<int[]> ordered, int[] entries, int[] exits) {
+        entries[0] = 0;
+        for (int c = 0; c + 1 < ordered.size(); c++) {
+            int[] from = ordered.get(c);
+            int[] to = ordered.get(c + 1);
+            double best = Double.POSITIVE_INFINITY;
+            for (int a : from) {
+                if (a == entries[c] && from.length > 1) {
+                    continue;
+                }
+                for (int b : to) {
+                    if (dist[a][b] < best) {
+                        best = dist[a][b];
+                        exits[c] = a;
+                        entries[c + 1] = b;
+                    }
+                }
+            }
+        }
+        exits[ordered.size() - 1] = -1;
+    }
+
+    /** Solves the path through one cluster exactly between its entry and exit
+     *
+     * @param dist distance matrix
+     * @param cluster nodes of the cluster
+     * @param entry node the path enters at
+     * @param exit node the path leaves from, or -1 to end anywhere
+     * @return nodes of the cluster in traversal order
+     */
+    private static int[] clusterPath(double[][] dist, int[] cluster, int entry, int exit) {
+        if (cluster.length == 1) {
+            return new int[]{entry};
+        }
+        int[] subNodes = new int[cluster.length];
+        subNodes[0] = entry;
+        int size = 1;
+        for (int node : cluster) {
+            if (node != entry && node != exit) {
+                subNodes[size++] = node;
+            }
+        }
+        if (exit >= 0) {
+            subNodes[size] = exit;
+        }
+        int m = cluster.length - 1;
+        double[][] sub = new double[cluster.length][cluster.length];
+        for (int i = 0; i < cluster.length; i++) {
+            for (int j = 0; j < cluster.length; j++) {
+                sub[i][j] = dist[subNodes[i]][subNodes[j]];
+            }
+        }
+        double[] costs = heldKarpSolver.fillTable(sub, m);
+        int[] path = exit >= 0 ? heldKarpSolver.reconstruct(sub, costs, m, m - 1) : heldKarpSolver.reconstruct(sub, costs, m);
+        for (int i = 0; i < path.length; i++) {
+            path[i] = subNodes[path[i]];
+        }
+        return path;
+    }
+
+    /** Finds the node of a cluster with the least total distance to the rest of the cluster
+     *
+     * @param dist distance matrix
+     * @param cluster nodes of the cluster
+     * @return medoid node
+     */
+    private static int medoid(double[][] dist, int[] cluster) {
+        int best = cluster[0];
+        double bestTotal = Double.POSITIVE_INFINITY;
+        for (int candidate : cluster) {
+            double total = 0;
+            for (int other : cluster) {
+                total += dist[candidate][other];
+            }
+            if (total < bestTotal) {
+                bestTotal = total;
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /** Returns the nodes 0 to n - 1
+     *
+     * @param n number of nodes
+     * @return node indices
+     */
+    private static int[] allNodes(int n) {
+        int[] nodes = new int[n];
+        for (int i = 0; i < n; i++) {
+            nodes[i] = i;
+        }
+        return nodes;
+    }
+
+    /** Checks whether a cluster holds the given node
+     *
+     * @param cluster nodes of the cluster
+     * @param node node to look for
+     * @return whether the node is in the cluster
+     */
+    private static boolean contains(int[] cluster, int node) {
+        for (int member : cluster) {
+            if (member == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String name() {
+        return "cluster";
+    }
+
+    /** Distance between two nodes, either planar or from the distance matrix */
+    private interface nodeDistance {
+
+        /** Returns the distance between two nodes
+         *
+         * @param a first node
+         * @param b second node
+         * @return distance in meters
+         */
+        double between(int a, int b);
+    }
+
+    /** Number of buildings per cluster aimed for when choosing the number of clusters */
+    static final int TARGET_CLUSTER = 10;
+
+    /** Largest cluster solved exactly; larger clusters are split further */
+    static final int MAX_CLUSTER = 16;
+
+    /** Limit on k-means iterations */
+    private static final int KMEANS_ITERATIONS = 50;
+
+    /** Solver for clusters and sets small enough to solve exactly */
+    private static final pathSolver heldKarpDelegate = new heldKarpSolver();
+
+    /** Solver whose path is returned instead when shorter, and which orders many clusters */
+    private static final christofidesSolver christofides = new christofidesSolver();
+}
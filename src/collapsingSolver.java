@@ -0,0 +1,216 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/** Solver that merges buildings at the same or nearly the same place into one node, solves the smaller set with
+ * another solver and expands each merged node back into its buildings, visited one after another.
+ * Two buildings are merged when every distance from and to one is within the tolerance of the same distance for
+ * the other, as for buildings sharing a row of the distance file. At a tolerance of 0 only such duplicates are
+ * merged and the expanded path is as short as the reduced one; a larger tolerance adds at most twice the
+ * tolerance for each merged building.
+ * @author Brian Lin
+ */
+public class collapsingSolver implements pathSolver {
+
+    /** Constructor for a solver merging buildings within the given tolerance before using another solver
+     *
+     * @param solver solver for the reduced set
+     * @param tolerance largest difference in meters between the distances of merged buildings, negative to merge none
+     */
+    public collapsingSolver(pathSolver solver, double tolerance) {
+        this.solver = solver;
+        this.tolerance = tolerance;
+    }
+
+    /** Solves the reduced set and expands the merged nodes back into their buildings
+     *
+     * @param view distances between the buildings to visit, starting from node 0
+     * @return path visiting every node once
+     */
+    @Override
+    public pathResult solve(distanceView view) {
+        int[][] groups;
+        solveMetrics.timer timer = solveMetrics.start("solve.collapse").size(view.size());
+        try {
+            groups = groups(view.matrix(), tolerance);
+        } finally {
+            timer.close();
+        }
+        if (groups.length == view.size()) {
+            return solver.solve(view);
+        }
+        solveMetrics.count("solve.collapsed", view.size() - groups.length);
+        pathResult reduced = solver.solve(reduce(view, groups));
+        int[] nodes = new int[view.size()];
+        int position = 0;
+        for (int group : reduced.nodes()) {
+            for (int member : groups[group]) {
+                nodes[position++] = member;
+            }
+        }
+        return new pathResult(view, nodes);
+    }
+
+    /** Returns the number of nodes left once buildings within the tolerance are merged, for choosing the
+     * solver of the reduced set
+     *
+     * @param view distances between the buildings to visit
+     * @param tolerance largest difference in meters between the distances of merged buildings, negative to merge none
+     * @return size of the reduced set
+     */
+    public static int reducedSize(distanceView view, double tolerance) {
+        return groups(view.matrix(), tolerance).length;
+    }
+
+    /** Groups nodes whose distances all agree within the tolerance. Each group is led by its lowest node, so
+     * that node 0 leads the first group, and lists the rest in nearest neighbour order from the leader.
+     *
+     * @param dist distance matrix
+     * @param tolerance largest difference in meters between the distances of merged nodes, negative to merge none
+     * @return groups of node indices in order of their leaders
+     */
+    static int[][] groups(double[][] dist, double tolerance) {
+        int n = dist.length;
+        List<List<Integer>> groups = new ArrayList<>();
+        boolean[] merged = new boolean[n];
+        for (int leader = 0; leader < n; leader++) {
+            if (merged[leader]) {
+                continue;
+            }
+            List<Integer> members = new ArrayList<>();
+            members.add(leader);
+            for (int other = leader + 1; other < n && tolerance >= 0; other++) {
+                if (!merged[other] && interchangeable(dist, leader, other, tolerance)) {
+                    merged[other] = true;
+                    members.add(other);
+                }
+            }
+            groups.add(nearestOrder(dist, members));
+        }
+        int[][] result = new int[groups.size()][];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = groups.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return result;
+    }
+
+    /** Checks whether every distance from and to one node is within the tolerance of the same distance for another
+     *
+     * @param dist distance matrix
+     * @param a first node
+     * @param b second node
+     * @param tolerance largest allowed difference in meters
+     * @return whether the nodes can be merged
+     */
+    private static boolean interchangeable(double[][] dist, int a, int b, double tolerance) {
+        for (int x = 0; x < dist.length; x++) {
+            if (Math.abs(dist[a][x] - dist[b][x]) > tolerance || Math.abs(dist[x][a] - dist[x][b]) > tolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Orders the members of a group by repeatedly visiting the nearest unvisited member, starting from the leader
+     *
+     * @param dist distance matrix
+     * @param members group members, leader first
+     * @return members in visiting order
+     */
+    private static List<Integer> nearestOrder(double[][] dist, List<Integer> members) {
+        List<Integer> remaining = new ArrayList<>(members.subList(1, members.size()));
+        List<Integer> order = new ArrayList<>();
+        order.add(members.get(0));
+        while (!remaining.isEmpty()) {
+            int last = order.get(order.size() - 1);
+            int nearest = 0;
+            for (int i = 1; i < remaining.size(); i++) {
+                if (dist[last][remaining.get(i)] < dist[last][remaining.get(nearest)]) {
+                    nearest = i;
+                }
+            }
+            order.add(remaining.remove(nearest));
+        }
+        return order;
+    }
+
+    /** Builds the view over the leader of each group
+     *
+     * @param view distances between every node
+     * @param groups groups of node indices
+     * @return view with one node per group, in group order
+     */
+    private static distanceView reduce(distanceView view, int[][] groups) {
+        double[][] dist = view.matrix();
+        int size = groups.length;
+        List<String> names = new ArrayList<>();
+        double[][] distances = new double[size][size];
+        double[][] positions = view.hasPositions() ? new double[size][] : null;
+        for (int i = 0; i < size; i++) {
+            int leader = groups[i][0];
+            names.add(view.name(leader));
+            for (int j = 0; j < size; j++) {
+                distances[i][j] = dist[leader][groups[j][0]];
+            }
+            if (positions != null) {
+                positions[i] = view.position(leader);
+            }
+        }
+        return new distanceView(names, distances, positions);
+    }
+
+    /** Returns the proven worst-case ratio of this solver's path length to the shortest path: that of the solver
+     * for the reduced set when merging leaves lengths unchanged, and no ratio once buildings further apart merge
+     *
+     * @param view distances between the buildings to visit, starting from node 0
+     * @return approximation bound
+     */
+    @Override
+    public double bound(distanceView view) {
+        int[][] groups = groups(view.matrix(), tolerance);
+        if (groups.length == view.size()) {
+            return solver.bound(view);
+        }
+        return tolerance == 0 ? solver.bound(reduce(view, groups)) : Double.POSITIVE_INFINITY;
+    }
+
+    /** Returns how much longer than the shortest path the result can be through merging alone, which holds when
+     * the solver for the reduced set is exact and the distances obey the triangle inequality
+     *
+     * @param view distances between the buildings to visit, starting from node 0
+     * @return twice the tolerance for each merged building, 0 if merging leaves lengths unchanged, or infinity
+     *         when the solver for the reduced set is not exact
+     */
+    public double slack(distanceView view) {
+        int merged = view.size() - groups(view.matrix(), tolerance).length;
+        if (merged == 0 || tolerance <= 0) {
+            return 0;
+        }
+        return solver.exact() ? 2 * tolerance * merged : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public String name() {
+        return solver.name();
+    }
+
+    @Override
+    public int maxSize() {
+        return solver.maxSize();
+    }
+
+    @Override
+    public boolean exact() {
+        return solver.exact() && tolerance <= 0;
+    }
+
+    @Override
+    public String progressCounter() {
+        return solver.progressCounter();
+    }
+
+    /** Solver for the reduced set */
+    private final pathSolver solver;
+
+    /** Largest difference in meters between the distances of merged buildings, negative to merge none */
+    private final double tolerance;
+}
@@ -0,0 +1,176 @@
+import java.util.*;
+
+/** Immutable view of the distances between a set of buildings, used as the input to every pathSolver.
+ * Node 0 of the view is the building that paths start from.
+ * @author Brian Lin
+ */
+public final class distanceView {
+
+    /** Constructor for a view over a copy of the given distance matrix
+     *
+     * @param names building names for each node of the matrix
+     * @param distances square matrix of distances between nodes
+     */
+    public distanceView(List<String> names, double[][] distances) {
+        this(names, distances, null);
+    }
+
+    /** Constructor for a view over copies of the given distance matrix and node positions
+     *
+     * @param names building names for each node of the matrix
+     * @param distances square matrix of distances between nodes
+     * @param positions x/y position of each node in meters on a local plane, or null if unknown
+     */
+    public distanceView(List<String> names, double[][] distances, double[][] positions) {
+        if (names.size() != distances.length || (positions != null && positions.length != distances.length)) {
+            throw new IllegalArgumentException("names and distances must have the same size");
+        }
+        this.names = Collections.unmodifiableList(new ArrayList<>(names));
+        this.distances = new double[distances.length][];
+        for (int i = 0; i < distances.length; i++) {
+            if (distances[i].length != distances.length) {
+                throw new IllegalArgumentException("distance matrix must be square");
+            }
+            this.distances[i] = distances[i].clone();
+        }
+        if (positions == null) {
+            this.positions = null;
+        } else {
+            this.positions = new double[positions.length][];
+            for (int i = 0; i < positions.length; i++) {
+                this.positions[i] = new double[]{positions[i][0], positions[i][1]};
+            }
+        }
+    }
+
+    /** Creates a view over the given buildings using rows of the raw distance file
+     *
+     * @param buildingNames buildings to include, with the start building first
+     * @param fileDistances mapping of building names to rows from the distance file
+     * @param fileIndices mapping of building names to indices in file rows
+     * @return view over the distances between the given buildings
+     */
+    public static distanceView of(List<String> buildingNames, Map<String, double[]> fileDistances,
+                                  Map<String, Integer> fileIndices) {
+        double[][] distances = new double[buildingNames.size()][buildingNames.size()];
+        for (int i = 0; i < buildingNames.size(); i++) {
+            double[] fileRow = fileDistances.get(buildingNames.get(i));
+            if (fileRow == null) {
+                throw new IllegalArgumentException("unknown building " + buildingNames.get(i));
+            }
+            for (int j = 0; j < buildingNames.size(); j++) {
+                distances[i][j] = fileRow[fileIndices.get(buildingNames.get(j))];
+            }
+        }
+        return new distanceView(buildingNames, distances);
+    }
+
+    /** Creates a view over the given buildings using rows of the raw distance file, positioning each building
+     * from its longitude/latitude in the coordinate file when every building has one
+     *
+     * @param buildingNames buildings to include, with the start building first
+     * @param fileDistances mapping of building names to rows from the distance file
+     * @param fileIndices mapping of building names to indices in file rows
+     * @param fileCoords mapping of building names to longitude/latitude pairs from the coordinate file, or null
+     * @return view over the distances and positions of the given buildings
+     */
+    public static distanceView of(List<String> buildingNames, Map<String, double[]> fileDistances,
+                                  Map<String, Integer> fileIndices, Map<String, double[]> fileCoords) {
+        distanceView view = of(buildingNames, fileDistances, fileIndices);
+        if (fileCoords == null) {
+            return view;
+        }
+        double[][] positions = new double[buildingNames.size()][];
+        for (int i = 0; i < buildingNames.size(); i++) {
+            double[] lonLat = fileCoords.get(buildingNames.get(i));
+            if (lonLat == null) {
+                return view;
+            }
+            positions[i] = project(lonLat);
+        }
+        return new distanceView(buildingNames, view.distances, positions);
+    }
+
+    /** Projects a longitude/latitude pair onto a local plane in meters, which is accurate at campus scale
+     *
+     * @param lonLat longitude and latitude in degrees
+     * @return x/y position in meters
+     */
+    public static double[] project(double[] lonLat) {
+        double y = Math.toRadians(lonLat[1]) * EARTH_RADIUS_METERS;
+        double x = Math.toRadians(lonLat[0]) * Math.cos(Math.toRadians(lonLat[1])) * EARTH_RADIUS_METERS;
+        return new double[]{x, y};
+    }
+
+    /** Returns the number of nodes in this view
+     *
+     * @return number of buildings
+     */
+    public int size() {
+        return distances.length;
+    }
+
+    /** Returns the distance travelled from one node to another
+     *
+     * @param from index of node to leave from
+     * @param to index of node to arrive at
+     * @return distance in meters
+     */
+    public double distance(int from, int to) {
+        return distances[from][to];
+    }
+
+    /** Returns the building name for a node
+     *
+     * @param node index of node
+     * @return building name
+     */
+    public String name(int node) {
+        return names.get(node);
+    }
+
+    /** Returns the building names for every node in index order
+     *
+     * @return unmodifiable list of building names
+     */
+    public List<String> names() {
+        return names;
+    }
+
+    /** Returns whether the view knows where each node is, for solvers that partition nodes geographically
+     *
+     * @return true if positions were given
+     */
+    public boolean hasPositions() {
+        return positions != null;
+    }
+
+    /** Returns the position of a node on a local plane
+     *
+     * @param node index of node
+     * @return x/y position in meters
+     */
+    public double[] position(int node) {
+        return positions[node].clone();
+    }
+
+    /** Returns the underlying matrix for solvers in this package, which must not modify it
+     *
+     * @return shared distance matrix
+     */
+    double[][] matrix() {
+        return distances;
+    }
+
+    /** Building names for each node */
+    private final List<String> names;
+
+    /** Distance matrix between nodes */
+    private final double[][] distances;
+
+    /** Position of each node on a local plane in meters, or null if unknown */
+    private final double[][] positions;
+
+    /** Earth radius used to project coordinates, the same as for the catalog's haversine distances */
+    private static final double EARTH_RADIUS_METERS = 6370120;
+}
@@ -0,0 +1,343 @@
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Exact solver that spreads the layered Held-Karp table across graphWorker processes over TCP.
+ * Each layer of fixed-size subsets is split into contiguous rank ranges, one per worker. Every round the
+ * coordinator sends the whole previous layer to each worker and gathers the slices of the next one, so only the
+ * boundary layer ever crosses the network, while each worker keeps its own slices of every layer for the final
+ * walk back from the cheapest full path.
+ * @author Brian Lin
+ */
+public class distributedSolver implements pathSolver {
+
+    /** Constructor for a coordinator using the given workers
+     *
+     * @param workers addresses of running graphWorker processes
+     */
+    public distributedSolver(List<InetSocketAddress> workers) {
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("at least one worker is required");
+        }
+        this.workers = new ArrayList<>(workers);
+    }
+
+    /** Parses a comma separated list of host:port worker addresses
+     *
+     * @param spec worker addresses such as localhost:9101,localhost:9102
+     * @return socket addresses
+     */
+    public static List<InetSocketAddress> parseWorkers(String spec) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String worker : spec.split(",")) {
+            int colon = worker.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("expected host:port but got " + worker);
+            }
+            addresses.add(new InetSocketAddress(worker.substring(0, colon), Integer.parseInt(worker.substring(colon + 1))));
+        }
+        return addresses;
+    }
+
+    /** Solves the view across the workers, failing with an UncheckedIOException if a worker cannot be reached
+     *
+     * @param view distances between the buildings to visit, starting from node 0
+     * @return optimal path visiting every node once
+     */
+    @Override
+    public pathResult solve(distanceView view) {
+        int n = view.size();
+        if (n <= 3) {
+            return heldKarpDelegate.solve(view);
+        }
+        int m = n - 1;
+        heldKarpSolver.checkSize(m);
+        double[][] dist = view.matrix();
+        subsetRanking ranking = new subsetRanking(m);
+        List<workerLink> links = new ArrayList<>();
+        try {
+            for (int i = 0; i < workers.size(); i++) {
+                workerLink link = new workerLink(workers.get(i));
+                links.add(link);
+                link.init(dist, i, workers.size());
+            }
+            double[] fromStart = new double[m];
+            for (int j = 0; j < m; j++) {
+                fromStart[j] = dist[0][j + 1];
+            }
+            double[] layer = fromStart;
+            for (int width = 2; width <= m; width++) {
+                try (solveMetrics.timer timer = solveMetrics.start("solve.distributed.layer").size(n)) {
+                    for (workerLink link : links) {
+                        link.sendLayer(width, layer);
+                    }
+                    double[] next = new double[ranking.count(width) * width];
+                    int offset = 0;
+                    for (workerLink link : links) {
+                        offset += link.receiveSlice(next, offset);
+                    }
+                    layer = next;
+                    timer.work((long) layer.length * links.size());
+                }
+            }
+            solveMetrics.count("solve.states", heldKarpSolver.statesEvaluated(m));
+            solveMetrics.timer timer = solveMetrics.start("solve.distributed.reconstruct").size(n);
+            try {
+                return new pathResult(view, reconstruct(dist, ranking, layer, fromStart, links, m));
+            } finally {
+                timer.close();
+            }
+        } catch (IOException excp) {
+            throw new UncheckedIOException("Distributed solve failed: " + excp.getMessage(), excp);
+        } finally {
+            for (workerLink link : links) {
+                link.close();
+            }
+        }
+    }
+
+    /** Walks back from the cheapest full path, fetching each predecessor row from the worker holding it
+     *
+     * @param dist distance matrix including the start node
+     * @param ranking ranking of subsets of the non-start nodes
+     * @param full last layer, holding the cost of the full path ending at each node
+     * @param fromStart first layer, the leg from the start to each node
+     * @param links connections to the workers
+     * @param m number of non-start nodes
+     * @return node indices in traversal order, starting with node 0
+     * @throws IOException if a worker cannot be reached
+     */
+    private static int[] reconstruct(double[][] dist, subsetRanking ranking, double[] full, double[] fromStart,
+                                     List<workerLink> links, int m) throws IOException {
+        int end = 0;
+        for (int j = 1; j < m; j++) {
+            if (full[j] < full[end]) {
+                end = j;
+            }
+        }
+        int[] nodes = new int[m + 1];
+        int mask = (1 << m) - 1;
+        double target = full[end];
+        for (int width = m; width > 1; width--) {
+            nodes[width] = end + 1;
+            mask ^= 1 << end;
+            double[] row;
+            if (width - 1 == 1) {
+                row = new double[]{fromStart[Integer.numberOfTrailingZeros(mask)]};
+            } else {
+                int rank = ranking.rank(mask);
+                row = links.get(owner(ranking.count(width - 1), links.size(), rank)).fetchRow(width - 1, rank);
+            }
+            int position = 0;
+            int parent = -1;
+            for (int prevs = mask; prevs != 0; prevs &= prevs - 1, position++) {
+                int prev = Integer.numberOfTrailingZeros(prevs);
+                if (row[position] + dist[prev + 1][end + 1] == target) {
+                    parent = prev;
+                    target = row[position];
+                    break;
+                }
+            }
+            end = parent;
+        }
+        nodes[1] = end + 1;
+        return nodes;
+    }
+
+    /** Returns the first rank of a worker's share of a layer; worker i holds ranks [start(i), start(i + 1))
+     *
+     * @param count number of subsets in the layer
+     * @param workerCount number of workers
+     * @param index worker index, or workerCount for the end of the layer
+     * @return first rank held by the worker
+     */
+    static int shareStart(int count, int workerCount, int index) {
+        return (int) ((long) count * index / workerCount);
+    }
+
+    /** Returns the worker holding a rank of a layer
+     *
+     * @param count number of subsets in the layer
+     * @param workerCount number of workers
+     * @param rank subset rank
+     * @return worker index
+     */
+    private static int owner(int count, int workerCount, int rank) {
+        int index = 0;
+        while (rank >= shareStart(count, workerCount, index + 1)) {
+            index++;
+        }
+        return index;
+    }
+
+    @Override
+    public String name() {
+        return "distributed";
+    }
+
+    @Override
+    public int maxSize() {
+        return heldKarpSolver.MAX_NODES + 1;
+    }
+
+    @Override
+    public boolean exact() {
+        return true;
+    }
+
+    /** Connection from the coordinator to one worker */
+    private static class workerLink implements Closeable {
+
+        /** Constructor that connects to a worker
+         *
+         * @param address worker address
+         * @throws IOException if the worker cannot be reached
+         */
+        workerLink(InetSocketAddress address) throws IOException {
+            this.socket = new Socket();
+            socket.connect(address, CONNECT_TIMEOUT_MILLIS);
+            socket.setTcpNoDelay(true);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_BYTES));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_BYTES));
+        }
+
+        /** Sends the instance and this worker's place among the workers
+         *
+         * @param dist distance matrix including the start node
+         * @param index worker index
+         * @param workerCount number of workers
+         * @throws IOException if the worker cannot be reached
+         */
+        void init(double[][] dist, int index, int workerCount) throws IOException {
+            out.writeByte(graphWorker.INIT);
+            out.writeInt(dist.length);
+            for (double[] row : dist) {
+                writeDoubles(out, row, row.length);
+            }
+            out.writeInt(index);
+            out.writeInt(workerCount);
+            out.flush();
+        }
+
+        /** Sends the whole previous layer and asks for this worker's slice of the next
+         *
+         * @param width subset size of the layer to compute
+         * @param previous whole layer of subsets of size width - 1
+         * @throws IOException if the worker cannot be reached
+         */
+        void sendLayer(int width, double[] previous) throws IOException {
+            out.writeByte(graphWorker.LAYER);
+            out.writeInt(width);
+            out.writeInt(previous.length);
+            writeDoubles(out, previous, previous.length);
+            out.flush();
+            solveMetrics.count("io.bytesWritten", 9L + 8L * previous.length);
+        }
+
+        /** Reads this worker's slice into the next layer at the given offset
+         *
+         * @param layer layer being gathered
+         * @param offset index of this worker's first entry in the layer
+         * @return number of entries read
+         * @throws IOException if the worker cannot be reached
+         */
+        int receiveSlice(double[] layer, int offset) throws IOException {
+            int length = in.readInt();
+            readDoubles(in, layer, offset, length);
+            solveMetrics.count("io.bytesRead", 4L + 8L * length);
+            return length;
+        }
+
+        /** Fetches one subset's row of a stored layer
+         *
+         * @param width subset size of the layer
+         * @param rank rank of the subset
+         * @return cost of the best path through the subset ending at each member
+         * @throws IOException if the worker cannot be reached
+         */
+        double[] fetchRow(int width, int rank) throws IOException {
+            out.writeByte(graphWorker.ROW);
+            out.writeInt(width);
+            out.writeInt(rank);
+            out.flush();
+            double[] row = new double[width];
+            readDoubles(in, row, 0, width);
+            return row;
+        }
+
+        /** Tells the worker the solve is finished and closes the connection */
+        @Override
+        public void close() {
+            try {
+                out.writeByte(graphWorker.CLOSE);
+                out.flush();
+            } catch (IOException excp) {
+                // the worker is already gone, which is all closing needs
+            }
+            try {
+                socket.close();
+            } catch (IOException excp) {
+                // nothing further to release
+            }
+        }
+
+        /** Socket connected to the worker */
+        private final Socket socket;
+
+        /** Buffered streams over the socket */
+        private final DataInputStream in;
+        private final DataOutputStream out;
+    }
+
+    /** Writes the first length entries of an array of doubles in bulk
+     *
+     * @param out stream to write to
+     * @param values values to write
+     * @param length number of values
+     * @throws IOException if writing fails
+     */
+    static void writeDoubles(DataOutputStream out, double[] values, int length) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_DOUBLES * Double.BYTES);
+        for (int start = 0; start < length; start += CHUNK_DOUBLES) {
+            int count = Math.min(CHUNK_DOUBLES, length - start);
+            chunk.clear();
+            chunk.asDoubleBuffer().put(values, start, count);
+            out.write(chunk.array(), 0, count * Double.BYTES);
+        }
+    }
+
+    /** Reads doubles in bulk into an array
+     *
+     * @param in stream to read from
+     * @param values array to fill
+     * @param offset index of the first value to fill
+     * @param length number of values
+     * @throws IOException if reading fails
+     */
+    static void readDoubles(DataInputStream in, double[] values, int offset, int length) throws IOException {
+        byte[] chunk = new byte[CHUNK_DOUBLES * Double.BYTES];
+        for (int start = 0; start < length; start += CHUNK_DOUBLES) {
+            int count = Math.min(CHUNK_DOUBLES, length - start);
+            in.readFully(chunk, 0, count * Double.BYTES);
+            ByteBuffer.wrap(chunk, 0, count * Double.BYTES).asDoubleBuffer().get(values, offset + start, count);
+        }
+    }
+
+    /** Addresses of the workers, in the order their shares of each layer are concatenated */
+    private final List<InetSocketAddress> workers;
+
+    /** Solver used for instances too small to distribute */
+    private static final pathSolver heldKarpDelegate = new heldKarpSolver();
+
+    /** Time allowed to connect to a worker */
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+
+    /** Size of the socket stream buffers */
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /** Number of doubles converted to bytes at a time */
+    private static final int CHUNK_DOUBLES = 8192;
+}
@@ -0,0 +1,16 @@
+/** Inner loop of the dense Held-Karp relaxation, kept behind an interface so that a SIMD implementation
+ * can be loaded when the runtime provides the vector module and a scalar loop used otherwise.
+ * @author Brian Lin
+ */
+public interface dpKernel {
+
+    /** Returns the minimum over every predecessor p in [0, m) of costs[rowStart + p] + legs[p]
+     *
+     * @param costs DP table
+     * @param rowStart index of the first entry of the predecessor subset's row
+     * @param legs distance from each non-start node to the node being relaxed
+     * @param m number of non-start nodes
+     * @return cheapest cost of reaching the node through the predecessor subset
+     */
+    double relax(double[] costs, int rowStart, double[] legs, int m);
+}
@@ -0,0 +1,396 @@
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/** Population based heuristic solver for sets of roughly 50 to 200 buildings that keeps every core busy.
+ * Independent islands of paths evolve in parallel on a ForkJoinPool by order crossover, random segment reversal
+ * and a 2-opt pass over each child, and after every epoch each island's best path replaces the worst path of the
+ * next island in a ring. The search stops at the time budget or once several epochs pass without improvement.
+ * One island is seeded with the Christofides path, which is never dropped, so that bound carries over.
+ * @author Brian Lin
+ */
+public class geneticSolver implements pathSolver {
+
+    /** Constructor for a solver with the default time budget */
+    public geneticSolver() {
+        this(DEFAULT_BUDGET_MILLIS);
+    }
+
+    /** Constructor for a solver stopping after the given time
+     *
+     * @param budgetMillis time budget for each solve in milliseconds
+     */
+    public geneticSolver(long budgetMillis) {
+        this.budgetMillis = budgetMillis;
+    }
+
+    @Override
+    public pathResult solve(distanceView view) {
+        int n = view.size();
+        if (n <= EXACT_SIZE) {
+            return heldKarpDelegate.solve(view);
+        }
+        double[][] dist = view.matrix();
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000;
+        int islandCount = Math.max(2, Runtime.getRuntime().availableProcessors());
+        boolean symmetric = localSearch.symmetric(dist);
+        SplittableRandom seeds = new SplittableRandom(SEED);
+        ForkJoinPool pool = new ForkJoinPool(islandCount);
+        try (solveMetrics.timer timer = solveMetrics.start("solve.genetic").size(n)) {
+            List<island> islands = new ArrayList<>();
+            for (int i = 0; i < islandCount; i++) {
+                islands.add(new island(dist, symmetric, seeds.split()));
+            }
+            islands.get(0).replaceWorst(localSearch.improve(dist, christofides.solve(view).nodes()));
+            int[] best = bestOf(islands);
+            double bestLength = length(dist, best);
+            int stalled = 0;
+            long steps = 0;
+            while (System.nanoTime() < deadline && stalled < STALL_EPOCHS) {
+                List<Callable<Integer>> epochs = new ArrayList<>();
+                for (island current : islands) {
+                    epochs.add(() -> current.evolve(STEPS_PER_EPOCH, deadline));
+                }
+                for (Future<Integer> epoch : pool.invokeAll(epochs)) {
+                    steps += epoch.get();
+                }
+                for (int i = 0; i < islandCount; i++) {
+                    islands.get((i + 1) % islandCount).replaceWorst(islands.get(i).best());
+                }
+                int[] epochBest = bestOf(islands);
+                double epochLength = length(dist, epochBest);
+                if (epochLength < bestLength - EPSILON) {
+                    best = epochBest;
+                    bestLength = epochLength;
+                    stalled = 0;
+                } else {
+                    stalled++;
+                }
+            }
+            timer.work(steps);
+            solveMetrics.count("solve.genetic.children", steps);
+            return new pathResult(view, best);
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while solving.", excp);
+        } catch (ExecutionException excp) {
+            throw new IllegalStateException(excp.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Returns the Christofides bound, which holds because the Christofides path seeds the population and the
+     * best path of the population is never replaced by a longer one
+     *
+     * @param view distances between the buildings to visit
+     * @return approximation bound
+     */
+    @Override
+    public double bound(distanceView view) {
+        return view.size() <= EXACT_SIZE ? 1 : christofides.bound(view);
+    }
+
+    /** Finds the shortest path held by any island
+     *
+     * @param islands islands to search
+     * @return copy of the shortest path
+     */
+    private static int[] bestOf(List<island> islands) {
+        int[] best = null;
+        double bestLength = Double.POSITIVE_INFINITY;
+        for (island current : islands) {
+            int[] candidate = current.best();
+            double candidateLength = current.bestLength();
+            if (candidateLength < bestLength) {
+                best = candidate;
+                bestLength = candidateLength;
+            }
+        }
+        return best;
+    }
+
+    /** Sums the legs of a path
+     *
+     * @param dist distance matrix
+     * @param path node indices in traversal order
+     * @return path length
+     */
+    static double length(double[][] dist, int[] path) {
+        double total = 0;
+        for (int i = 1; i < path.length; i++) {
+            total += dist[path[i - 1]][path[i]];
+        }
+        return total;
+    }
+
+    /** Population of paths evolved by a single thread at a time */
+    private static class island {
+
+        /** Constructor for an island seeded with randomized nearest neighbour paths
+         *
+         * @param dist distance matrix
+         * @param symmetric whether segment reversals keep their length, so that children get a 2-opt pass
+         * @param random source of randomness owned by this island
+         */
+        island(double[][] dist, boolean symmetric, SplittableRandom random) {
+            this.dist = dist;
+            this.symmetric = symmetric;
+            this.random = random;
+            this.paths = new int[POPULATION][];
+            this.lengths = new double[POPULATION];
+            for (int i = 0; i < POPULATION; i++) {
+                paths[i] = randomNearest();
+                if (symmetric) {
+                    localSearch.twoOpt(dist, paths[i]);
+                }
+                lengths[i] = length(dist, paths[i]);
+            }
+        }
+
+        /** Breeds children one at a time, each replacing the worst path when it is shorter and not a duplicate
+         *
+         * @param steps number of children to breed
+         * @param deadline time to stop at even if steps remain, from System.nanoTime
+         * @return number of children bred
+         */
+        int evolve(int steps, long deadline) {
+            int step = 0;
+            for (; step < steps && System.nanoTime() < deadline; step++) {
+                int[] child = orderCrossover(paths[tournament()], paths[tournament()]);
+                if (random.nextDouble() < MUTATION_RATE) {
+                    int from = 1 + random.nextInt(child.length - 1);
+                    int to = 1 + random.nextInt(child.length - 1);
+                    reverse(child, Math.min(from, to), Math.max(from, to));
+                }
+                if (symmetric) {
+                    localSearch.twoOpt(dist, child);
+                }
+                offer(child, length(dist, child));
+            }
+            return step;
+        }
+
+        /** Replaces the worst path with the given one if it is shorter and no path of the same length is held
+         *
+         * @param path candidate path, owned by this island afterwards
+         */
+        void replaceWorst(int[] path) {
+            offer(path, length(dist, path));
+        }
+
+        /** Returns a copy of the shortest path on this island
+         *
+         * @return shortest path
+         */
+        int[] best() {
+            return paths[bestIndex()].clone();
+        }
+
+        /** Returns the length of the shortest path on this island
+         *
+         * @return length in meters
+         */
+        double bestLength() {
+            return lengths[bestIndex()];
+        }
+
+        /** Puts a path in place of the worst one if it is shorter and not a duplicate
+         *
+         * @param path candidate path
+         * @param length its length
+         */
+        private void offer(int[] path, double length) {
+            int worst = 0;
+            for (int i = 0; i < POPULATION; i++) {
+                if (Math.abs(lengths[i] - length) < EPSILON) {
+                    return;
+                }
+                if (lengths[i] > lengths[worst]) {
+                    worst = i;
+                }
+            }
+            if (length < lengths[worst]) {
+                paths[worst] = path;
+                lengths[worst] = length;
+            }
+        }
+
+        /** Returns the index of the shortest path
+         *
+         * @return population index
+         */
+        private int bestIndex() {
+            int best = 0;
+            for (int i = 1; i < POPULATION; i++) {
+                if (lengths[i] < lengths[best]) {
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        /** Picks the shortest of a few random paths
+         *
+         * @return population index
+         */
+        private int tournament() {
+            int winner = random.nextInt(POPULATION);
+            for (int round = 1; round < TOURNAMENT_SIZE; round++) {
+                int challenger = random.nextInt(POPULATION);
+                if (lengths[challenger] < lengths[winner]) {
+                    winner = challenger;
+                }
+            }
+            return winner;
+        }
+
+        /** Copies a random slice of one parent into the child and fills the other positions with the remaining
+         * nodes in the order they follow the slice in the other parent, keeping the start in place
+         *
+         * @param first parent giving the slice
+         * @param second parent giving the order of the rest
+         * @return child path
+         */
+        private int[] orderCrossover(int[] first, int[] second) {
+            int n = first.length;
+            int from = 1 + random.nextInt(n - 1);
+            int to = 1 + random.nextInt(n - 1);
+            if (from > to) {
+                int swap = from;
+                from = to;
+                to = swap;
+            }
+            int[] child = new int[n];
+            boolean[] used = new boolean[n];
+            for (int i = from; i <= to; i++) {
+                child[i] = first[i];
+                used[first[i]] = true;
+            }
+            used[0] = true;
+            int position = to + 1 < n ? to + 1 : 1;
+            for (int offset = 0; offset < n - 1; offset++) {
+                int node = second[1 + (to + offset) % (n - 1)];
+                if (!used[node]) {
+                    used[node] = true;
+                    child[position] = node;
+                    position = position + 1 < n ? position + 1 : 1;
+                }
+            }
+            return child;
+        }
+
+        /** Builds a path from the start by moving to one of the few nearest unvisited nodes at random
+         *
+         * @return path visiting every node once
+         */
+        private int[] randomNearest() {
+            int n = dist.length;
+            int[] path = new int[n];
+            boolean[] visited = new boolean[n];
+            visited[0] = true;
+            int[] nearest = new int[NEAREST_CHOICES];
+            for (int position = 1; position < n; position++) {
+                int last = path[position - 1];
+                int found = 0;
+                for (int node = 0; node < n; node++) {
+                    int slot;
+                    if (visited[node]) {
+                        continue;
+                    } else if (found < NEAREST_CHOICES) {
+                        slot = found++;
+                    } else if (dist[last][node] < dist[last][nearest[NEAREST_CHOICES - 1]]) {
+                        slot = NEAREST_CHOICES - 1;
+                    } else {
+                        continue;
+                    }
+                    nearest[slot] = node;
+                    for (; slot > 0 && dist[last][nearest[slot]] < dist[last][nearest[slot - 1]]; slot--) {
+                        int swap = nearest[slot];
+                        nearest[slot] = nearest[slot - 1];
+                        nearest[slot - 1] = swap;
+                    }
+                }
+                int next = nearest[random.nextInt(found)];
+                path[position] = next;
+                visited[next] = true;
+            }
+            return path;
+        }
+
+        /** Reverses path[from..to] in place
+         *
+         * @param path node indices in traversal order
+         * @param from first position to reverse
+         * @param to last position to reverse
+         */
+        private static void reverse(int[] path, int from, int to) {
+            for (; from < to; from++, to--) {
+                int swap = path[from];
+                path[from] = path[to];
+                path[to] = swap;
+            }
+        }
+
+        /** Distance matrix */
+        private final double[][] dist;
+
+        /** Whether segment reversals keep their length */
+        private final boolean symmetric;
+
+        /** Source of randomness owned by this island */
+        private final SplittableRandom random;
+
+        /** Paths held by this island */
+        private final int[][] paths;
+
+        /** Length of each path held */
+        private final double[] lengths;
+    }
+
+    @Override
+    public String name() {
+        return "genetic";
+    }
+
+    /** Time budget for each solve in milliseconds */
+    private final long budgetMillis;
+
+    /** Default time budget for each solve in milliseconds */
+    static final long DEFAULT_BUDGET_MILLIS = 2000;
+
+    /** Largest set solved exactly instead */
+    private static final int EXACT_SIZE = 12;
+
+    /** Number of paths on each island */
+    private static final int POPULATION = 40;
+
+    /** Number of children each island breeds between migrations */
+    private static final int STEPS_PER_EPOCH = 200;
+
+    /** Number of epochs without improvement after which the search stops early */
+    private static final int STALL_EPOCHS = 8;
+
+    /** Number of paths compared when selecting a parent */
+    private static final int TOURNAMENT_SIZE = 3;
+
+    /** Chance of reversing a random segment of a child */
+    private static final double MUTATION_RATE = 0.3;
+
+    /** Number of nearest unvisited nodes to choose among when seeding */
+    private static final int NEAREST_CHOICES = 3;
+
+    /** Difference in length below which two paths count as the same */
+    private static final double EPSILON = 1e-9;
+
+    /** Seed for the islands' random sources, so that runs with the same budget and timing repeat */
+    private static final long SEED = 20240611L;
+
+    /** Solver for the seed path that the bound rests on */
+    private static final christofidesSolver christofides = new christofidesSolver();
+
+    /** Solver used for sets small enough to solve exactly */
+    private static final pathSolver heldKarpDelegate = new heldKarpSolver();
+}
@@ -0,0 +1,55 @@
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+/** Thin client forwarding commands to a running graphServer daemon.
+ * Kept free of graphManager and buildingGraph so that it starts without loading any graph data.
+ * @author Brian Lin
+ */
+public class graphClient {
+
+    /** Sends a command to the daemon and prints its response.
+     * Building names for add, update and solve are read from standard input one per line,
+     * starting with the building to start at and ending with STOP or end of input.
+     *
+     * @param port loopback port the daemon listens on
+     * @param command daemon command (add, update, remove, list or solve)
+     * @param name name of the building set, or null if the command does not need one
+     * @return whether the daemon accepted the request
+     * @throws IOException if the daemon cannot be reached
+     */
+    public static boolean send(int port, String command, String name) throws IOException {
+        StringBuilder body = new StringBuilder();
+        if (command.equals("add") || command.equals("update") || command.equals("solve")) {
+            Scanner scan = new Scanner(System.in);
+            while (scan.hasNextLine()) {
+                String input = scan.nextLine();
+                if (input.equals("STOP")) {
+                    break;
+                }
+                body.append(input).append('\n');
+            }
+        }
+        String query = name == null ? "" : "?name=" + URLEncoder.encode(name, StandardCharsets.UTF_8);
+        URL url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), port, "/" + command + query);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        int status = connection.getResponseCode();
+        InputStream responseStream = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(responseStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                System.out.println(line);
+            }
+        }
+        return status < 400;
+    }
+}
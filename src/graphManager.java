@@ -1,6 +1,11 @@
 import java.io.*;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /** Class containing overall information and mapping for all building sets created by the user.
  * @author Brian Lin
@@ -9,41 +14,173 @@ public class graphManager implements Serializable {
 
     /** Constructor for graphManager that sets up save file
      *
+     * @param graphDir directory storing building graphs created by user
      * @param saveName default name to save graphManager instance to
      */
-    public graphManager(String saveName) {
-        saveFile = Paths.get(Main.GRAPHDIR.getPath(), saveName).toFile();
+    public graphManager(File graphDir, String saveName) {
+        saveFile = Paths.get(graphDir.getPath(), saveName).toFile();
     }
 
     /** Reads a graphManager from disk under the given file name
      *
-     * @param saveName name of file to read from .graphs directory
+     * @param graphDir directory storing building graphs created by user
+     * @param saveName name of file to read from the graph directory
      * @return deserialized graphManager object
      */
-    public static graphManager readGraphManager(String saveName) {
-        File graphManagerFile = Paths.get(Main.GRAPHDIR.getPath(), saveName).toFile();
+    public static graphManager readGraphManager(File graphDir, String saveName) {
+        File graphManagerFile = Paths.get(graphDir.getPath(), saveName).toFile();
         if (graphManagerFile.exists()) {
-            return serializeUtils.readObject(graphManagerFile, graphManager.class);
+            graphManager graphData = serializeUtils.readObject(graphManagerFile, graphManager.class);
+            graphData.saveFile = graphManagerFile;
+            return graphData;
         }
         return null;
     }
 
-    /** Writes this graphManager to disk
+    /** Reads this graphManager's saved fields, leaving fields missing from stores written by earlier versions
+     * at their defaults, and sets up the state that is not saved
+     *
+     * @param in stream to read from
+     * @throws IOException if the stream cannot be read
+     * @throws ClassNotFoundException if a saved field's class cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        setLocks = new ConcurrentHashMap<>();
+        if (staleGraphs == null) {
+            staleGraphs = new HashSet<>();
+        }
+    }
+
+    /** Writes this graphManager's registry of building sets to disk, leaving the building tables untouched
      *
      * @throws IOException if error occurs when writing to disk
      */
-    public void writeGraphManager() throws IOException {
+    public synchronized void writeGraphManager() throws IOException {
         serializeUtils.writeObject(saveFile, this);
     }
 
+    /** Writes the building name, distance and coordinate tables to disk as separate files
+     * so that each can be loaded only by the commands that need it
+     *
+     * @throws IOException if error occurs when writing to disk
+     */
+    public void writeCatalog() throws IOException {
+        serializeUtils.writeObject(tableFile(NAMES_FILE), csvBuildingIndices);
+        serializeUtils.writeObject(tableFile(DISTANCES_FILE), csvRows);
+        serializeUtils.writeObject(tableFile(COORDINATES_FILE), csvCoordinates);
+    }
+
+    /** Checks whether every building table written by writeCatalog is on disk. Stores saved before the tables
+     * were split into their own files have none of them.
+     *
+     * @return if the name, distance and coordinate tables can all be loaded from disk
+     */
+    public boolean hasCatalog() {
+        return tableFile(NAMES_FILE).exists() && tableFile(DISTANCES_FILE).exists()
+                && tableFile(COORDINATES_FILE).exists();
+    }
+
+    /** Reads the building tables from the catalog csv files and writes them to disk
+     *
+     * @param distancesPath path to csv file with raw distance values
+     * @param coordinatesPath path to csv file with raw coordinate values
+     * @throws IOException if error occurs when writing to disk
+     */
+    public void rebuildCatalog(String distancesPath, String coordinatesPath) throws IOException {
+        readDistances(distancesPath);
+        readCoordinates(coordinatesPath);
+        writeCatalog();
+    }
+
+    /** Getter method for the mapping of building names to distance rows, reading it from disk on first use
+     *
+     * @return mapping of building names to distances from all other buildings
+     */
+    public synchronized HashMap<String, double[]> getDistanceRows() {
+        if (csvRows == null) {
+            csvRows = readTable(DISTANCES_FILE);
+        } else {
+            solveMetrics.count("catalog.tableHits", 1);
+        }
+        return csvRows;
+    }
+
+    /** Getter method for the mapping of building names to coordinates, reading it from disk on first use
+     *
+     * @return mapping of building names to latitude/longitude coordinates
+     */
+    public synchronized HashMap<String, double[]> getCoordinates() {
+        if (csvCoordinates == null) {
+            csvCoordinates = readTable(COORDINATES_FILE);
+        } else {
+            solveMetrics.count("catalog.tableHits", 1);
+        }
+        return csvCoordinates;
+    }
+
+    /** Getter method for the mapping of building names to indices in distance rows, reading it from disk on first use
+     *
+     * @return mapping of building names to indices from raw distance file
+     */
+    public synchronized HashMap<String, Integer> getBuildingIndices() {
+        if (csvBuildingIndices == null) {
+            csvBuildingIndices = readTable(NAMES_FILE);
+        } else {
+            solveMetrics.count("catalog.tableHits", 1);
+        }
+        return csvBuildingIndices;
+    }
+
+    /** Getter method for the index used to resolve typed building names, building it on first use
+     *
+     * @return index over every building name in the catalog
+     */
+    public synchronized nameIndex getNameIndex() {
+        if (buildingNameIndex == null) {
+            solveMetrics.timer timer = solveMetrics.start("catalog.indexNames");
+            try {
+                buildingNameIndex = new nameIndex(getBuildingIndices().keySet());
+            } finally {
+                timer.close();
+            }
+        }
+        return buildingNameIndex;
+    }
+
+    /** Reads one of the building tables written by writeCatalog
+     *
+     * @param tableName name of the table file in the graph directory
+     * @return deserialized table
+     */
+    @SuppressWarnings("unchecked")
+    private <V> HashMap<String, V> readTable(String tableName) {
+        solveMetrics.timer timer = solveMetrics.start("catalog.loadTable").work(tableFile(tableName).length());
+        try {
+            return serializeUtils.readObject(tableFile(tableName), HashMap.class);
+        } finally {
+            timer.close();
+        }
+    }
+
+    /** Returns the file that a building table is saved to
+     *
+     * @param tableName name of the table file
+     * @return file in the graph directory
+     */
+    private File tableFile(String tableName) {
+        return Paths.get(getGraphDir().getPath(), tableName).toFile();
+    }
+
     /** Reads csv file containing table of distances into mapping of
      * building names to distance from all other buildings in file
      * @param fileName name of file to read raw distances from
      */
     public void readDistances(String fileName){
-        csvRows = new HashMap<>();
-        csvBuildingIndices = new HashMap<>();
-        File distanceFile = Paths.get(Main.CWD.getPath(), fileName).toFile();
+        HashMap<String, double[]> fileRows = new HashMap<>();
+        HashMap<String, Integer> fileIndices = new HashMap<>();
+        File distanceFile = new File(fileName);
+        solveMetrics.timer timer = solveMetrics.start("catalog.readDistances").work(distanceFile.length());
         try {
             BufferedReader br = new BufferedReader(new FileReader(distanceFile));
             String[] buildingNames = br.readLine().split(",");
@@ -55,12 +192,19 @@ public class graphManager implements Serializable {
                 for (int i = 0; i < rowDistancesNum.length; i++) {
                     rowDistancesNum[i] = Double.parseDouble(rowDistances[i]);
                 }
-                csvRows.put(buildingNames[buildingIndex], rowDistancesNum);
-                csvBuildingIndices.put(buildingNames[buildingIndex], buildingIndex);
+                fileRows.put(buildingNames[buildingIndex], rowDistancesNum);
+                fileIndices.put(buildingNames[buildingIndex], buildingIndex);
                 buildingIndex++;
             }
         } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            timer.close();
+        }
+        synchronized (this) {
+            csvRows = fileRows;
+            csvBuildingIndices = fileIndices;
+            buildingNameIndex = null;
         }
     }
 
@@ -69,18 +213,24 @@ public class graphManager implements Serializable {
      * @param fileName name of file to read raw coordinates from
      */
     public void readCoordinates(String fileName) {
-        csvCoordinates = new HashMap<>();
-        File distanceFile = Paths.get(Main.CWD.getPath(), fileName).toFile();
+        HashMap<String, double[]> fileCoordinates = new HashMap<>();
+        File distanceFile = new File(fileName);
+        solveMetrics.timer timer = solveMetrics.start("catalog.readCoordinates").work(distanceFile.length());
         try {
             BufferedReader br = new BufferedReader(new FileReader(distanceFile));
             String row = "";
             while ((row = br.readLine()) != null) {
                 String[] rowCoordinates = row.split(",");
                 double[] coordinatePair = new double[]{Double.parseDouble(rowCoordinates[1]), Double.parseDouble(rowCoordinates[2])};
-                csvCoordinates.put(rowCoordinates[0], coordinatePair);
+                fileCoordinates.put(rowCoordinates[0], coordinatePair);
             }
         } catch (IOException e) {
                 e.printStackTrace();
+        } finally {
+            timer.close();
+        }
+        synchronized (this) {
+            csvCoordinates = fileCoordinates;
         }
     }
 
@@ -90,7 +240,7 @@ public class graphManager implements Serializable {
      * @return if building name found in raw distances file
      */
     public boolean checkBuilding(String buildingName) {
-        return csvRows.containsKey(buildingName);
+        return getBuildingIndices().containsKey(buildingName);
     }
 
     /** Check if the given buildingGraph has been created.
@@ -107,7 +257,7 @@ public class graphManager implements Serializable {
      * @param graphName name of graph to add
      * @param graphID hashcode of new graph
      */
-    public void addGraph(String graphName, String graphID) {
+    public synchronized void addGraph(String graphName, String graphID) {
         graphSet.put(graphName, graphID);
     }
 
@@ -116,10 +266,11 @@ public class graphManager implements Serializable {
      *
      * @param graphName name of graph to remove
      */
-    public void removeGraph(String graphName) {
-        File graphFile = Paths.get(Main.GRAPHDIR.getPath(), graphSet.get(graphName)).toFile();
+    public synchronized void removeGraph(String graphName) {
+        File graphFile = Paths.get(getGraphDir().getPath(), graphSet.get(graphName)).toFile();
         graphFile.delete();
         graphSet.remove(graphName);
+        clearStale(graphName);
     }
 
     /** Returns hashcode for the graph with given name, assuming there exists a graph with that name
@@ -139,14 +290,99 @@ public class graphManager implements Serializable {
         return graphSet.size();
     }
 
+    /** Returns the names of every graph tracked by this graphManager
+     *
+     * @return copy of the tracked graph names
+     */
+    public List<String> graphNames() {
+        return new ArrayList<>(graphSet.keySet());
+    }
+
+    /** Returns the lock that serializes modifications to a single building set within this process
+     *
+     * @param graphName name of the building set
+     * @return lock object for the set
+     */
+    public Object lockFor(String graphName) {
+        return setLocks.computeIfAbsent(graphName, key -> new Object());
+    }
+
+    /** Returns the building sets whose cached paths were solved against an earlier catalog and still need
+     * re-solving, kept on disk so that re-solves cut short by the program exiting are finished later
+     *
+     * @return copy of the names of stale building sets
+     */
+    public synchronized List<String> staleGraphs() {
+        return new ArrayList<>(staleGraphs);
+    }
+
+    /** Records building sets whose cached paths were solved against an earlier catalog
+     *
+     * @param graphNames names of building sets to re-solve
+     */
+    public synchronized void markStale(Collection<String> graphNames) {
+        staleGraphs.addAll(graphNames);
+    }
+
+    /** Records that a building set no longer needs re-solving
+     *
+     * @param graphName name of the re-solved or removed building set
+     */
+    public synchronized void clearStale(String graphName) {
+        staleGraphs.remove(graphName);
+    }
+
+    /** Getter method for the version of the building catalog that the saved tables were read from
+     *
+     * @return content hash of the distance and coordinate csv files, or null if not yet recorded
+     */
+    public String getCatalogHash() {
+        return catalogHash;
+    }
+
+    /** Getter method for the size and modification time recorded for the catalog csv files
+     *
+     * @return recorded file stamp, or null if not yet recorded
+     */
+    public String getCatalogStamp() {
+        return catalogStamp;
+    }
+
+    /** Records the version of the building catalog that the saved tables were read from
+     *
+     * @param hash content hash of the distance and coordinate csv files
+     * @param stamp size and modification time of the csv files
+     */
+    public void setCatalogVersion(String hash, String stamp) {
+        this.catalogHash = hash;
+        this.catalogStamp = stamp;
+    }
+
     /** Displays every graph tracked by this graphManager using overridden toString method
      */
     public void displayGraphs() {
+        System.out.print(listGraphs());
+    }
+
+    /** Builds the listing of every graph tracked by this graphManager using overridden toString method
+     *
+     * @return formatted string containing each tracked graph followed by a blank line
+     */
+    public String listGraphs() {
+        StringBuilder graphList = new StringBuilder();
         for (String graphName : graphSet.keySet()) {
-            buildingGraph curr = buildingGraph.readGraph(graphSet.get(graphName));
-            System.out.println(curr);
-            System.out.println();
+            buildingGraph curr = buildingGraph.readGraph(getGraphDir(), graphSet.get(graphName));
+            graphList.append(curr).append(System.lineSeparator()).append(System.lineSeparator());
         }
+        return graphList.toString();
+    }
+
+    /** Returns the directory that this graphManager and its building graphs are saved in
+     *
+     * @return directory storing building graphs created by user
+     */
+    public File getGraphDir() {
+        return saveFile.getParentFile();
     }
 
     /** Sets the graphic status for displaying optimal paths
@@ -157,20 +393,64 @@ public class graphManager implements Serializable {
         this.graphic = status;
     }
 
+    /** Getter method for how far apart buildings may be and still be merged into one node before solving
+     *
+     * @return largest difference in meters between the distances of merged buildings, negative to merge none
+     */
+    public double getCollapseTolerance() {
+        return collapseTolerance;
+    }
+
+    /** Sets how far apart buildings may be and still be merged into one node before solving
+     *
+     * @param tolerance largest difference in meters between the distances of merged buildings, negative to merge none
+     */
+    public void setCollapseTolerance(double tolerance) {
+        this.collapseTolerance = tolerance;
+    }
+
+    /** Serialization version of the first saved graphManager, kept so that stores written by earlier versions still load */
+    private static final long serialVersionUID = 4837915133426861081L;
+
     /** Mapping of building names to distances from all other buildings
-     * from distance matrix csv file */
-    public HashMap<String, double[]> csvRows = new HashMap<>();
+     * from distance matrix csv file, loaded from its own file on first use */
+    private transient HashMap<String, double[]> csvRows = new HashMap<>();
 
     /** Mapping of building names to their latitude/longitude coordinates
-     * from coordinate csv file */
-    public HashMap<String, double[]> csvCoordinates = new HashMap<>();
+     * from coordinate csv file, loaded from its own file on first use */
+    private transient HashMap<String, double[]> csvCoordinates = new HashMap<>();
+
+    /** Mapping between building names and indices from raw distance file, loaded from its own file on first use */
+    private transient HashMap<String, Integer> csvBuildingIndices = new HashMap<>();
+
+    /** Index over building names for resolving typed names, built from csvBuildingIndices on first use */
+    private transient nameIndex buildingNameIndex;
+
+    /** File name for the saved mapping of building names to indices */
+    private static final String NAMES_FILE = "catalogNames";
 
-    /** Mapping between building names and indices from raw distance file */
-    public HashMap<String, Integer> csvBuildingIndices = new HashMap<>();
+    /** File name for the saved mapping of building names to distance rows */
+    private static final String DISTANCES_FILE = "catalogDistances";
+
+    /** File name for the saved mapping of building names to coordinates */
+    private static final String COORDINATES_FILE = "catalogCoordinates";
 
     /** Mapping of building graph names to hash code for lookups */
     private HashMap<String, String> graphSet = new HashMap<>();
 
+    /** Content hash of the catalog csv files that the saved tables were read from */
+    private String catalogHash;
+
+    /** Size and modification time of the catalog csv files when they were last hashed,
+     * used to skip hashing at startup when the files are untouched */
+    private String catalogStamp;
+
+    /** Names of building sets whose cached paths were solved against an earlier catalog and still need re-solving */
+    private HashSet<String> staleGraphs = new HashSet<>();
+
+    /** Per-set locks serializing modifications to the same building set within this process */
+    private transient ConcurrentHashMap<String, Object> setLocks = new ConcurrentHashMap<>();
+
     /** File object to save graph data to on disk */
     private File saveFile;
 
@@ -178,4 +458,8 @@ public class graphManager implements Serializable {
      * True: graphical output, False: text output
      */
     public boolean graphic = true;
+
+    /** Largest difference in meters between the distances of buildings merged into one node before solving,
+     * negative to merge none. The default of 0 merges only buildings with identical distances. */
+    private double collapseTolerance;
 }
@@ -0,0 +1,378 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** Long-running daemon that keeps the graphManager and solver loaded in one process and serves
+ * add/update/remove/list/solve requests over loopback HTTP, along with a stats endpoint for its metrics.
+ * Solves from every request share one solveScheduler, so that large exact solves cannot hold up small ones.
+ * Request bodies hold one building name per line, with the first line used as the starting building.
+ * @author Brian Lin
+ */
+public class graphServer {
+
+    /** Constructor for a daemon serving requests against the given graphManager
+     *
+     * @param graphData graphManager instance already loaded from disk
+     * @param port loopback port to listen on
+     */
+    public graphServer(graphManager graphData, int port) {
+        this.graphData = graphData;
+        this.port = port;
+    }
+
+    /** Starts listening for requests, handling each on its own virtual thread when the runtime supports them
+     *
+     * @throws IOException if the server socket cannot be bound
+     */
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/add", exchange -> respond(exchange, this::addRequest, true));
+        server.createContext("/update", exchange -> respond(exchange, this::updateRequest, true));
+        server.createContext("/remove", exchange -> respond(exchange, this::removeRequest, true));
+        server.createContext("/list", exchange -> respond(exchange, this::listRequest, false));
+        server.createContext("/solve", exchange -> respond(exchange, this::solveRequest, false));
+        server.createContext("/stats", exchange -> respond(exchange, this::statsRequest, false));
+        server.setExecutor(requestExecutor());
+        server.start();
+        System.out.println(String.format("Daemon listening on %s:%d", InetAddress.getLoopbackAddress().getHostAddress(),
+                server.getAddress().getPort()));
+    }
+
+    /** Stops the server, waiting up to a second for in-flight requests to finish */
+    public void stop() {
+        server.stop(1);
+        scheduler.shutdown();
+    }
+
+    /** Returns the scheduler that every solve requested of this daemon is queued on, for other solves in the
+     * daemon's process to share
+     *
+     * @return scheduler of this daemon
+     */
+    public solveScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /** Creates the executor used to handle requests, preferring one virtual thread per request and falling
+     * back to a cached platform thread pool on runtimes without virtual threads
+     *
+     * @return executor for request handling
+     */
+    static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException excp) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /** Handler for add requests that creates and solves a new building set
+     *
+     * @param name name of the building set
+     * @param buildingList requested buildings with the start building first
+     * @return response to send back to the client
+     * @throws IOException if graph saving encounters error
+     * @throws InterruptedException if interrupted while waiting for the solve
+     */
+    private response addRequest(String name, List<String> buildingList) throws IOException, InterruptedException {
+        String invalid = validateBuildings(buildingList);
+        if (invalid != null) {
+            return invalid(invalid);
+        }
+        synchronized (graphData.lockFor(name)) {
+            synchronized (graphData) {
+                if (graphData.checkGraph(name)) {
+                    return invalid("A graph with this name already exists.");
+                }
+            }
+            buildingGraph newGraph = new buildingGraph(buildingList, name, graphData.getDistanceRows(),
+                    graphData.getBuildingIndices(), graphData.getCoordinates(), false);
+            newGraph.setCollapseTolerance(graphData.getCollapseTolerance());
+            String path = newGraph.solvePath(scheduler);
+            newGraph.writeGraph(graphData.getGraphDir());
+            synchronized (graphData) {
+                graphData.addGraph(name, newGraph.getGraphID());
+                graphData.writeGraphManager();
+            }
+            return new response(200, path);
+        }
+    }
+
+    /** Handler for update requests that replaces the buildings of an existing set and re-solves it
+     *
+     * @param name name of the building set
+     * @param buildingList requested buildings with the start building first
+     * @return response to send back to the client
+     * @throws IOException if graph saving encounters error
+     * @throws InterruptedException if interrupted while waiting for the solve
+     */
+    private response updateRequest(String name, List<String> buildingList) throws IOException, InterruptedException {
+        String invalid = validateBuildings(buildingList);
+        if (invalid != null) {
+            return invalid(invalid);
+        }
+        synchronized (graphData.lockFor(name)) {
+            String graphID = registeredGraph(name);
+            if (graphID == null) {
+                return missing();
+            }
+            buildingGraph updateGraph = buildingGraph.readGraph(graphData.getGraphDir(), graphID);
+            for (int buildingIndex = updateGraph.numBuildings() - 1; buildingIndex >= 0; buildingIndex--) {
+                String building = updateGraph.getBuilding(buildingIndex);
+                if (!buildingList.contains(building)) {
+                    updateGraph.removeBuilding(building);
+                }
+            }
+            for (String building : buildingList) {
+                if (!updateGraph.checkBuilding(building)) {
+                    updateGraph.addBuilding(building);
+                }
+            }
+            String start = buildingList.get(0);
+            if (!updateGraph.getBuilding(0).equals(start)) {
+                updateGraph.setBuilding(updateGraph.getBuilding(0), updateGraph.getBuildingIndex(start));
+                updateGraph.setBuilding(start, 0);
+            }
+            updateGraph.updateBuildingGraph(graphData.getDistanceRows(), graphData.getBuildingIndices(),
+                    graphData.getCoordinates(), false);
+            updateGraph.setCollapseTolerance(graphData.getCollapseTolerance());
+            String path = updateGraph.solvePath(scheduler);
+            updateGraph.writeGraph(graphData.getGraphDir());
+            return new response(200, path);
+        }
+    }
+
+    /** Handler for remove requests
+     *
+     * @param name name of the building set
+     * @param buildingList unused request body
+     * @return response to send back to the client
+     * @throws IOException if graph saving encounters error
+     */
+    private response removeRequest(String name, List<String> buildingList) throws IOException {
+        synchronized (graphData.lockFor(name)) {
+            synchronized (graphData) {
+                if (!graphData.checkGraph(name)) {
+                    return missing();
+                }
+                graphData.removeGraph(name);
+                graphData.writeGraphManager();
+            }
+            return new response(200, String.format("Building set %s removed successfully.", name));
+        }
+    }
+
+    /** Handler for list requests
+     *
+     * @param name unused set name
+     * @param buildingList unused request body
+     * @return response to send back to the client
+     */
+    private response listRequest(String name, List<String> buildingList) {
+        synchronized (graphData) {
+            if (graphData.numGraphs() == 0) {
+                return new response(200, "No building sets have been created yet.");
+            }
+            return new response(200, graphData.listGraphs());
+        }
+    }
+
+    /** Handler for stats requests, returning the timings and counters recorded since the daemon started
+     *
+     * @param name unused set name
+     * @param buildingList unused request body
+     * @return response to send back to the client
+     */
+    private response statsRequest(String name, List<String> buildingList) {
+        return new response(200, solveMetrics.snapshot());
+    }
+
+    /** Handler for solve requests, which solve a saved set when given a name or otherwise
+     * solve the buildings in the request body without saving them
+     *
+     * @param name name of the building set, or null for an unsaved solve
+     * @param buildingList requested buildings with the start building first
+     * @return response to send back to the client
+     * @throws IOException if graph construction encounters error
+     * @throws InterruptedException if interrupted while waiting for the solve
+     */
+    private response solveRequest(String name, List<String> buildingList) throws IOException, InterruptedException {
+        if (name != null && buildingList.isEmpty()) {
+            String graphID = registeredGraph(name);
+            if (graphID == null) {
+                return missing();
+            }
+            buildingGraph savedGraph = buildingGraph.readGraph(graphData.getGraphDir(), graphID);
+            savedGraph.setCollapseTolerance(graphData.getCollapseTolerance());
+            return new response(200, savedGraph.solvePath(scheduler));
+        }
+        String invalid = validateBuildings(buildingList);
+        if (invalid != null) {
+            return invalid(invalid);
+        }
+        buildingGraph solveGraph = new buildingGraph(buildingList, name == null ? "request" : name,
+                graphData.getDistanceRows(), graphData.getBuildingIndices(), graphData.getCoordinates(), false);
+        solveGraph.setCollapseTolerance(graphData.getCollapseTolerance());
+        return new response(200, solveGraph.solvePath(scheduler));
+    }
+
+    /** Checks that a requested building list is non-empty, known and free of duplicates
+     *
+     * @param buildingList requested buildings
+     * @return error message, or null if the list is valid
+     */
+    private String validateBuildings(List<String> buildingList) {
+        if (buildingList.isEmpty()) {
+            return "No buildings given.";
+        }
+        Set<String> seen = new HashSet<>();
+        for (String building : buildingList) {
+            if (!graphData.checkBuilding(building) || !seen.add(building)) {
+                return String.format("Invalid building name: %s", building);
+            }
+        }
+        return null;
+    }
+
+    /** Looks up the id of a saved graph while holding the registry lock
+     *
+     * @param name name of the building set
+     * @return id of the graph, or null if no graph with that name exists
+     */
+    private String registeredGraph(String name) {
+        synchronized (graphData) {
+            return graphData.checkGraph(name) ? graphData.getGraph(name) : null;
+        }
+    }
+
+    /** Parses an exchange, runs the given handler and writes its response as plain text
+     *
+     * @param exchange HTTP exchange for the request
+     * @param handler handler for the requested command
+     * @param nameRequired whether the command must be given a building set name
+     * @throws IOException if the response cannot be written
+     */
+    private void respond(HttpExchange exchange, requestHandler handler, boolean nameRequired) throws IOException {
+        response result;
+        try {
+            String name = queryParameter(exchange.getRequestURI().getRawQuery(), "name");
+            List<String> buildingList = readBuildings(exchange.getRequestBody());
+            if (name == null && nameRequired) {
+                result = invalid("Invalid command format.");
+            } else {
+                result = handler.handle(name, buildingList);
+            }
+        } catch (IOException | RuntimeException excp) {
+            result = new response(500, String.valueOf(excp.getMessage()));
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            result = new response(503, "Interrupted while waiting for the solve.");
+        }
+        byte[] body = (result.text + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(result.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /** Reads the building names in a request body, one per line
+     *
+     * @param body request body stream
+     * @return non-empty trimmed lines of the body
+     * @throws IOException if the body cannot be read
+     */
+    private static List<String> readBuildings(InputStream body) throws IOException {
+        List<String> buildingList = new ArrayList<>();
+        BufferedReader br = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = br.readLine()) != null) {
+            if (!line.trim().isEmpty()) {
+                buildingList.add(line.trim());
+            }
+        }
+        return buildingList;
+    }
+
+    /** Extracts and decodes a single parameter from a raw query string
+     *
+     * @param query raw query string of the request URI
+     * @param key name of the parameter
+     * @return decoded parameter value, or null if absent
+     */
+    static String queryParameter(String query, String key) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int split = pair.indexOf('=');
+            if (split > 0 && pair.substring(0, split).equals(key)) {
+                return URLDecoder.decode(pair.substring(split + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /** Creates a client error response
+     *
+     * @param message message explaining the error
+     * @return response with status 400
+     */
+    private static response invalid(String message) {
+        return new response(400, message);
+    }
+
+    /** Creates the response for requests naming an unknown building set
+     *
+     * @return response with status 404
+     */
+    private static response missing() {
+        return new response(404, "No graph with this name found.");
+    }
+
+    /** Handler for a single daemon command */
+    private interface requestHandler {
+        response handle(String name, List<String> buildingList) throws IOException, InterruptedException;
+    }
+
+    /** Status code and text body returned for a request */
+    private static class response {
+        response(int status, String text) {
+            this.status = status;
+            this.text = text;
+        }
+
+        /** HTTP status code */
+        final int status;
+
+        /** Plain text body */
+        final String text;
+    }
+
+    /** Default loopback port for the daemon */
+    public static final int DEFAULT_PORT = 8642;
+
+    /** graphManager instance shared by every request, also used as the registry lock */
+    private final graphManager graphData;
+
+    /** Loopback port to listen on */
+    private final int port;
+
+    /** Scheduler that every solve requested of this daemon is queued on */
+    private final solveScheduler scheduler = new solveScheduler();
+
+    /** Underlying HTTP server */
+    private HttpServer server;
+}
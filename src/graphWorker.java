@@ -0,0 +1,154 @@
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Worker process for distributedSolver, computing its share of each layer of the layered Held-Karp table.
+ * Serves one coordinator connection at a time over a small binary protocol: INIT with the distance matrix and
+ * this worker's index, LAYER with the whole previous layer (answered with this worker's slice of the next),
+ * ROW to read back one stored subset row during reconstruction, and CLOSE when the solve is done.
+ * @author Brian Lin
+ */
+public class graphWorker {
+
+    /** Constructor for a worker listening on the given port
+     *
+     * @param port TCP port to listen on
+     */
+    public graphWorker(int port) {
+        this.port = port;
+    }
+
+    /** Accepts coordinator connections one after another until the process is stopped
+     *
+     * @throws IOException if the port cannot be opened
+     */
+    public void serve() throws IOException {
+        try (ServerSocket server = new ServerSocket(port)) {
+            System.out.println(String.format("Worker listening on port %d.", server.getLocalPort()));
+            while (true) {
+                try (Socket socket = server.accept()) {
+                    socket.setTcpNoDelay(true);
+                    handle(new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_BYTES)),
+                            new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_BYTES)));
+                } catch (IOException excp) {
+                    System.out.println("Coordinator connection lost: " + excp.getMessage());
+                }
+            }
+        }
+    }
+
+    /** Answers requests from one coordinator until it closes the solve
+     *
+     * @param in stream of requests
+     * @param out stream of replies
+     * @throws IOException if the connection fails
+     */
+    private void handle(DataInputStream in, DataOutputStream out) throws IOException {
+        slices.clear();
+        while (true) {
+            byte request;
+            try {
+                request = in.readByte();
+            } catch (EOFException excp) {
+                return;
+            }
+            switch (request) {
+                case INIT:
+                    readInstance(in);
+                    break;
+                case LAYER:
+                    int width = in.readInt();
+                    double[] previous = new double[in.readInt()];
+                    distributedSolver.readDoubles(in, previous, 0, previous.length);
+                    double[] slice;
+                    try (solveMetrics.timer timer = solveMetrics.start("worker.layer").size(m + 1)) {
+                        int count = ranking.count(width);
+                        slice = bidirectionalSolver.fillLayer(ranking, width, previous, legs,
+                                distributedSolver.shareStart(count, workerCount, index),
+                                distributedSolver.shareStart(count, workerCount, index + 1));
+                        timer.work(slice.length);
+                    }
+                    slices.put(width, slice);
+                    out.writeInt(slice.length);
+                    distributedSolver.writeDoubles(out, slice, slice.length);
+                    out.flush();
+                    break;
+                case ROW:
+                    int rowWidth = in.readInt();
+                    int rank = in.readInt();
+                    int offset = (rank - distributedSolver.shareStart(ranking.count(rowWidth), workerCount, index)) * rowWidth;
+                    distributedSolver.writeDoubles(out, Arrays.copyOfRange(slices.get(rowWidth), offset, offset + rowWidth), rowWidth);
+                    out.flush();
+                    break;
+                case CLOSE:
+                    slices.clear();
+                    return;
+                default:
+                    throw new IOException("unknown request " + request);
+            }
+        }
+    }
+
+    /** Reads the distance matrix and this worker's place among the workers for a new solve
+     *
+     * @param in stream of requests
+     * @throws IOException if the connection fails
+     */
+    private void readInstance(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        double[][] dist = new double[n][n];
+        for (double[] row : dist) {
+            distributedSolver.readDoubles(in, row, 0, n);
+        }
+        this.index = in.readInt();
+        this.workerCount = in.readInt();
+        this.m = n - 1;
+        this.ranking = new subsetRanking(m);
+        this.legs = new double[m][m];
+        for (int j = 0; j < m; j++) {
+            for (int i = 0; i < m; i++) {
+                legs[j][i] = dist[i + 1][j + 1];
+            }
+        }
+        slices.clear();
+    }
+
+    /** Request starting a solve with the distance matrix */
+    static final byte INIT = 1;
+
+    /** Request computing this worker's slice of the next layer */
+    static final byte LAYER = 2;
+
+    /** Request reading one subset row of a stored layer */
+    static final byte ROW = 3;
+
+    /** Request ending the solve */
+    static final byte CLOSE = 4;
+
+    /** Port the worker listens on */
+    private final int port;
+
+    /** This worker's slices of every layer computed so far, keyed by subset size */
+    private final Map<Integer, double[]> slices = new HashMap<>();
+
+    /** Ranking of subsets of the non-start nodes of the current solve */
+    private subsetRanking ranking;
+
+    /** Distances into each non-start node, legs[j][i] being the leg from node i to node j */
+    private double[][] legs;
+
+    /** Number of non-start nodes of the current solve */
+    private int m;
+
+    /** This worker's index among the workers of the current solve */
+    private int index;
+
+    /** Number of workers in the current solve */
+    private int workerCount;
+
+    /** Size of the socket stream buffers */
+    private static final int BUFFER_BYTES = 1 << 16;
+}
@@ -0,0 +1,201 @@
+import java.util.Arrays;
+
+/** Exact solver using the Held-Karp dynamic program over subsets of buildings.
+ * Subsets of the non-start nodes are stored as bitmasks, and the table holds one row per subset with the cost of
+ * the best path through that subset ending at each member, so that the predecessors of a state are contiguous.
+ * @author Brian Lin
+ */
+public class heldKarpSolver implements pathSolver {
+
+    /** Calculates the minimum path by filling the table from smaller to larger subsets, then
+     * walks back from the cheapest full path to recover the traversal order
+     *
+     * @param view distances between the buildings to visit, starting from node 0
+     * @return optimal path visiting every node once
+     */
+    @Override
+    public pathResult solve(distanceView view) {
+        int n = view.size();
+        if (n <= 2) {
+            int[] trivial = new int[n];
+            for (int i = 0; i < n; i++) {
+                trivial[i] = i;
+            }
+            return new pathResult(view, trivial);
+        }
+        int m = n - 1;
+        double[][] dist = view.matrix();
+        double[] costs;
+        try (solveMetrics.timer timer = solveMetrics.start("solve.fill").size(n)) {
+            costs = fillTable(dist, m);
+            timer.work(statesEvaluated(m));
+        }
+        solveMetrics.count("solve.states", statesEvaluated(m));
+        solveMetrics.timer timer = solveMetrics.start("solve.reconstruct").size(n);
+        try {
+            return new pathResult(view, reconstruct(dist, costs, m));
+        } finally {
+            timer.close();
+        }
+    }
+
+    /** Fills the DP table where entry (mask * m + j) holds the cost of the best path from the start through
+     * exactly the nodes in mask, ending at node j + 1. Entries for nodes outside mask stay infinite.
+     *
+     * @param dist distance matrix including the start node
+     * @param m number of non-start nodes
+     * @return filled DP table
+     */
+    static double[] fillTable(double[][] dist, int m) {
+        checkSize(m);
+        double[][] transposed = transpose(dist);
+        int subsets = 1 << m;
+        double[] costs = new double[subsets * m];
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+        for (int j = 0; j < m; j++) {
+            costs[(1 << j) * m + j] = dist[0][j + 1];
+        }
+        long pending = m;
+        for (int mask = 1; mask < subsets; mask++) {
+            if ((mask & (PROGRESS_STRIDE - 1)) == 0) {
+                solveMetrics.count(PROGRESS_COUNTER, pending);
+                pending = 0;
+            }
+            if ((mask & (mask - 1)) == 0) {
+                continue;
+            }
+            pending += Integer.bitCount(mask);
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                int curr = Integer.numberOfTrailingZeros(rest);
+                int prevRow = (mask ^ (1 << curr)) * m;
+                double[] toCurr = transposed[curr + 1];
+                double best = Double.POSITIVE_INFINITY;
+                for (int prevs = mask ^ (1 << curr); prevs != 0; prevs &= prevs - 1) {
+                    int prev = Integer.numberOfTrailingZeros(prevs);
+                    double candidate = costs[prevRow + prev] + toCurr[prev + 1];
+                    if (candidate < best) {
+                        best = candidate;
+                    }
+                }
+                costs[mask * m + curr] = best;
+            }
+        }
+        solveMetrics.count(PROGRESS_COUNTER, pending);
+        return costs;
+    }
+
+    /** Recovers the optimal traversal order from a filled table by finding, at each step, the predecessor
+     * whose cost plus the connecting leg reproduces the current entry
+     *
+     * @param dist distance matrix including the start node
+     * @param costs filled DP table
+     * @param m number of non-start nodes
+     * @return node indices in traversal order, starting with node 0
+     */
+    static int[] reconstruct(double[][] dist, double[] costs, int m) {
+        int full = (1 << m) - 1;
+        int end = 0;
+        for (int j = 1; j < m; j++) {
+            if (costs[full * m + j] < costs[full * m + end]) {
+                end = j;
+            }
+        }
+        return reconstruct(dist, costs, m, end);
+    }
+
+    /** Recovers the optimal traversal order from a filled table for the path ending at a given node
+     *
+     * @param dist distance matrix including the start node
+     * @param costs filled DP table
+     * @param m number of non-start nodes
+     * @param end non-start node the path ends at, counted from 0
+     * @return node indices in traversal order, starting with node 0 and ending with node end + 1
+     */
+    static int[] reconstruct(double[][] dist, double[] costs, int m, int end) {
+        int full = (1 << m) - 1;
+        int curr = end;
+        int[] nodes = new int[m + 1];
+        int mask = full;
+        for (int position = m; position > 1; position--) {
+            nodes[position] = curr + 1;
+            double target = costs[mask * m + curr];
+            mask ^= 1 << curr;
+            int prevRow = mask * m;
+            int parent = -1;
+            for (int prevs = mask; prevs != 0; prevs &= prevs - 1) {
+                int prev = Integer.numberOfTrailingZeros(prevs);
+                if (costs[prevRow + prev] + dist[prev + 1][curr + 1] == target) {
+                    parent = prev;
+                    break;
+                }
+            }
+            curr = parent;
+        }
+        nodes[1] = curr + 1;
+        return nodes;
+    }
+
+    /** Returns the number of (subset, end node) states evaluated when filling a table, m * 2^(m-1)
+     *
+     * @param m number of non-start nodes
+     * @return number of states
+     */
+    static long statesEvaluated(int m) {
+        return (long) m << (m - 1);
+    }
+
+    /** Returns the transpose of a distance matrix, so that the legs into a node are contiguous
+     *
+     * @param dist distance matrix
+     * @return transposed matrix
+     */
+    static double[][] transpose(double[][] dist) {
+        double[][] transposed = new double[dist.length][dist.length];
+        for (int i = 0; i < dist.length; i++) {
+            for (int j = 0; j < dist.length; j++) {
+                transposed[j][i] = dist[i][j];
+            }
+        }
+        return transposed;
+    }
+
+    /** Checks that a table for the given number of non-start nodes can be indexed by an int
+     *
+     * @param m number of non-start nodes
+     */
+    static void checkSize(int m) {
+        if (m > MAX_NODES) {
+            throw new IllegalArgumentException(String.format(
+                    "Exact solving supports at most %d buildings.", MAX_NODES + 1));
+        }
+    }
+
+    @Override
+    public String name() {
+        return "exact";
+    }
+
+    @Override
+    public int maxSize() {
+        return 22;
+    }
+
+    @Override
+    public boolean exact() {
+        return true;
+    }
+
+    @Override
+    public String progressCounter() {
+        return PROGRESS_COUNTER;
+    }
+
+    /** Largest number of non-start nodes whose table can be indexed by an int */
+    static final int MAX_NODES = 26;
+
+    /** Counter of states filled so far, updated while the table fills so that progress can be shown during a solve */
+    static final String PROGRESS_COUNTER = "solve.fill.states";
+
+    /** Number of subsets filled between updates of the progress counter */
+    private static final int PROGRESS_STRIDE = 1 << 12;
+}
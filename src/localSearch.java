@@ -0,0 +1,155 @@
+/** Local search improving an open path with a fixed start, used to polish heuristic and stitched paths.
+ * Applies 2-opt segment reversals on symmetric distances and Or-opt moves of short segments until neither
+ * move shortens the path.
+ * @author Brian Lin
+ */
+public class localSearch {
+
+    /** Improves a path in place until no 2-opt or Or-opt move shortens it
+     *
+     * @param dist distance matrix
+     * @param path node indices in traversal order, whose first node stays fixed
+     * @return the same array, improved
+     */
+    public static int[] improve(double[][] dist, int[] path) {
+        boolean symmetric = symmetric(dist);
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            boolean improved = symmetric && twoOpt(dist, path);
+            improved |= orOpt(dist, path);
+            if (!improved) {
+                break;
+            }
+        }
+        return path;
+    }
+
+    /** Applies every improving reversal of a segment path[i..j], where the open end needs no closing leg
+     *
+     * @param dist symmetric distance matrix
+     * @param path node indices in traversal order
+     * @return whether any reversal was applied
+     */
+    static boolean twoOpt(double[][] dist, int[] path) {
+        int n = path.length;
+        boolean improved = false;
+        for (int i = 1; i < n - 1; i++) {
+            for (int j = i + 1; j < n; j++) {
+                int before = path[i - 1];
+                int first = path[i];
+                int last = path[j];
+                double delta = dist[before][last] - dist[before][first];
+                if (j + 1 < n) {
+                    int after = path[j + 1];
+                    delta += dist[first][after] - dist[last][after];
+                }
+                if (delta < -EPSILON) {
+                    reverse(path, i, j);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    /** Applies every improving move of a segment of up to three nodes to another place in the path,
+     * keeping its direction so that the move is valid on asymmetric distances
+     *
+     * @param dist distance matrix
+     * @param path node indices in traversal order
+     * @return whether any segment was moved
+     */
+    static boolean orOpt(double[][] dist, int[] path) {
+        int n = path.length;
+        boolean improved = false;
+        for (int length = 1; length <= 3; length++) {
+            for (int i = 1; i + length <= n; i++) {
+                int first = path[i];
+                int last = path[i + length - 1];
+                int before = path[i - 1];
+                boolean hasAfter = i + length < n;
+                double removed = dist[before][first];
+                if (hasAfter) {
+                    int after = path[i + length];
+                    removed += dist[last][after] - dist[before][after];
+                }
+                int bestGap = -1;
+                double bestDelta = -EPSILON;
+                for (int gap = 0; gap < n; gap++) {
+                    if (gap >= i - 1 && gap < i + length) {
+                        continue;
+                    }
+                    int left = path[gap];
+                    double added = dist[left][first];
+                    if (gap + 1 < n) {
+                        int right = path[gap + 1];
+                        added += dist[last][right] - dist[left][right];
+                    }
+                    if (added - removed < bestDelta) {
+                        bestDelta = added - removed;
+                        bestGap = gap;
+                    }
+                }
+                if (bestGap >= 0) {
+                    moveSegment(path, i, length, bestGap);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    /** Moves path[start..start+length) to just after the node at position gap, which lies outside the segment
+     *
+     * @param path node indices in traversal order
+     * @param start position of the segment
+     * @param length segment length
+     * @param gap position of the node the segment is placed after
+     */
+    private static void moveSegment(int[] path, int start, int length, int gap) {
+        int[] segment = new int[length];
+        System.arraycopy(path, start, segment, 0, length);
+        if (gap < start) {
+            System.arraycopy(path, gap + 1, path, gap + 1 + length, start - gap - 1);
+            System.arraycopy(segment, 0, path, gap + 1, length);
+        } else {
+            System.arraycopy(path, start + length, path, start, gap - start - length + 1);
+            System.arraycopy(segment, 0, path, gap - length + 1, length);
+        }
+    }
+
+    /** Reverses path[from..to] in place
+     *
+     * @param path node indices in traversal order
+     * @param from first position to reverse
+     * @param to last position to reverse
+     */
+    private static void reverse(int[] path, int from, int to) {
+        for (; from < to; from++, to--) {
+            int swap = path[from];
+            path[from] = path[to];
+            path[to] = swap;
+        }
+    }
+
+    /** Checks whether the distance matrix is symmetric, so that reversing a segment keeps its length
+     *
+     * @param dist distance matrix
+     * @return whether every distance equals its reverse
+     */
+    static boolean symmetric(double[][] dist) {
+        for (int i = 0; i < dist.length; i++) {
+            for (int j = i + 1; j < dist.length; j++) {
+                if (dist[i][j] != dist[j][i]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Improvement below which a move is treated as rounding noise */
+    private static final double EPSILON = 1e-9;
+
+    /** Limit on improvement rounds, each of which scans every move once */
+    private static final int MAX_ROUNDS = 100;
+}
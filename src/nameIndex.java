@@ -0,0 +1,365 @@
+import java.util.*;
+
+/** Index over building names for resolving what users type, built once per catalog. Names are matched without
+ * regard to case, spacing or punctuation. Prefix lookups binary search a sorted array holding each name from the
+ * start of every word, so "wheel" and "hall" both find Wheeler Hall, and typo-tolerant lookups gather candidates
+ * sharing trigrams with the input before checking their edit distance, so that only a few names are compared in
+ * full even for very large catalogs.
+ * @author Brian Lin
+ */
+public class nameIndex {
+
+    /** Constructor for an index over the given building names
+     *
+     * @param buildingNames names of every building in the catalog
+     */
+    public nameIndex(Collection<String> buildingNames) {
+        names = buildingNames.toArray(new String[0]);
+        Arrays.sort(names);
+        normalized = new String[names.length];
+        exact = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+        List<Integer> keyIds = new ArrayList<>();
+        Map<String, int[]> postings = new HashMap<>();
+        for (int id = 0; id < names.length; id++) {
+            normalized[id] = normalize(names[id]);
+            exact.computeIfAbsent(normalized[id], key -> new ArrayList<>()).add(id);
+            String name = normalized[id];
+            for (int start = 0; start < name.length(); start = name.indexOf(' ', start) + 1) {
+                keys.add(name.substring(start));
+                keyIds.add(id);
+                if (name.indexOf(' ', start) < 0) {
+                    break;
+                }
+            }
+            for (String gram : new HashSet<>(trigrams(name))) {
+                int[] posting = postings.computeIfAbsent(gram, key -> new int[]{0, 0, 0, 0, 0});
+                if (posting[0] + 1 == posting.length) {
+                    posting = Arrays.copyOf(posting, posting.length * 2);
+                    postings.put(gram, posting);
+                }
+                posting[++posting[0]] = id;
+            }
+        }
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(keys::get));
+        prefixKeys = new String[order.length];
+        prefixIds = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            prefixKeys[i] = keys.get(order[i]);
+            prefixIds[i] = keyIds.get(order[i]);
+        }
+        commonPosting = Math.max(MIN_COMMON_POSTING, names.length / COMMON_FRACTION);
+        trigramIds = new HashMap<>();
+        for (Map.Entry<String, int[]> entry : postings.entrySet()) {
+            int[] posting = entry.getValue();
+            trigramIds.put(entry.getKey(), Arrays.copyOfRange(posting, 1, posting[0] + 1));
+        }
+    }
+
+    /** Resolves typed text to a single building name: an exact name, a name differing only in case, spacing or
+     * punctuation, the only name with a word starting with the text, or the only name closest to the text within
+     * a few typos
+     *
+     * @param input text typed by the user
+     * @return matching building name, or null if no name or more than one name matches
+     */
+    public String resolve(String input) {
+        if (Arrays.binarySearch(names, input) >= 0) {
+            return input;
+        }
+        String query = normalize(input);
+        if (query.isEmpty()) {
+            return null;
+        }
+        List<Integer> same = exact.get(query);
+        if (same != null) {
+            return same.size() == 1 ? names[same.get(0)] : null;
+        }
+        List<String> prefixed = complete(input, 2);
+        if (prefixed.size() == 1) {
+            return prefixed.get(0);
+        }
+        if (!prefixed.isEmpty()) {
+            return null;
+        }
+        List<String> close = suggest(input, 2);
+        if (close.size() == 1 || (close.size() == 2 && wordPrefixDistance(query, normalize(close.get(0)), query.length())
+                < wordPrefixDistance(query, normalize(close.get(1)), query.length()))) {
+            return close.get(0);
+        }
+        return null;
+    }
+
+    /** Finds names with a word starting with the given text, in alphabetical order
+     *
+     * @param prefix text typed by the user
+     * @param limit largest number of names to return
+     * @return matching building names
+     */
+    public List<String> complete(String prefix, int limit) {
+        String query = normalize(prefix);
+        List<String> matches = new ArrayList<>();
+        if (query.isEmpty()) {
+            return matches;
+        }
+        int low = 0;
+        int high = prefixKeys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (prefixKeys[middle].compareTo(query) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        Set<Integer> seen = new TreeSet<>();
+        for (int i = low; i < prefixKeys.length && prefixKeys[i].startsWith(query) && seen.size() < limit; i++) {
+            seen.add(prefixIds[i]);
+        }
+        for (int id : seen) {
+            matches.add(names[id]);
+        }
+        return matches;
+    }
+
+    /** Finds names with a word starting with the given text give or take a few typos, closest first. Trigrams
+     * shared with the text are counted per name, skipping trigrams common to so many names that they barely tell
+     * names apart, and only the names sharing the most, and enough to be within the allowed number of edits, are
+     * compared in full.
+     *
+     * @param input text typed by the user
+     * @param limit largest number of names to return
+     * @return building names ordered by edit distance, then alphabetically
+     */
+    public List<String> suggest(String input, int limit) {
+        String query = normalize(input);
+        int allowed = allowedEdits(query.length());
+        List<int[]> postings = new ArrayList<>();
+        List<int[]> common = new ArrayList<>();
+        for (String gram : new HashSet<>(trigrams(query))) {
+            int[] ids = trigramIds.get(gram);
+            if (ids == null) {
+                postings.add(new int[0]);
+            } else {
+                (ids.length > commonPosting ? common : postings).add(ids);
+            }
+        }
+        if (postings.isEmpty()) {
+            postings = common;
+        }
+        int[] shared = new int[names.length];
+        int[] touched = new int[Math.min(names.length, INITIAL_TOUCHED)];
+        int touchedCount = 0;
+        for (int[] ids : postings) {
+            for (int id : ids) {
+                if (shared[id]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touched.length * 2);
+                    }
+                    touched[touchedCount++] = id;
+                }
+            }
+        }
+        int needed = Math.max(1, postings.size() - GRAM * allowed - GRAM);
+        int[] perCount = new int[postings.size() + 2];
+        for (int i = 0; i < touchedCount; i++) {
+            perCount[shared[touched[i]]]++;
+        }
+        int cutoff = postings.size();
+        int above = 0;
+        while (cutoff > needed && above + perCount[cutoff] < MAX_COMPARED) {
+            above += perCount[cutoff];
+            cutoff--;
+        }
+        int atCutoff = MAX_COMPARED - above;
+        List<int[]> candidates = new ArrayList<>();
+        for (int i = 0; i < touchedCount; i++) {
+            int id = touched[i];
+            if (shared[id] < cutoff || (shared[id] == cutoff && atCutoff-- <= 0)) {
+                continue;
+            }
+            int edits = wordPrefixDistance(query, normalized[id], allowed);
+            if (edits <= allowed) {
+                candidates.add(new int[]{edits, id});
+            }
+        }
+        candidates.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+        List<String> matches = new ArrayList<>();
+        for (int i = 0; i < candidates.size() && i < limit; i++) {
+            matches.add(names[candidates.get(i)[1]]);
+        }
+        return matches;
+    }
+
+    /** Splits a pasted line holding several building names separated by commas or semicolons
+     *
+     * @param line line typed or pasted by the user
+     * @return trimmed non-empty entries in the order given
+     */
+    public static List<String> splitNames(String line) {
+        List<String> entries = new ArrayList<>();
+        for (String entry : line.split("[,;]")) {
+            if (!entry.trim().isEmpty()) {
+                entries.add(entry.trim());
+            }
+        }
+        return entries;
+    }
+
+    /** Returns the number of buildings indexed
+     *
+     * @return catalog size
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /** Lowercases a name and turns every run of characters other than letters and digits into a single space
+     *
+     * @param name text to normalize
+     * @return normalized text without leading or trailing spaces
+     */
+    static String normalize(String name) {
+        StringBuilder normal = new StringBuilder(name.length());
+        boolean space = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && normal.length() > 0) {
+                    normal.append(' ');
+                }
+                normal.append(Character.toLowerCase(c));
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return normal.toString();
+    }
+
+    /** Returns the trigrams of normalized text, padded so that its first and last characters start and end one
+     *
+     * @param text normalized text
+     * @return trigrams in order, with repeats
+     */
+    private static List<String> trigrams(String text) {
+        String padded = "  " + text + " ";
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + GRAM <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /** Returns how many typos are tolerated in text of the given length
+     *
+     * @param length length of the normalized text
+     * @return allowed edit distance
+     */
+    private static int allowedEdits(int length) {
+        return length < 4 ? 0 : Math.max(1, Math.min(MAX_EDITS, length / 5));
+    }
+
+    /** Computes the fewest edits turning the text into the start of the name from the beginning of any word
+     *
+     * @param text normalized text typed by the user
+     * @param name normalized name
+     * @param limit largest distance of interest
+     * @return edit distance, or limit + 1 if it exceeds the limit
+     */
+    static int wordPrefixDistance(String text, String name, int limit) {
+        int best = limit + 1;
+        for (int start = 0; start < name.length() && best > 0; start = name.indexOf(' ', start) + 1) {
+            best = Math.min(best, prefixDistance(text, name.substring(start), Math.min(limit, best - 1)));
+            if (name.indexOf(' ', start) < 0) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /** Computes the fewest edits turning one string into any prefix of another, counting insertions, deletions,
+     * substitutions and swaps of adjacent characters, and stopping early once it must exceed the limit
+     *
+     * @param a string to edit
+     * @param b string whose prefixes are the targets
+     * @param limit largest distance of interest
+     * @return edit distance, or limit + 1 if it exceeds the limit
+     */
+    static int prefixDistance(String a, String b, int limit) {
+        int[] before = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowBest = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, before[j - 2] + 1);
+                }
+                current[j] = value;
+                rowBest = Math.min(rowBest, value);
+            }
+            if (rowBest > limit) {
+                return limit + 1;
+            }
+            int[] recycled = before;
+            before = previous;
+            previous = current;
+            current = recycled;
+        }
+        int best = limit + 1;
+        for (int value : previous) {
+            best = Math.min(best, value);
+        }
+        return best;
+    }
+
+    /** Length of the character sequences indexed for typo-tolerant lookups */
+    private static final int GRAM = 3;
+
+    /** Number of names sharing trigrams with an input after which the fewest shared are no longer compared in full */
+    private static final int MAX_COMPARED = 32;
+
+    /** Fewest names a trigram must appear in to be skipped as common */
+    private static final int MIN_COMMON_POSTING = 256;
+
+    /** Share of the catalog, as a divisor, that a trigram must appear in to be skipped as common */
+    private static final int COMMON_FRACTION = 64;
+
+    /** Initial room for the names sharing a trigram with an input */
+    private static final int INITIAL_TOUCHED = 1024;
+
+    /** Largest number of typos tolerated in any input */
+    private static final int MAX_EDITS = 3;
+
+    /** Building names in alphabetical order, indexed by name id */
+    private final String[] names;
+
+    /** Normalized form of each name, indexed by name id */
+    private final String[] normalized;
+
+    /** Mapping of normalized names to the ids of the names with that form */
+    private final Map<String, List<Integer>> exact;
+
+    /** Every name from the start of each of its words, sorted for binary search */
+    private final String[] prefixKeys;
+
+    /** Name id of each prefix key */
+    private final int[] prefixIds;
+
+    /** Mapping of trigrams to the ids of the names containing them */
+    private final Map<String, int[]> trigramIds;
+
+    /** Number of names above which a trigram is skipped as common when counting shared trigrams */
+    private final int commonPosting;
+}
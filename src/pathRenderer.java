@@ -0,0 +1,150 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Headless renderer writing the optimal path of saved building sets to image files, rendering sets concurrently
+ * on a bounded worker pool and writing each image to disk as soon as it is drawn, so that no display is needed and
+ * only a few images are held in memory at once. Each set's saved path is drawn as is; only sets without a valid
+ * saved path, or left stale by a catalog change, are solved again, through a solveScheduler so that exact solves
+ * reserve their memory.
+ * @author Brian Lin
+ */
+public class pathRenderer {
+
+    /** Constructor for a renderer using the building data of the given graphManager
+     *
+     * @param graphData graphManager instance containing distance and coordinate data
+     * @param workers number of sets rendered at once
+     * @param outputDir directory that images are written to
+     * @param format image format, png or svg
+     * @param output stream that progress lines are written to
+     */
+    public pathRenderer(graphManager graphData, int workers, File outputDir, String format, PrintStream output) {
+        this.graphData = graphData;
+        this.workers = workers;
+        this.outputDir = outputDir;
+        this.format = format;
+        this.output = output;
+        this.inFlight = new Semaphore(workers * 2);
+    }
+
+    /** Renders each of the given saved building sets to a file named after the set, reporting each file as it
+     * is written
+     *
+     * @param graphNames names of saved building sets
+     * @return number of images written
+     */
+    public int renderSets(List<String> graphNames) {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        solveScheduler scheduler = new solveScheduler();
+        AtomicInteger rendered = new AtomicInteger();
+        try {
+            for (String graphName : graphNames) {
+                inFlight.acquireUninterruptibly();
+                pool.execute(() -> {
+                    try {
+                        File imageFile = renderSet(graphName, scheduler);
+                        rendered.incrementAndGet();
+                        writeLine(String.format("Rendered building set %s to %s", graphName, imageFile.getPath()));
+                    } catch (InterruptedException excp) {
+                        Thread.currentThread().interrupt();
+                        writeLine(String.format("Could not render building set %s: interrupted", graphName));
+                    } catch (IOException | RuntimeException excp) {
+                        writeLine(String.format("Could not render building set %s: %s", graphName, excp.getMessage()));
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler.shutdown();
+        }
+        return rendered.get();
+    }
+
+    /** Renders the saved path of a single saved building set, solving the set first on the scheduler if it has no
+     * valid saved path or is waiting to be re-solved after a catalog change
+     *
+     * @param graphName name of the saved building set
+     * @param scheduler scheduler to queue solves on
+     * @return file the image was written to
+     * @throws IOException if the image cannot be written
+     * @throws InterruptedException if interrupted while waiting for the set to be solved
+     */
+    private File renderSet(String graphName, solveScheduler scheduler) throws IOException, InterruptedException {
+        String graphID;
+        boolean stale;
+        synchronized (graphData) {
+            if (!graphData.checkGraph(graphName)) {
+                throw new IllegalArgumentException("no graph with this name found");
+            }
+            graphID = graphData.getGraph(graphName);
+            stale = graphData.staleGraphs().contains(graphName);
+        }
+        buildingGraph graph = buildingGraph.readGraph(graphData.getGraphDir(), graphID);
+        pathResult saved = graph.getOptimalPath();
+        graph.updateBuildingGraph(graphData.getDistanceRows(), graphData.getBuildingIndices(),
+                graphData.getCoordinates(), false);
+        graph.setCollapseTolerance(graphData.getCollapseTolerance());
+        if (stale || saved == null || !graph.restorePath(saved.nodes())) {
+            solveMetrics.count("render.solved", 1);
+            graph.solvePath(scheduler);
+        }
+        File imageFile = new File(outputDir, fileName(graphName) + "." + format);
+        graph.renderPath(imageFile);
+        return imageFile;
+    }
+
+    /** Turns a set name into a file name by replacing characters that are unsafe in paths
+     *
+     * @param graphName name of the building set
+     * @return file name without extension
+     */
+    static String fileName(String graphName) {
+        return graphName.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /** Writes a single progress line and flushes it so lines stream out as sets complete
+     *
+     * @param line line to write
+     */
+    private void writeLine(String line) {
+        synchronized (output) {
+            output.println(line);
+            output.flush();
+        }
+    }
+
+    /** Image formats that sets can be rendered to */
+    public static final List<String> FORMATS = List.of("png", "svg");
+
+    /** graphManager providing the saved sets and building tables */
+    private final graphManager graphData;
+
+    /** Number of sets rendered at once */
+    private final int workers;
+
+    /** Directory that images are written to */
+    private final File outputDir;
+
+    /** Image format, png or svg */
+    private final String format;
+
+    /** Stream that progress lines are written to */
+    private final PrintStream output;
+
+    /** Limit on sets submitted to the pool but not yet rendered, so that queued work stays bounded */
+    private final Semaphore inFlight;
+}
@@ -0,0 +1,92 @@
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Immutable result of a pathSolver: the order nodes are visited in and the distance of each leg.
+ * @author Brian Lin
+ */
+public final class pathResult implements Serializable {
+
+    /** Constructor for a result visiting nodes in the given order, deriving each leg from the view
+     *
+     * @param view distances the path was solved over
+     * @param nodes node indices in traversal order, starting with the start node
+     */
+    public pathResult(distanceView view, int[] nodes) {
+        this.nodes = nodes.clone();
+        this.legs = new double[nodes.length];
+        double total = 0;
+        for (int i = 1; i < nodes.length; i++) {
+            legs[i] = view.distance(nodes[i - 1], nodes[i]);
+            total += legs[i];
+        }
+        this.length = total;
+    }
+
+    /** Returns the number of nodes along the path
+     *
+     * @return path size
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /** Returns the node visited at a position along the path
+     *
+     * @param position position along the path, 0 being the start
+     * @return node index
+     */
+    public int node(int position) {
+        return nodes[position];
+    }
+
+    /** Returns the distance of the leg arriving at a position along the path
+     *
+     * @param position position along the path, 0 being the start with a leg of 0
+     * @return leg distance in meters
+     */
+    public double leg(int position) {
+        return legs[position];
+    }
+
+    /** Returns a copy of the nodes in traversal order
+     *
+     * @return node indices along the path
+     */
+    public int[] nodes() {
+        return nodes.clone();
+    }
+
+    /** Returns the total distance of the path
+     *
+     * @return path length in meters
+     */
+    public double length() {
+        return length;
+    }
+
+    /** Returns the building names along the path
+     *
+     * @param view view the path was solved over
+     * @return building names in traversal order
+     */
+    public List<String> names(distanceView view) {
+        List<String> pathNames = new ArrayList<>(nodes.length);
+        for (int node : nodes) {
+            pathNames.add(view.name(node));
+        }
+        return pathNames;
+    }
+
+    /** Serialization version of saved paths, kept so that cached tours saved with building graphs still load */
+    private static final long serialVersionUID = 6803877400542395415L;
+
+    /** Node indices in traversal order */
+    private final int[] nodes;
+
+    /** Distance of the leg arriving at each position, 0 for the start */
+    private final double[] legs;
+
+    /** Total distance of the path */
+    private final double length;
+}
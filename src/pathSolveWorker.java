@@ -0,0 +1,201 @@
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import javax.swing.JFrame;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+/** Background solve for the graphical view, publishing each shorter path to the window as it is found.
+ * Sets large enough for the final solver to take noticeable time first get a quick approximation polished by
+ * local search, followed by the final solver's path unless it is longer. A Swing timer refreshes the elapsed time,
+ * the proven bound of the best path so far and, for solvers that report their progress, the states evaluated,
+ * so the event dispatch thread only paints.
+ * @author Brian Lin
+ */
+public class pathSolveWorker extends SwingWorker<pathResult, pathSolveWorker.candidate> {
+
+    /** Constructor for a solve that draws its paths into the given window
+     *
+     * @param view distances between the buildings to visit, starting from node 0
+     * @param solver solver giving the final path
+     * @param panel graphic the paths are drawn in
+     * @param frame window holding the graphic, whose title shows the best length so far
+     * @param title window title, to which the best length so far is appended
+     */
+    public pathSolveWorker(distanceView view, pathSolver solver, buildingGraphic panel, JFrame frame, String title) {
+        this.view = view;
+        this.solver = solver;
+        this.panel = panel;
+        this.frame = frame;
+        this.title = title;
+        this.progress = new Timer(REFRESH_MILLIS, event -> panel.setStatus(statusText("Solving")));
+    }
+
+    /** Runs the quick approximation, if worthwhile, and then the final solver, publishing each shorter path
+     *
+     * @return shortest path found
+     */
+    @Override
+    protected pathResult doInBackground() {
+        pathResult best = null;
+        if (view.size() >= QUICK_PATH_SIZE) {
+            solveMetrics.timer timer = solveMetrics.start("solve.quick").size(view.size());
+            try {
+                best = new pathResult(view, localSearch.improve(view.matrix(), approximation.solve(view).nodes()));
+            } finally {
+                timer.close();
+            }
+            publish(new candidate(best, approximation.bound(view)));
+        }
+        pathResult path;
+        solveMetrics.timer timer = solveMetrics.start("solve").size(view.size());
+        try {
+            path = solver.solve(view);
+        } finally {
+            timer.close();
+        }
+        if (best == null || path.length() <= best.length()) {
+            best = path;
+            publish(new candidate(best, solver.bound(view)));
+        }
+        return best;
+    }
+
+    /** Draws the latest of the paths published since the last call, on the event dispatch thread
+     *
+     * @param found paths published in order of discovery, each no longer than the one before
+     */
+    @Override
+    protected void process(List<candidate> found) {
+        candidate latest = found.get(found.size() - 1);
+        bound = latest.bound;
+        panel.showPath(buildingGraph.pathDistances(latest.path), latest.path.nodes());
+        frame.setTitle(String.format("%s | Total path distance: %.2f meters", title, latest.path.length()));
+    }
+
+    /** Stops the progress display once the solve has finished or failed */
+    @Override
+    protected void done() {
+        progress.stop();
+        try {
+            get();
+            panel.setStatus(statusText("Solved"));
+        } catch (InterruptedException | ExecutionException excp) {
+            Throwable cause = excp instanceof ExecutionException ? excp.getCause() : excp;
+            panel.setStatus("Solve failed: " + cause.getMessage());
+        }
+    }
+
+    /** Starts the solve on a background thread along with the progress display, returning at once */
+    public void start() {
+        startNanos = System.nanoTime();
+        if (solver.progressCounter() != null) {
+            statesAtStart = solveMetrics.counter(solver.progressCounter());
+        }
+        panel.setStatus(statusText("Solving"));
+        progress.start();
+        execute();
+    }
+
+    /** Waits for the solve to finish, for callers that save the path once it is known.
+     * Must not be called on the event dispatch thread.
+     *
+     * @return shortest path found
+     */
+    public pathResult result() {
+        try {
+            return get();
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while solving.", excp);
+        } catch (ExecutionException excp) {
+            if (excp.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) excp.getCause();
+            }
+            if (excp.getCause() instanceof Error) {
+                throw (Error) excp.getCause();
+            }
+            throw new IllegalStateException(excp.getCause());
+        }
+    }
+
+    /** Formats the progress line: states filled so far when the solver reports them, elapsed time and the
+     * proven bound of the best path
+     *
+     * @param state word describing whether the solve is running
+     * @return progress text
+     */
+    private String statusText(String state) {
+        String quality;
+        if (Double.isNaN(bound)) {
+            quality = "no path yet";
+        } else if (bound == 1) {
+            quality = "shortest path";
+        } else if (Double.isInfinite(bound)) {
+            quality = "no proven bound";
+        } else {
+            quality = String.format("within %.2fx of shortest", bound);
+        }
+        String states = "";
+        if (solver.progressCounter() != null) {
+            states = String.format("%,d states, ", solveMetrics.counter(solver.progressCounter()) - statesAtStart);
+        }
+        return String.format("%s with %s: %s%.1f s, %s", state, solver.name(), states,
+                (System.nanoTime() - startNanos) / 1e9, quality);
+    }
+
+    /** A path found during the solve along with its proven bound */
+    static class candidate {
+
+        /** Constructor for a found path
+         *
+         * @param path path found
+         * @param bound proven worst-case ratio of its length to the shortest path
+         */
+        candidate(pathResult path, double bound) {
+            this.path = path;
+            this.bound = bound;
+        }
+
+        /** Path found */
+        private final pathResult path;
+
+        /** Proven worst-case ratio of the path's length to the shortest path */
+        private final double bound;
+    }
+
+    /** Distances being solved */
+    private final distanceView view;
+
+    /** Solver giving the final path */
+    private final pathSolver solver;
+
+    /** Graphic the paths are drawn in */
+    private final buildingGraphic panel;
+
+    /** Window holding the graphic */
+    private final JFrame frame;
+
+    /** Window title before the best length */
+    private final String title;
+
+    /** Timer refreshing the progress line on the event dispatch thread */
+    private final Timer progress;
+
+    /** Time the solve started */
+    private volatile long startNanos;
+
+    /** Value of the solver's progress counter when the solve started, 0 if it reports none */
+    private volatile long statesAtStart;
+
+    /** Proven bound of the best path drawn so far, NaN before the first; only used on the event dispatch thread */
+    private double bound = Double.NaN;
+
+    /** Solver for the quick first path */
+    private static final pathSolver approximation = new christofidesSolver();
+
+    /** Smallest set for which a quick path is shown before the final solver finishes */
+    private static final int QUICK_PATH_SIZE = 14;
+
+    /** Time between refreshes of the progress line */
+    private static final int REFRESH_MILLIS = 200;
+}
@@ -0,0 +1,53 @@
+/** Solver for the shortest open path that starts at node 0 of a distanceView and visits every node once.
+ * Implementations keep no state between calls, do no I/O and are safe to call from many threads at once.
+ * @author Brian Lin
+ */
+public interface pathSolver {
+
+    /** Solves for a shortest path over the given distances
+     *
+     * @param view distances between the buildings to visit, starting from node 0
+     * @return path visiting every node once
+     */
+    pathResult solve(distanceView view);
+
+    /** Returns the name used to select this solver
+     *
+     * @return solver name
+     */
+    String name();
+
+    /** Returns the largest number of buildings this solver handles within a default heap and a few seconds,
+     * used to choose between solvers and to skip instances that are out of reach
+     *
+     * @return practical instance size limit
+     */
+    default int maxSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    /** Returns whether this solver always returns a shortest path
+     *
+     * @return true for exact solvers, false for heuristics
+     */
+    default boolean exact() {
+        return false;
+    }
+
+    /** Returns the proven worst-case ratio of this solver's path length to the shortest path on the given view
+     *
+     * @param view distances between the buildings to visit, starting from node 0
+     * @return 1 for exact solvers, infinity when no bound is proven
+     */
+    default double bound(distanceView view) {
+        return exact() ? 1 : Double.POSITIVE_INFINITY;
+    }
+
+    /** Returns the solveMetrics counter this solver advances as it works, which progress displays poll
+     *
+     * @return counter name, or null if the solver reports no progress while it runs
+     */
+    default String progressCounter() {
+        return null;
+    }
+}
@@ -1,6 +1,7 @@
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Formatter;
@@ -37,9 +38,10 @@ public class serializeUtils {
                                                  Class<T> expectedClass) {
         try {
             ObjectInputStream in =
-                    new ObjectInputStream(new FileInputStream(file));
+                    new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
             T result = expectedClass.cast(in.readObject());
             in.close();
+            solveMetrics.count("io.bytesRead", file.length());
             return result;
         } catch (IOException | ClassCastException
                 | ClassNotFoundException excp) {
@@ -62,16 +64,18 @@ public class serializeUtils {
 
     /** Write the result of concatenating the bytes in CONTENTS to FILE,
      *  creating or overwriting it as needed.  Each object in CONTENTS may be
-     *  either a String or a byte array.  Throws IllegalArgumentException
-     *  in case of problems. */
+     *  either a String or a byte array.  The bytes are written to a temporary
+     *  file that then replaces FILE, so concurrent readers never see a partial
+     *  file.  Throws IllegalArgumentException in case of problems. */
     static void writeContents(File file, Object... contents) {
         try {
             if (file.isDirectory()) {
                 throw
                         new IllegalArgumentException("cannot overwrite directory");
             }
+            File temp = new File(file.getPath() + ".tmp" + Thread.currentThread().getId());
             BufferedOutputStream str =
-                    new BufferedOutputStream(Files.newOutputStream(file.toPath()));
+                    new BufferedOutputStream(Files.newOutputStream(temp.toPath()));
             for (Object obj : contents) {
                 if (obj instanceof byte[]) {
                     str.write((byte[]) obj);
@@ -80,11 +84,28 @@ public class serializeUtils {
                 }
             }
             str.close();
+            solveMetrics.count("io.bytesWritten", temp.length());
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException | ClassCastException excp) {
             throw new IllegalArgumentException(excp.getMessage());
         }
     }
 
+    /** Returns the MD5 hash of the contents of FILES, in order.
+     *  Throws IllegalArgumentException in case of problems. */
+    static String getFileHash(File... files) {
+        Object[] contents = new Object[files.length];
+        try {
+            for (int i = 0; i < files.length; i++) {
+                contents[i] = Files.readAllBytes(files[i].toPath());
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        return getHash(contents);
+    }
+
     /** Write OBJ to FILE. */
     static void writeObject(File file, Serializable obj) throws IOException {
         writeContents(file, serialize(obj));
@@ -0,0 +1,164 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Lightweight process-wide registry of timings and counters for the hot paths of solving and persistence.
+ * Every timed phase is also committed as a JDK Flight Recorder event, so a recording started with
+ * -XX:StartFlightRecording shows each phase alongside the JVM's own events.
+ * @author Brian Lin
+ */
+public class solveMetrics {
+
+    /** Starts timing a phase, to be closed when the phase ends
+     *
+     * @param phase name of the phase
+     * @return running timer
+     */
+    public static timer start(String phase) {
+        return new timer(phase);
+    }
+
+    /** Adds to a named counter
+     *
+     * @param counter name of the counter
+     * @param delta amount to add
+     */
+    public static void count(String counter, long delta) {
+        COUNTERS.computeIfAbsent(counter, key -> new LongAdder()).add(delta);
+    }
+
+    /** Reads the current value of a named counter, for progress displays that poll it while a solve runs
+     *
+     * @param counter name of the counter
+     * @return sum of everything added to the counter, 0 if nothing has been
+     */
+    public static long counter(String counter) {
+        LongAdder adder = COUNTERS.get(counter);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /** Formats every recorded timer and counter, sorted by name
+     *
+     * @return text table of metrics
+     */
+    public static String snapshot() {
+        StringBuilder stats = new StringBuilder(String.format("%-28s %10s %14s %14s%n", "phase", "calls", "total ms", "max ms"));
+        for (Map.Entry<String, phaseTotals> entry : new TreeMap<>(PHASES).entrySet()) {
+            phaseTotals totals = entry.getValue();
+            stats.append(String.format("%-28s %10d %14.3f %14.3f%n", entry.getKey(), totals.calls.sum(),
+                    totals.nanos.sum() / 1e6, totals.maxNanos / 1e6));
+        }
+        stats.append(String.format("%n%-28s %10s%n", "counter", "value"));
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(COUNTERS).entrySet()) {
+            stats.append(String.format("%-28s %10d%n", entry.getKey(), entry.getValue().sum()));
+        }
+        return stats.toString();
+    }
+
+    /** Timer for a single run of a phase, recorded when closed */
+    public static class timer implements AutoCloseable {
+
+        /** Constructor that starts timing the given phase
+         *
+         * @param phase name of the phase
+         */
+        private timer(String phase) {
+            this.phase = phase;
+            this.event = new phaseEvent();
+            event.begin();
+            this.startNanos = System.nanoTime();
+        }
+
+        /** Sets the number of buildings the phase works on
+         *
+         * @param size number of buildings
+         * @return this timer
+         */
+        public timer size(int size) {
+            event.size = size;
+            return this;
+        }
+
+        /** Adds to the amount of work done in the phase, such as DP states evaluated or bytes transferred
+         *
+         * @param work amount of work
+         * @return this timer
+         */
+        public timer work(long work) {
+            event.work += work;
+            return this;
+        }
+
+        /** Stops timing and records the phase */
+        @Override
+        public void close() {
+            long elapsed = System.nanoTime() - startNanos;
+            phaseTotals totals = PHASES.computeIfAbsent(phase, key -> new phaseTotals());
+            totals.calls.increment();
+            totals.nanos.add(elapsed);
+            synchronized (totals) {
+                totals.maxNanos = Math.max(totals.maxNanos, elapsed);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = phase;
+                event.commit();
+            }
+        }
+
+        /** Name of the phase */
+        private final String phase;
+
+        /** Flight recorder event for this run */
+        private final phaseEvent event;
+
+        /** Time the phase started */
+        private final long startNanos;
+    }
+
+    /** Flight recorder event for a timed phase */
+    @Name("berkeleyBuildings.Phase")
+    @Label("Solver Phase")
+    @Category("Berkeley Buildings")
+    @Description("A timed phase of solving or persistence")
+    static class phaseEvent extends Event {
+
+        /** Name of the phase */
+        @Label("Phase")
+        String phase;
+
+        /** Number of buildings the phase worked on */
+        @Label("Buildings")
+        int size;
+
+        /** Amount of work done, such as DP states evaluated or bytes transferred */
+        @Label("Work")
+        long work;
+    }
+
+    /** Accumulated timings of one phase */
+    private static class phaseTotals {
+
+        /** Number of runs */
+        final LongAdder calls = new LongAdder();
+
+        /** Total time across runs */
+        final LongAdder nanos = new LongAdder();
+
+        /** Longest single run */
+        long maxNanos;
+    }
+
+    /** Timings keyed by phase name */
+    private static final Map<String, phaseTotals> PHASES = new ConcurrentHashMap<>();
+
+    /** Counters keyed by name */
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+}
@@ -0,0 +1,318 @@
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/** Admission control for solves sharing one process, so that a large exact solve cannot hold up many small ones.
+ * Jobs wait in an interactive queue when they are small or heuristic and in a batch queue otherwise, and run on a
+ * fixed set of platform worker threads that always serve the interactive queue first. Batch jobs may take every
+ * worker but one, leaving a worker for small requests, and every job reserves the memory its solve is expected to
+ * use, n * 2^n table entries for exact solvers, against a budget taken from the heap size. A job whose reservation
+ * can never fit, or that waits longer than the queue time limit, is downgraded to its heuristic fallback, which
+ * needs little memory and joins the interactive queue.
+ * @author Brian Lin
+ */
+public class solveScheduler {
+
+    /** Constructor for a scheduler with one worker per core, at least two, and half of the heap as its budget */
+    public solveScheduler() {
+        this(Math.max(2, Runtime.getRuntime().availableProcessors()), Runtime.getRuntime().maxMemory() / 2,
+                DEFAULT_QUEUE_LIMIT_MILLIS);
+    }
+
+    /** Constructor for a scheduler with the given limits
+     *
+     * @param workers number of solves run at once, at least two so that one worker is kept for interactive jobs
+     * @param memoryBudget bytes that running solves may reserve in total
+     * @param queueLimitMillis time a job may wait before it is downgraded to its heuristic fallback
+     */
+    public solveScheduler(int workers, long memoryBudget, long queueLimitMillis) {
+        if (workers < 2) {
+            throw new IllegalArgumentException("at least two workers are required");
+        }
+        this.workers = workers;
+        this.memoryBudget = memoryBudget;
+        this.queueLimitNanos = queueLimitMillis * 1_000_000;
+        for (int i = 0; i < workers; i++) {
+            Thread worker = new Thread(this::work, "solve-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /** Queues a job and waits for its path
+     *
+     * @param job job to run
+     * @return path found by the job's solver, or by its fallback if the job was downgraded
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public pathResult solve(job job) throws InterruptedException {
+        submit(job);
+        return await(job);
+    }
+
+    /** Queues a job without waiting for it, so that several jobs can be queued before waiting on any of them
+     *
+     * @param job job to run
+     */
+    public synchronized void submit(job job) {
+        if (shutdown) {
+            throw new IllegalStateException("Scheduler is shut down.");
+        }
+        job.queued = System.nanoTime();
+        if (job.reservation > memoryBudget) {
+            job.downgrade();
+        }
+        (job.interactive ? interactive : batch).add(job);
+        solveMetrics.count(job.interactive ? "schedule.interactive" : "schedule.batch", 1);
+        notifyAll();
+    }
+
+    /** Waits for the path of a queued job, taking the job off its queue if interrupted before it starts
+     *
+     * @param job job queued with submit
+     * @return path found by the job's solver, or by its fallback if the job was downgraded
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public pathResult await(job job) throws InterruptedException {
+        try {
+            return job.result.get();
+        } catch (InterruptedException excp) {
+            cancel(job);
+            throw excp;
+        } catch (ExecutionException excp) {
+            Throwable cause = excp.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /** Takes a job off its queue if it has not started, leaving a running job to finish
+     *
+     * @param job job queued with submit
+     */
+    public synchronized void cancel(job job) {
+        if (interactive.remove(job) || batch.remove(job)) {
+            job.result.cancel(false);
+        }
+    }
+
+    /** Stops the workers once their running jobs finish, failing every queued job */
+    public synchronized void shutdown() {
+        shutdown = true;
+        for (ArrayDeque<job> queue : List.of(interactive, batch)) {
+            for (job queued : queue) {
+                queued.result.completeExceptionally(new IllegalStateException("Scheduler is shut down."));
+            }
+            queue.clear();
+        }
+        notifyAll();
+    }
+
+    /** Returns how many bytes a solve is expected to need: one table entry per subset of the non-start nodes
+     * for each possible last node with an exact solver, and a few distance matrices otherwise
+     *
+     * @param solver solver to run
+     * @param size number of nodes the solver will see
+     * @return estimated bytes
+     */
+    static long reservation(pathSolver solver, int size) {
+        if (!solver.exact() || size <= 2) {
+            return HEURISTIC_MATRICES * Double.BYTES * (long) size * size;
+        }
+        if (size > MAX_RESERVED_SIZE) {
+            return Long.MAX_VALUE;
+        }
+        return Double.BYTES * (long) (size - 1) << (size - 1);
+    }
+
+    /** Loop run by each worker thread, taking and running jobs until the scheduler shuts down */
+    private void work() {
+        while (true) {
+            job next;
+            synchronized (this) {
+                try {
+                    while ((next = take()) == null) {
+                        if (shutdown) {
+                            return;
+                        }
+                        wait(POLL_MILLIS);
+                    }
+                } catch (InterruptedException excp) {
+                    return;
+                }
+            }
+            solveMetrics.timer timer = solveMetrics.start(next.interactive ? "schedule.run.interactive"
+                    : "schedule.run.batch").size(next.size);
+            try {
+                next.result.complete(next.solver.solve(next.view));
+            } catch (RuntimeException | Error excp) {
+                next.result.completeExceptionally(excp);
+            } finally {
+                timer.close();
+                synchronized (this) {
+                    release(next);
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /** Picks the next job to run, downgrading jobs that waited too long and reserving the memory and worker of
+     * the picked job. Interactive jobs come first, and a batch job is only picked when it leaves a worker free.
+     * Must be called while holding this scheduler's lock.
+     *
+     * @return job to run, or null if none can start now
+     */
+    private job take() {
+        long now = System.nanoTime();
+        for (job waiting : batch.toArray(new job[0])) {
+            if (now - waiting.queued > queueLimitNanos) {
+                batch.remove(waiting);
+                waiting.downgrade();
+                interactive.add(waiting);
+            }
+        }
+        for (job waiting : interactive) {
+            if (!waiting.downgraded && now - waiting.queued > queueLimitNanos
+                    && reserved + waiting.reservation > memoryBudget) {
+                waiting.downgrade();
+            }
+        }
+        job next = interactive.peek();
+        if (next != null && reserved + next.reservation <= memoryBudget) {
+            interactive.poll();
+        } else {
+            next = batch.peek();
+            if (next == null || runningBatch >= workers - 1 || reserved + next.reservation > memoryBudget) {
+                return null;
+            }
+            batch.poll();
+            runningBatch++;
+        }
+        reserved += next.reservation;
+        solveMetrics.count("schedule.waitMillis", (now - next.queued) / 1_000_000);
+        return next;
+    }
+
+    /** Returns the memory and worker held by a finished job. Must be called while holding this scheduler's lock.
+     *
+     * @param done finished job
+     */
+    private void release(job done) {
+        reserved -= done.reservation;
+        if (done.batchSlot) {
+            runningBatch--;
+        }
+    }
+
+    /** Solve waiting for or holding a worker, with the solver to fall back on when it is downgraded */
+    public static class job {
+
+        /** Constructor for a job solving a view with the given solver
+         *
+         * @param view distances between the buildings to visit, starting from node 0
+         * @param size number of nodes the solver will see, smaller than the view when it merges buildings first
+         * @param solver solver to run
+         * @param fallback heuristic solver to run instead if the job is downgraded
+         */
+        public job(distanceView view, int size, pathSolver solver, pathSolver fallback) {
+            this.view = view;
+            this.size = size;
+            this.solver = solver;
+            this.fallback = fallback;
+            this.reservation = reservation(solver, size);
+            this.interactive = !solver.exact() || size <= INTERACTIVE_SIZE;
+            this.batchSlot = !interactive;
+        }
+
+        /** Returns whether the job was downgraded to its heuristic fallback
+         *
+         * @return whether the fallback ran in place of the requested solver
+         */
+        public boolean downgraded() {
+            return downgraded;
+        }
+
+        /** Switches the job to its heuristic fallback, which runs in the interactive queue */
+        private void downgrade() {
+            solver = fallback;
+            reservation = reservation(fallback, size);
+            interactive = true;
+            batchSlot = false;
+            downgraded = true;
+            solveMetrics.count("schedule.downgraded", 1);
+        }
+
+        /** Distances between the buildings to visit */
+        private final distanceView view;
+
+        /** Number of nodes the solver will see */
+        private final int size;
+
+        /** Heuristic solver to run instead if the job is downgraded */
+        private final pathSolver fallback;
+
+        /** Path found, completed by the worker that runs the job */
+        private final CompletableFuture<pathResult> result = new CompletableFuture<>();
+
+        /** Solver to run */
+        private pathSolver solver;
+
+        /** Bytes reserved while the job runs */
+        private long reservation;
+
+        /** Whether the job waits in the interactive queue */
+        private boolean interactive;
+
+        /** Whether the job counts against the workers that batch jobs may hold */
+        private boolean batchSlot;
+
+        /** Whether the job was switched to its fallback */
+        private boolean downgraded;
+
+        /** Time the job was queued, from System.nanoTime */
+        private long queued;
+    }
+
+    /** Largest exact solve treated as interactive, which takes milliseconds */
+    static final int INTERACTIVE_SIZE = 16;
+
+    /** Default time a job may wait before it is downgraded, in milliseconds */
+    static final long DEFAULT_QUEUE_LIMIT_MILLIS = 5000;
+
+    /** Largest exact solve whose reservation is computed, beyond which it cannot fit in any heap */
+    private static final int MAX_RESERVED_SIZE = 48;
+
+    /** Number of distance matrices a heuristic solve is expected to hold at once */
+    private static final int HEURISTIC_MATRICES = 4;
+
+    /** Time idle workers wait before checking queued jobs against the queue time limit again, in milliseconds */
+    private static final long POLL_MILLIS = 100;
+
+    /** Number of worker threads */
+    private final int workers;
+
+    /** Bytes that running solves may reserve in total */
+    private final long memoryBudget;
+
+    /** Time a job may wait before it is downgraded, in nanoseconds */
+    private final long queueLimitNanos;
+
+    /** Jobs waiting that are small or heuristic, run first */
+    private final ArrayDeque<job> interactive = new ArrayDeque<>();
+
+    /** Large exact jobs waiting */
+    private final ArrayDeque<job> batch = new ArrayDeque<>();
+
+    /** Bytes reserved by running jobs */
+    private long reserved;
+
+    /** Number of batch jobs running */
+    private int runningBatch;
+
+    /** Whether the scheduler was shut down */
+    private boolean shutdown;
+}
@@ -0,0 +1,360 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/** Single-file archive of every saved building set, used to move a .graphs store between hosts.
+ * The archive starts with a header holding a magic number, the format version and the number of sets, followed by
+ * one record per set made of the payload length, a CRC32 checksum of the payload and the payload itself: the set's
+ * name, its buildings starting with the start building, and the nodes of its cached tour, if any. Records hold
+ * building names rather than serialized objects, so archives can be read by any build of the program, and every
+ * set's distance matrix is rebuilt from the importing host's building catalog.
+ * Sets are encoded and decoded concurrently on a bounded worker pool while a single thread streams records through
+ * a file channel, so only a few records are held in memory at once.
+ * @author Brian Lin
+ */
+public class storeArchive {
+
+    /** Constructor for an archive of the building sets saved by the given graphManager
+     *
+     * @param graphData graphManager instance containing the saved sets and building tables
+     * @param workers number of sets encoded or decoded at once
+     * @param output stream that problems with single sets are reported to
+     */
+    public storeArchive(graphManager graphData, int workers, PrintStream output) {
+        this.graphData = graphData;
+        this.workers = workers;
+        this.output = output;
+        this.inFlight = new Semaphore(workers * 2);
+    }
+
+    /** Writes every saved building set to an archive file. Records are written to a temporary file that then
+     * replaces the archive, so an interrupted export never leaves a partial archive behind.
+     *
+     * @param archiveFile file to write the archive to
+     * @return number of sets written
+     * @throws IOException if the archive cannot be written
+     */
+    public int exportStore(File archiveFile) throws IOException {
+        List<String> graphNames;
+        synchronized (graphData) {
+            graphNames = graphData.graphNames();
+        }
+        Collections.sort(graphNames);
+        File temp = new File(archiveFile.getPath() + ".tmp");
+        AtomicInteger exported = new AtomicInteger();
+        try (solveMetrics.timer timer = solveMetrics.start("archive.export").size(graphNames.size());
+             FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header(0));
+            ExecutorService pool = Executors.newFixedThreadPool(workers);
+            try {
+                for (String graphName : graphNames) {
+                    inFlight.acquireUninterruptibly();
+                    pool.execute(() -> {
+                        try {
+                            ByteBuffer record = encode(graphName);
+                            synchronized (channel) {
+                                writeFully(channel, record);
+                            }
+                            exported.incrementAndGet();
+                        } catch (IOException | RuntimeException excp) {
+                            writeLine(String.format("Could not export building set %s: %s", graphName, excp.getMessage()));
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            } finally {
+                pool.shutdown();
+                try {
+                    pool.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+                } catch (InterruptedException excp) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            channel.write(header(exported.get()), 0);
+            channel.force(false);
+            timer.work(channel.size());
+            solveMetrics.count("io.bytesWritten", channel.size());
+        }
+        Files.move(temp.toPath(), archiveFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        return exported.get();
+    }
+
+    /** Reads every building set from an archive file, saving each one and replacing any saved set with the same
+     * name. Records that fail their checksum or name buildings missing from this host's catalog are reported and
+     * skipped. The caller writes the graphManager afterwards to save the updated registry.
+     *
+     * @param archiveFile file to read the archive from
+     * @return number of sets imported
+     * @throws IOException if the archive cannot be read or is not an archive
+     */
+    public int importStore(File archiveFile) throws IOException {
+        HashMap<String, double[]> distances = graphData.getDistanceRows();
+        HashMap<String, Integer> indices = graphData.getBuildingIndices();
+        HashMap<String, double[]> coordinates = graphData.getCoordinates();
+        AtomicInteger imported = new AtomicInteger();
+        try (solveMetrics.timer timer = solveMetrics.start("archive.import").work(archiveFile.length());
+             FileChannel channel = FileChannel.open(archiveFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+            buffer.flip();
+            fill(channel, buffer, HEADER_BYTES);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("not a building set archive");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(String.format("unsupported archive version %d", version));
+            }
+            int count = buffer.getInt();
+            timer.size(count);
+            ExecutorService pool = Executors.newFixedThreadPool(workers);
+            try {
+                for (int recordNumber = 1; recordNumber <= count; recordNumber++) {
+                    fill(channel, buffer, RECORD_HEADER_BYTES);
+                    int length = buffer.getInt();
+                    int checksum = buffer.getInt();
+                    if (length < 0 || length > MAX_RECORD_BYTES) {
+                        throw new IOException(String.format("record %d has an invalid length", recordNumber));
+                    }
+                    byte[] payload = new byte[length];
+                    read(channel, buffer, payload);
+                    int number = recordNumber;
+                    inFlight.acquireUninterruptibly();
+                    pool.execute(() -> {
+                        try {
+                            decode(payload, checksum, distances, indices, coordinates);
+                            imported.incrementAndGet();
+                        } catch (IOException | RuntimeException excp) {
+                            writeLine(String.format("Could not import record %d: %s", number, excp.getMessage()));
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            } finally {
+                pool.shutdown();
+                try {
+                    pool.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+                } catch (InterruptedException excp) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            solveMetrics.count("io.bytesRead", channel.size());
+        }
+        return imported.get();
+    }
+
+    /** Reads a saved building set and encodes it as a record
+     *
+     * @param graphName name of the saved building set
+     * @return record ready to be written, holding its length, checksum and payload
+     * @throws IOException if the set cannot be encoded
+     */
+    private ByteBuffer encode(String graphName) throws IOException {
+        String graphID;
+        synchronized (graphData) {
+            graphID = graphData.getGraph(graphName);
+        }
+        buildingGraph graph = graphID == null ? null : buildingGraph.readGraph(graphData.getGraphDir(), graphID);
+        if (graph == null) {
+            throw new IllegalArgumentException("saved graph file is missing");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeUTF(graphName);
+        List<String> buildingNames = graph.getBuildingNames();
+        payload.writeInt(buildingNames.size());
+        for (String building : buildingNames) {
+            payload.writeUTF(building);
+        }
+        int[] tour = graph.getOptimalPath() == null ? new int[0] : graph.getOptimalPath().nodes();
+        payload.writeInt(tour.length);
+        for (int node : tour) {
+            payload.writeInt(node);
+        }
+        payload.close();
+        byte[] contents = bytes.toByteArray();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + contents.length);
+        record.putInt(contents.length).putInt(checksum(contents)).put(contents);
+        record.flip();
+        return record;
+    }
+
+    /** Verifies and decodes a record, saving the building set it holds with its cached tour
+     *
+     * @param payload record payload
+     * @param checksum checksum stored with the payload
+     * @param distances mapping of building names to distance rows of this host's catalog
+     * @param indices mapping of building names to indices of this host's catalog
+     * @param coordinates mapping of building names to coordinates of this host's catalog
+     * @throws IOException if the payload is corrupt or the set cannot be saved
+     */
+    private void decode(byte[] payload, int checksum, HashMap<String, double[]> distances,
+                        HashMap<String, Integer> indices, HashMap<String, double[]> coordinates) throws IOException {
+        if (checksum(payload) != checksum) {
+            throw new IOException("checksum mismatch");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        String graphName = in.readUTF();
+        int size = in.readInt();
+        if (size < 1 || size > payload.length) {
+            throw new IOException(String.format("building set %s has an invalid size", graphName));
+        }
+        List<String> buildingNames = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String building = in.readUTF();
+            if (!indices.containsKey(building)) {
+                throw new IllegalArgumentException(String.format("building set %s has building %s, which is not in the catalog",
+                        graphName, building));
+            }
+            buildingNames.add(building);
+        }
+        int[] tour = new int[in.readInt()];
+        if (tour.length > size) {
+            throw new IOException(String.format("building set %s has an invalid tour", graphName));
+        }
+        for (int i = 0; i < tour.length; i++) {
+            tour[i] = in.readInt();
+        }
+        buildingGraph graph = new buildingGraph(buildingNames, graphName, distances, indices, coordinates, false);
+        if (tour.length > 0 && !graph.restorePath(tour)) {
+            throw new IOException(String.format("building set %s has an invalid tour", graphName));
+        }
+        graph.writeGraph(graphData.getGraphDir());
+        String graphID = graph.getGraphID();
+        synchronized (graphData) {
+            String previousID = graphData.getGraph(graphName);
+            if (previousID != null && !previousID.equals(graphID)) {
+                graphData.removeGraph(graphName);
+            }
+            graphData.addGraph(graphName, graphID);
+        }
+    }
+
+    /** Builds the archive header
+     *
+     * @param count number of records that follow
+     * @return header ready to be written
+     */
+    private static ByteBuffer header(int count) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(count);
+        header.flip();
+        return header;
+    }
+
+    /** Computes the CRC32 checksum of a record payload
+     *
+     * @param payload record payload
+     * @return checksum, truncated to an int
+     */
+    static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /** Writes every remaining byte of a buffer to a channel
+     *
+     * @param channel channel to write to
+     * @param buffer bytes to write
+     * @throws IOException if the channel cannot be written
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /** Reads from a channel until the buffer holds at least the given number of unread bytes
+     *
+     * @param channel channel to read from
+     * @param buffer read buffer, left ready for reading
+     * @param needed number of unread bytes required, at most the buffer's capacity
+     * @throws IOException if the channel ends first
+     */
+    private static void fill(FileChannel channel, ByteBuffer buffer, int needed) throws IOException {
+        if (buffer.remaining() >= needed) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < needed) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("archive is truncated");
+            }
+        }
+        buffer.flip();
+    }
+
+    /** Reads bytes into an array, taking them from the read buffer first and then refilling it from the channel
+     *
+     * @param channel channel to read from
+     * @param buffer read buffer, left ready for reading
+     * @param target array to fill completely
+     * @throws IOException if the channel ends first
+     */
+    private static void read(FileChannel channel, ByteBuffer buffer, byte[] target) throws IOException {
+        int offset = 0;
+        while (offset < target.length) {
+            if (!buffer.hasRemaining()) {
+                fill(channel, buffer, 1);
+            }
+            int chunk = Math.min(buffer.remaining(), target.length - offset);
+            buffer.get(target, offset, chunk);
+            offset += chunk;
+        }
+    }
+
+    /** Writes a single problem line and flushes it
+     *
+     * @param line line to write
+     */
+    private void writeLine(String line) {
+        synchronized (output) {
+            output.println(line);
+            output.flush();
+        }
+    }
+
+    /** Number identifying building set archives, the bytes of "BBSA" */
+    private static final int MAGIC = 0x42425341;
+
+    /** Version of the archive format written */
+    private static final int VERSION = 1;
+
+    /** Bytes in the archive header: magic number, version and record count */
+    private static final int HEADER_BYTES = 12;
+
+    /** Bytes before each record payload: payload length and checksum */
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    /** Size of the buffer records are read through */
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /** Largest record payload accepted, guarding against reading a corrupt length */
+    private static final int MAX_RECORD_BYTES = 1 << 24;
+
+    /** graphManager providing the saved sets and building tables */
+    private final graphManager graphData;
+
+    /** Number of sets encoded or decoded at once */
+    private final int workers;
+
+    /** Stream that problems with single sets are reported to */
+    private final PrintStream output;
+
+    /** Limit on sets submitted to the pool but not yet finished, so that queued records stay bounded */
+    private final Semaphore inFlight;
+}
@@ -0,0 +1,101 @@
+/** Combinatorial number system ranking of fixed-size subsets of m nodes, so that a DP layer over subsets of one
+ * size can be stored densely. Subsets enumerated in increasing bitmask order, as by next(), have consecutive ranks.
+ * @author Brian Lin
+ */
+public class subsetRanking {
+
+    /** Constructor that precomputes binomial coefficients for subsets of the given number of nodes
+     *
+     * @param m number of nodes subsets are drawn from
+     */
+    public subsetRanking(int m) {
+        this.m = m;
+        this.binomial = new int[m + 1][m + 2];
+        for (int i = 0; i <= m; i++) {
+            binomial[i][0] = 1;
+            for (int j = 1; j <= i; j++) {
+                binomial[i][j] = binomial[i - 1][j - 1] + binomial[i - 1][j];
+            }
+        }
+    }
+
+    /** Returns the number of subsets of the given size
+     *
+     * @param size subset size
+     * @return number of subsets, m choose size
+     */
+    public int count(int size) {
+        return size < 0 || size > m ? 0 : binomial[m][size];
+    }
+
+    /** Returns the rank of a subset among the subsets of its size
+     *
+     * @param mask subset as a bitmask
+     * @return rank from 0 to count(size) - 1
+     */
+    public int rank(int mask) {
+        int rank = 0;
+        int member = 1;
+        for (int rest = mask; rest != 0; rest &= rest - 1) {
+            rank += binomial[Integer.numberOfTrailingZeros(rest)][member];
+            member++;
+        }
+        return rank;
+    }
+
+    /** Returns the subset of the given size with the given rank
+     *
+     * @param rank rank from 0 to count(size) - 1
+     * @param size subset size
+     * @return subset as a bitmask
+     */
+    public int unrank(int rank, int size) {
+        int mask = 0;
+        int node = m - 1;
+        for (int member = size; member >= 1; member--) {
+            while (binomial[node][member] > rank) {
+                node--;
+            }
+            mask |= 1 << node;
+            rank -= binomial[node][member];
+            node--;
+        }
+        return mask;
+    }
+
+    /** Returns the first subset of the given size in rank order
+     *
+     * @param size subset size
+     * @return bitmask with the lowest size bits set
+     */
+    public static int first(int size) {
+        return (1 << size) - 1;
+    }
+
+    /** Returns the subset of the same size with the next rank
+     *
+     * @param mask subset as a bitmask
+     * @return next larger bitmask with the same number of bits set
+     */
+    public static int next(int mask) {
+        int lowest = mask & -mask;
+        int ripple = mask + lowest;
+        return (((ripple ^ mask) >>> 2) / lowest) | ripple;
+    }
+
+    /** Returns the position of a member among the members of a subset
+     *
+     * @param mask subset as a bitmask
+     * @param member node in the subset
+     * @return number of members below the given node
+     */
+    public static int position(int mask, int member) {
+        return Integer.bitCount(mask & ((1 << member) - 1));
+    }
+
+    /** Number of nodes subsets are drawn from */
+    private final int m;
+
+    /** Binomial coefficients, binomial[i][j] being i choose j */
+    private final int[][] binomial;
+}
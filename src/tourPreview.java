@@ -0,0 +1,191 @@
+import java.util.*;
+
+/** Instant estimates of how a saved path changes when one building is added or dropped, without re-solving.
+ * Adding a building takes the cheapest place to splice it into the saved path, and dropping one joins its
+ * neighbours, so each estimate is an upper bound on the change a full solve would find.
+ * @author Brian Lin
+ */
+public class tourPreview {
+
+    /** Constructor for previews against a saved path over buildings from the distance file
+     *
+     * @param pathBuildings building names along the saved path, starting from the start building
+     * @param fileDistances mapping of building names to rows from the distance file
+     * @param fileIndices mapping of building names to indices in file rows
+     */
+    public tourPreview(List<String> pathBuildings, Map<String, double[]> fileDistances, Map<String, Integer> fileIndices) {
+        this.pathBuildings = new ArrayList<>(pathBuildings);
+        this.fileDistances = fileDistances;
+        this.fileIndices = fileIndices;
+        int n = pathBuildings.size();
+        this.from = new double[n][];
+        this.pathColumns = new int[n];
+        this.legs = new double[n];
+        for (int k = 0; k < n; k++) {
+            from[k] = fileDistances.get(pathBuildings.get(k));
+            pathColumns[k] = fileIndices.get(pathBuildings.get(k));
+            if (k > 0) {
+                legs[k] = from[k - 1][pathColumns[k]];
+                length += legs[k];
+            }
+        }
+    }
+
+    /** Finds the cheapest place to add a building to the path, after any stop including the last
+     *
+     * @param building name of a building not on the path
+     * @return position along the path the building would follow, and the distance it adds
+     */
+    public change insertion(String building) {
+        double[] row = fileDistances.get(building);
+        int column = fileIndices.get(building);
+        int n = pathBuildings.size();
+        int bestAfter = n - 1;
+        double bestAdded = from[n - 1][column];
+        for (int k = 0; k + 1 < n; k++) {
+            double added = from[k][column] + row[pathColumns[k + 1]] - legs[k + 1];
+            if (added < bestAdded) {
+                bestAdded = added;
+                bestAfter = k;
+            }
+        }
+        return new change(bestAfter, bestAdded);
+    }
+
+    /** Finds the distance saved by dropping a building from the path and joining its neighbours. Dropping the
+     * start building makes the next stop the start.
+     *
+     * @param building name of a building on the path
+     * @return position of the building along the path, and the distance removed as a negative change
+     */
+    public change removal(String building) {
+        int position = pathBuildings.indexOf(building);
+        int n = pathBuildings.size();
+        double saved = legs[position];
+        if (position + 1 < n) {
+            saved += legs[position + 1];
+            if (position > 0) {
+                saved -= from[position - 1][pathColumns[position + 1]];
+            }
+        }
+        return new change(position, -saved);
+    }
+
+    /** Ranks every catalog building not on the path by the distance it would add, cheapest first. The added
+     * distance of every building is relaxed one path leg at a time as a branch-free minimum over contiguous
+     * arrays that the JIT can compile to SIMD instructions, and the insertion point is looked up afterwards.
+     *
+     * @return building names with their cheapest insertion, cheapest first
+     */
+    public List<Map.Entry<String, change>> rankInsertions() {
+        int catalog = fileIndices.size();
+        String[] names = new String[catalog];
+        for (Map.Entry<String, Integer> entry : fileIndices.entrySet()) {
+            names[entry.getValue()] = entry.getKey();
+        }
+        int n = pathBuildings.size();
+        double[][] into = new double[n][catalog];
+        for (int j = 0; j < catalog; j++) {
+            double[] row = fileDistances.get(names[j]);
+            for (int k = 0; k < n; k++) {
+                into[k][j] = row[pathColumns[k]];
+            }
+        }
+        double[] added = from[n - 1].clone();
+        for (int k = 0; k + 1 < n; k++) {
+            double[] fromStop = from[k];
+            double[] intoNext = into[k + 1];
+            double leg = legs[k + 1];
+            for (int j = 0; j < catalog; j++) {
+                added[j] = Math.min(added[j], fromStop[j] + intoNext[j] - leg);
+            }
+        }
+        Set<String> onPath = new HashSet<>(pathBuildings);
+        List<Integer> candidates = new ArrayList<>();
+        for (int j = 0; j < catalog; j++) {
+            if (!onPath.contains(names[j])) {
+                candidates.add(j);
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(j -> added[j]));
+        List<Map.Entry<String, change>> ranking = new ArrayList<>();
+        for (int j : candidates) {
+            ranking.add(new AbstractMap.SimpleImmutableEntry<>(names[j], insertion(names[j])));
+        }
+        return ranking;
+    }
+
+    /** Returns the building at a position along the saved path
+     *
+     * @param position position along the path, 0 being the start
+     * @return building name
+     */
+    public String stop(int position) {
+        return pathBuildings.get(position);
+    }
+
+    /** Returns the length of the saved path
+     *
+     * @return path length in meters
+     */
+    public double length() {
+        return length;
+    }
+
+    /** Change to the saved path from adding or dropping one building */
+    public static class change {
+
+        /** Constructor for a change at a position along the path
+         *
+         * @param position stop the added building follows, or the position of the dropped building
+         * @param distance change in path length in meters, negative for savings
+         */
+        change(int position, double distance) {
+            this.position = position;
+            this.distance = distance;
+        }
+
+        /** Returns the stop the added building follows, or the position of the dropped building
+         *
+         * @return position along the path
+         */
+        public int position() {
+            return position;
+        }
+
+        /** Returns the change in path length
+         *
+         * @return change in meters, negative for savings
+         */
+        public double distance() {
+            return distance;
+        }
+
+        /** Position along the path */
+        private final int position;
+
+        /** Change in path length in meters */
+        private final double distance;
+    }
+
+    /** Building names along the saved path */
+    private final List<String> pathBuildings;
+
+    /** Mapping of building names to rows from the distance file */
+    private final Map<String, double[]> fileDistances;
+
+    /** Mapping of building names to indices in file rows */
+    private final Map<String, Integer> fileIndices;
+
+    /** File row of each stop along the path, the distances from that stop to every catalog building */
+    private final double[][] from;
+
+    /** File index of each stop along the path */
+    private final int[] pathColumns;
+
+    /** Distance of the leg arriving at each stop, 0 for the start */
+    private final double[] legs;
+
+    /** Length of the saved path in meters */
+    private double length;
+}
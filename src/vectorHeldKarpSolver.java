@@ -0,0 +1,127 @@
+import java.util.Arrays;
+
+/** Exact Held-Karp solver whose relaxation runs over every predecessor lane of a subset's row at once,
+ * using the SIMD vectorDPKernel when the jdk.incubator.vector module is available and a scalar loop otherwise.
+ * Predecessors outside a subset hold infinite cost, so scanning the whole row gives the same minimum as
+ * scanning only the subset's members while keeping every load contiguous.
+ * @author Brian Lin
+ */
+public class vectorHeldKarpSolver implements pathSolver {
+
+    /** Constructor that loads the SIMD kernel if the runtime supports it */
+    public vectorHeldKarpSolver() {
+        this.kernel = loadKernel();
+    }
+
+    @Override
+    public pathResult solve(distanceView view) {
+        int n = view.size();
+        if (n <= 2) {
+            return heldKarpDelegate.solve(view);
+        }
+        int m = n - 1;
+        double[][] dist = view.matrix();
+        double[] costs;
+        try (solveMetrics.timer timer = solveMetrics.start("solve.fill").size(n)) {
+            costs = fillTable(dist, m);
+            timer.work(heldKarpSolver.statesEvaluated(m));
+        }
+        solveMetrics.count("solve.states", heldKarpSolver.statesEvaluated(m));
+        solveMetrics.timer timer = solveMetrics.start("solve.reconstruct").size(n);
+        try {
+            return new pathResult(view, heldKarpSolver.reconstruct(dist, costs, m));
+        } finally {
+            timer.close();
+        }
+    }
+
+    /** Fills the same table layout as heldKarpSolver.fillTable, relaxing each state with the kernel
+     *
+     * @param dist distance matrix including the start node
+     * @param m number of non-start nodes
+     * @return filled DP table
+     */
+    private double[] fillTable(double[][] dist, int m) {
+        heldKarpSolver.checkSize(m);
+        double[][] legsInto = new double[m][m];
+        for (int curr = 0; curr < m; curr++) {
+            for (int prev = 0; prev < m; prev++) {
+                legsInto[curr][prev] = dist[prev + 1][curr + 1];
+            }
+        }
+        int subsets = 1 << m;
+        double[] costs = new double[subsets * m];
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+        for (int j = 0; j < m; j++) {
+            costs[(1 << j) * m + j] = dist[0][j + 1];
+        }
+        for (int mask = 1; mask < subsets; mask++) {
+            if ((mask & (mask - 1)) == 0) {
+                continue;
+            }
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                int curr = Integer.numberOfTrailingZeros(rest);
+                costs[mask * m + curr] = kernel.relax(costs, (mask ^ (1 << curr)) * m, legsInto[curr], m);
+            }
+        }
+        return costs;
+    }
+
+    /** Loads the SIMD kernel by name, checking that it links against the vector module
+     *
+     * @return SIMD kernel, or a scalar kernel if the vector module or kernel class is unavailable
+     */
+    private static dpKernel loadKernel() {
+        try {
+            dpKernel vector = (dpKernel) Class.forName("vectorDPKernel").getDeclaredConstructor().newInstance();
+            vector.relax(new double[]{0, 1}, 0, new double[]{1, 0}, 2);
+            return vector;
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException excp) {
+            return new scalarKernel();
+        }
+    }
+
+    /** Returns whether this solver is running the SIMD kernel rather than the scalar fallback
+     *
+     * @return true if the vector module was available
+     */
+    public boolean vectorized() {
+        return !(kernel instanceof scalarKernel);
+    }
+
+    @Override
+    public String name() {
+        return "vector";
+    }
+
+    @Override
+    public int maxSize() {
+        return 22;
+    }
+
+    @Override
+    public boolean exact() {
+        return true;
+    }
+
+    /** Scalar relaxation over the whole row, used when the vector module is unavailable */
+    private static class scalarKernel implements dpKernel {
+        @Override
+        public double relax(double[] costs, int rowStart, double[] legs, int m) {
+            double min = Double.POSITIVE_INFINITY;
+            for (int p = 0; p < m; p++) {
+                double candidate = costs[rowStart + p] + legs[p];
+                if (candidate < min) {
+                    min = candidate;
+                }
+            }
+            return min;
+        }
+    }
+
+    /** Solver used for trivial instances that need no table */
+    private static final pathSolver heldKarpDelegate = new heldKarpSolver();
+
+    /** Relaxation kernel in use */
+    private final dpKernel kernel;
+}
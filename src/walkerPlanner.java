@@ -0,0 +1,296 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+/** Splits one building set among several walkers who all leave from the start building, so that the longest
+ * walk is as short as possible. Buildings are ordered by their bearing from the start (or along the Christofides
+ * path when positions are unknown), starting after the widest empty wedge, and cut into contiguous sectors.
+ * Every sector is solved through a solveScheduler with the solver suited to its size, exactly for sectors of up to
+ * 22 buildings, so that exact sectors run in parallel only as far as the heap allows and fall back to the heuristic
+ * solver otherwise. Boundaries between neighbouring sectors are then shifted one building at a time while that
+ * shortens the longer of the two walks: quick nearest neighbour walks pick the shifts worth trying, and a shift is
+ * only kept once solving both sectors again confirms it.
+ * @author Brian Lin
+ */
+public class walkerPlanner {
+
+    /** Plans one path per walker from the start building of the view, solving sectors on a scheduler of its own
+     *
+     * @param view distances between the buildings to visit, starting from node 0
+     * @param walkers number of walkers, at least 1
+     * @return one path per walker, each starting at node 0 and given over the original view's node indices
+     * @throws InterruptedException if interrupted while waiting for a sector to be solved
+     */
+    public static List<pathResult> plan(distanceView view, int walkers) throws InterruptedException {
+        solveScheduler scheduler = new solveScheduler();
+        try {
+            return plan(view, walkers, scheduler);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    /** Plans one path per walker from the start building of the view
+     *
+     * @param view distances between the buildings to visit, starting from node 0
+     * @param walkers number of walkers, at least 1
+     * @param scheduler scheduler to solve sectors on
+     * @return one path per walker, each starting at node 0 and given over the original view's node indices
+     * @throws InterruptedException if interrupted while waiting for a sector to be solved
+     */
+    public static List<pathResult> plan(distanceView view, int walkers, solveScheduler scheduler)
+            throws InterruptedException {
+        if (walkers < 1) {
+            throw new IllegalArgumentException("at least one walker is required");
+        }
+        int n = view.size();
+        int[] order;
+        int[] boundaries;
+        solveMetrics.timer partitionTimer = solveMetrics.start("walkers.partition").size(n);
+        try {
+            order = view.hasPositions() ? sweepOrder(view) : routeOrder(view);
+            int sectors = Math.max(1, Math.min(walkers, order.length));
+            boundaries = new int[sectors + 1];
+            for (int i = 0; i <= sectors; i++) {
+                boundaries[i] = (int) ((long) order.length * i / sectors);
+            }
+        } finally {
+            partitionTimer.close();
+        }
+        int sectors = boundaries.length - 1;
+        pathResult[] solved;
+        solveMetrics.timer solveTimer = solveMetrics.start("walkers.solve").size(n);
+        try {
+            solved = solveSectors(view, order, boundaries, IntStream.range(0, sectors).toArray(), scheduler);
+            refine(view, order, boundaries, solved, scheduler);
+        } finally {
+            solveTimer.close();
+        }
+        pathResult[] paths = Arrays.copyOf(solved, walkers);
+        for (int i = sectors; i < walkers; i++) {
+            paths[i] = new pathResult(view, new int[]{0});
+        }
+        return Arrays.asList(paths);
+    }
+
+    /** Orders the non-start nodes by bearing from the start, beginning just after the widest gap between
+     * consecutive bearings so that no sector straddles it. Only the gap wrapping around from the last bearing to the
+     * first spans a full turn, so buildings sharing a bearing are never split by the starting point.
+     *
+     * @param view view with node positions
+     * @return non-start nodes in sweep order
+     */
+    private static int[] sweepOrder(distanceView view) {
+        int n = view.size();
+        double[] origin = view.position(0);
+        Integer[] nodes = new Integer[n - 1];
+        double[] bearing = new double[n];
+        for (int i = 1; i < n; i++) {
+            double[] position = view.position(i);
+            bearing[i] = Math.atan2(position[1] - origin[1], position[0] - origin[0]);
+            nodes[i - 1] = i;
+        }
+        Arrays.sort(nodes, Comparator.comparingDouble(i -> bearing[i]));
+        int first = 0;
+        double widest = -1;
+        for (int i = 0; i < nodes.length; i++) {
+            double previous = bearing[nodes[(i + nodes.length - 1) % nodes.length]];
+            double gap = bearing[nodes[i]] - previous;
+            if (i == 0) {
+                gap += 2 * Math.PI;
+            }
+            if (gap > widest) {
+                widest = gap;
+                first = i;
+            }
+        }
+        int[] order = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            order[i] = nodes[(first + i) % nodes.length];
+        }
+        return order;
+    }
+
+    /** Orders the non-start nodes along the Christofides path, for views without positions
+     *
+     * @param view distances between the buildings to visit
+     * @return non-start nodes in path order
+     */
+    private static int[] routeOrder(distanceView view) {
+        return Arrays.copyOfRange(christofides.solve(view).nodes(), 1, view.size());
+    }
+
+    /** Shifts sector boundaries one node at a time, moving a node out of the longest walk into a neighbouring
+     * sector whenever that shortens the longer of the two walks, until no such move remains. A shift is only tried
+     * when the estimates of both sectors say it helps, and only kept when their solved walks confirm it.
+     *
+     * @param view distances between the buildings to visit
+     * @param order non-start nodes in sweep order
+     * @param boundaries start of each sector in the order, followed by the order's length; updated in place
+     * @param solved solved walk over each sector; updated in place
+     * @param scheduler scheduler to solve sectors on
+     * @throws InterruptedException if interrupted while waiting for a sector to be solved
+     */
+    private static void refine(distanceView view, int[] order, int[] boundaries, pathResult[] solved,
+                               solveScheduler scheduler) throws InterruptedException {
+        int sectors = boundaries.length - 1;
+        double[] estimates = new double[sectors];
+        for (int i = 0; i < sectors; i++) {
+            estimates[i] = estimate(view, order, boundaries[i], boundaries[i + 1]);
+        }
+        for (int round = 0; round < MAX_ROUNDS_PER_NODE * order.length; round++) {
+            int longest = 0;
+            for (int i = 1; i < sectors; i++) {
+                if (solved[i].length() > solved[longest].length()) {
+                    longest = i;
+                }
+            }
+            if (boundaries[longest + 1] - boundaries[longest] <= 1) {
+                break;
+            }
+            boolean moved = false;
+            for (int neighbour : new int[]{longest - 1, longest + 1}) {
+                if (neighbour < 0 || neighbour >= sectors) {
+                    continue;
+                }
+                int boundary = neighbour < longest ? longest : neighbour;
+                int shifted = boundaries[boundary] + (neighbour < longest ? 1 : -1);
+                int[] trial = boundaries.clone();
+                trial[boundary] = shifted;
+                double fromLongest = estimate(view, order, trial[longest], trial[longest + 1]);
+                double toNeighbour = estimate(view, order, trial[neighbour], trial[neighbour + 1]);
+                if (Math.max(fromLongest, toNeighbour) >= estimates[longest] - EPSILON) {
+                    continue;
+                }
+                pathResult[] trialPaths = solveSectors(view, order, trial, new int[]{longest, neighbour}, scheduler);
+                solveMetrics.count("walkers.shiftsChecked", 1);
+                if (Math.max(trialPaths[0].length(), trialPaths[1].length()) < solved[longest].length() - EPSILON) {
+                    boundaries[boundary] = shifted;
+                    estimates[longest] = fromLongest;
+                    estimates[neighbour] = toNeighbour;
+                    solved[longest] = trialPaths[0];
+                    solved[neighbour] = trialPaths[1];
+                    moved = true;
+                    break;
+                }
+            }
+            if (!moved) {
+                break;
+            }
+        }
+    }
+
+    /** Estimates the walk over one sector from the start with a nearest neighbour path polished by local search
+     *
+     * @param view distances between the buildings to visit
+     * @param order non-start nodes in sweep order
+     * @param from first position of the sector in the order
+     * @param to position just past the sector
+     * @return estimated walk length in meters
+     */
+    private static double estimate(distanceView view, int[] order, int from, int to) {
+        double[][] dist = subView(view, Arrays.copyOfRange(order, from, to)).matrix();
+        return geneticSolver.length(dist, localSearch.improve(dist, nearestNeighbour(dist)));
+    }
+
+    /** Builds a path from the start by always moving to the nearest unvisited node
+     *
+     * @param dist distance matrix
+     * @return path visiting every node once
+     */
+    private static int[] nearestNeighbour(double[][] dist) {
+        int n = dist.length;
+        int[] path = new int[n];
+        boolean[] visited = new boolean[n];
+        visited[0] = true;
+        for (int position = 1; position < n; position++) {
+            int last = path[position - 1];
+            int nearest = -1;
+            for (int node = 1; node < n; node++) {
+                if (!visited[node] && (nearest < 0 || dist[last][node] < dist[last][nearest])) {
+                    nearest = node;
+                }
+            }
+            path[position] = nearest;
+            visited[nearest] = true;
+        }
+        return path;
+    }
+
+    /** Solves the given sectors from the start on the scheduler with the solver suited to each one's size,
+     * queueing them all before waiting so that they run in parallel as far as the scheduler admits them
+     *
+     * @param view distances between the buildings to visit
+     * @param order non-start nodes in sweep order
+     * @param boundaries start of each sector in the order, followed by the order's length
+     * @param indices sectors to solve
+     * @param scheduler scheduler to solve sectors on
+     * @return walk over each of the given sectors, in the same order, given over the original view's node indices
+     * @throws InterruptedException if interrupted while waiting for a sector to be solved
+     */
+    private static pathResult[] solveSectors(distanceView view, int[] order, int[] boundaries, int[] indices,
+                                             solveScheduler scheduler) throws InterruptedException {
+        int[][] members = new int[indices.length][];
+        solveScheduler.job[] jobs = new solveScheduler.job[indices.length];
+        try {
+            for (int i = 0; i < indices.length; i++) {
+                members[i] = Arrays.copyOfRange(order, boundaries[indices[i]], boundaries[indices[i] + 1]);
+                distanceView sector = subView(view, members[i]);
+                jobs[i] = new solveScheduler.job(sector, sector.size(), buildingGraph.solverFor(sector.size()),
+                        buildingGraph.heuristicFor(sector.size()));
+                scheduler.submit(jobs[i]);
+            }
+            pathResult[] paths = new pathResult[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                int[] local = scheduler.await(jobs[i]).nodes();
+                int[] nodes = new int[local.length];
+                for (int j = 0; j < local.length; j++) {
+                    nodes[j] = local[j] == 0 ? 0 : members[i][local[j] - 1];
+                }
+                paths[i] = new pathResult(view, nodes);
+            }
+            return paths;
+        } catch (InterruptedException | RuntimeException excp) {
+            for (solveScheduler.job job : jobs) {
+                if (job != null) {
+                    scheduler.cancel(job);
+                }
+            }
+            throw excp;
+        }
+    }
+
+    /** Builds the view over the start and the given nodes
+     *
+     * @param view distances between every node
+     * @param members non-start nodes to include, in the order they become nodes 1 onwards
+     * @return view with the start as node 0
+     */
+    private static distanceView subView(distanceView view, int[] members) {
+        int size = members.length + 1;
+        int[] nodes = new int[size];
+        System.arraycopy(members, 0, nodes, 1, members.length);
+        double[][] dist = view.matrix();
+        List<String> names = new ArrayList<>();
+        double[][] distances = new double[size][size];
+        double[][] positions = view.hasPositions() ? new double[size][] : null;
+        for (int i = 0; i < size; i++) {
+            names.add(view.name(nodes[i]));
+            for (int j = 0; j < size; j++) {
+                distances[i][j] = dist[nodes[i]][nodes[j]];
+            }
+            if (positions != null) {
+                positions[i] = view.position(nodes[i]);
+            }
+        }
+        return new distanceView(names, distances, positions);
+    }
+
+    /** Limit on boundary shifts, per building in the set */
+    private static final int MAX_ROUNDS_PER_NODE = 4;
+
+    /** Shortening below which a boundary shift is treated as rounding noise */
+    private static final double EPSILON = 1e-9;
+
+    /** Solver giving the order of buildings when positions are unknown */
+    private static final christofidesSolver christofides = new christofidesSolver();
+}
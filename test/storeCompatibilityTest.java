@@ -0,0 +1,57 @@
+import java.io.File;
+import java.nio.file.Files;
+
+/** Checks that a .graphs store written by the first release of the program still loads: the registry of building
+ * sets, every saved set, and the building tables, which that release kept inside the registry and which are rebuilt
+ * from the csv files. The store in test/baselineStore was saved by that release with one set, tour.
+ * Run from the directory holding the catalog csv files.
+ * Usage: storeCompatibilityTest [store directory]
+ * @author Brian Lin
+ */
+public class storeCompatibilityTest {
+
+    public static void main(String[] args) throws Exception {
+        File fixture = new File(args.length > 0 ? args[0] : "test/baselineStore");
+        File graphDir = Files.createTempDirectory("graphsBaseline").toFile();
+        for (File file : fixture.listFiles()) {
+            Files.copy(file.toPath(), new File(graphDir, file.getName()).toPath());
+        }
+
+        graphManager graphData = graphManager.readGraphManager(graphDir, "graphData");
+        check(graphData != null, "registry loads");
+        check(graphData.getGraphDir().equals(graphDir), "registry is saved back to the directory it was read from");
+        check(graphData.numGraphs() == 1 && graphData.checkGraph("tour"), "registry lists the saved set");
+        check(!graphData.graphic, "saved graphic setting is kept");
+        check(graphData.getCollapseTolerance() == 0, "collapse tolerance missing from the store defaults to 0");
+
+        buildingGraph tour = buildingGraph.readGraph(graphDir, graphData.getGraph("tour"));
+        check(tour != null, "saved set loads");
+        check(tour.numBuildings() == 4 && tour.getBuilding(0).equals("Sproul Hall"), "saved set keeps its buildings");
+        check(tour.getOptimalPath() == null, "saved set without a cached tour loads as unsolved");
+
+        check(!graphData.hasCatalog(), "store without building table files is detected");
+        graphData.rebuildCatalog(Main.csvPath, Main.csvCoordinates);
+        check(graphData.hasCatalog(), "building tables are rebuilt from the csv files");
+        graphData = graphManager.readGraphManager(graphDir, "graphData");
+        check(graphData.getDistanceRows().containsKey("Sproul Hall"), "rebuilt building tables load");
+        tour.updateBuildingGraph(graphData.getDistanceRows(), graphData.getBuildingIndices(),
+                graphData.getCoordinates(), false);
+        tour.solvePath();
+        check(tour.getOptimalPath() != null && tour.getPathLength() > 0, "saved set solves against the rebuilt tables");
+
+        graphData.writeGraphManager();
+        check(graphManager.readGraphManager(graphDir, "graphData").checkGraph("tour"), "registry saves and reloads");
+        System.out.println("storeCompatibilityTest passed");
+    }
+
+    /** Throws if a condition does not hold
+     *
+     * @param condition condition to check
+     * @param description what the condition checks
+     */
+    private static void check(boolean condition, String description) {
+        if (!condition) {
+            throw new AssertionError("Failed: " + description);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/** SIMD implementation of the Held-Karp relaxation using the incubating JDK Vector API.
+ * Compiled and run separately with --add-modules jdk.incubator.vector; vectorHeldKarpSolver
+ * loads it by name and falls back to a scalar loop when it is missing.
+ * @author Brian Lin
+ */
+public class vectorDPKernel implements dpKernel {
+
+    @Override
+    public double relax(double[] costs, int rowStart, double[] legs, int m) {
+        DoubleVector best = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        int bound = SPECIES.loopBound(m);
+        int p = 0;
+        for (; p < bound; p += SPECIES.length()) {
+            DoubleVector prevCosts = DoubleVector.fromArray(SPECIES, costs, rowStart + p);
+            best = best.min(prevCosts.add(DoubleVector.fromArray(SPECIES, legs, p)));
+        }
+        double min = best.reduceLanes(VectorOperators.MIN);
+        for (; p < m; p++) {
+            double candidate = costs[rowStart + p] + legs[p];
+            if (candidate < min) {
+                min = candidate;
+            }
+        }
+        return min;
+    }
+
+    /** Preferred vector shape for doubles on this machine */
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+}